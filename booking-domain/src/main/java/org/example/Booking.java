@@ -1,19 +1,31 @@
 package org.example;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "bookings",
+@jakarta.persistence.Table(name = "bookings",
         uniqueConstraints = @UniqueConstraint(
-                columnNames = {"reservation_date", "reservation_time", "table_number"},
-                name = "uk_booking_date_time_table"
-        ))
+                columnNames = {"location", "reservation_date", "reservation_time", "table_number"},
+                name = "uk_booking_location_date_time_table"
+        ),
+        indexes = {
+                @Index(name = "idx_booking_location_date", columnList = "location, reservation_date"),
+                @Index(name = "idx_booking_location_email_key", columnList = "location, email_key"),
+                @Index(name = "idx_booking_location_phone_key", columnList = "location, phone_key"),
+                @Index(name = "idx_booking_location_last_modified", columnList = "location, last_modified")
+        })
 
 public class Booking {
-    
+
+    // The cafe of /api/bookings, and of bookings that don't name one
+    public static final String DEFAULT_LOCATION = "main";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,6 +33,11 @@ public class Booking {
     @Version // Optimistic locking
     private Long version;
 
+    // Which cafe the booking is for - bookings and tables are partitioned by location
+    @Pattern(regexp = "^[a-z0-9-]{1,50}$", message = "Location must be lowercase letters, numbers or dashes")
+    @Column(nullable = false, length = 50)
+    private String location = DEFAULT_LOCATION;
+
     @NotBlank(message = "Customer name is required")
     @Size(min = 2, max = 100, message = "Customer name must be between 2 and 100 characters")
     @Column(nullable = false)
@@ -58,6 +75,20 @@ public class Booking {
     @Column(nullable = true) // Will be assigned by backend
     private Integer tableNumber;
 
+    // Normalized email and phone for lookups, kept in step with email and phone (see ContactKeys)
+    @JsonIgnore
+    @Column(nullable = true)
+    private String emailKey;
+
+    @JsonIgnore
+    @Column(nullable = true, length = 50)
+    private String phoneKey;
+
+    // Set on every insert and update, for delta sync (see BookingSync); clients cannot set it
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Instant lastModified;
+
     // Default constructor (needed by Spring)
     public Booking() {
     }
@@ -69,6 +100,19 @@ public class Booking {
         this.reservationDate = reservationDate;
         this.reservationTime = reservationTime;
         this.numberOfGuests = numberOfGuests;
+        updateContactKeys();
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void beforeSave() {
+        updateContactKeys();
+        lastModified = Instant.now();
+    }
+
+    private void updateContactKeys() {
+        this.emailKey = ContactKeys.email(email);
+        this.phoneKey = ContactKeys.phone(phone);
     }
 
     // Getters and Setters
@@ -84,6 +128,10 @@ public class Booking {
 
     public void setVersion(Long version) { this.version = version; }
 
+    public String getLocation() { return location; }
+
+    public void setLocation(String location) { this.location = location; }
+
     public String getCustomerName() {
         return customerName;
     }
@@ -98,6 +146,7 @@ public class Booking {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailKey = ContactKeys.email(email);
     }
 
     public String getPhone() {
@@ -106,6 +155,7 @@ public class Booking {
 
     public void setPhone(String phone) {
         this.phone = phone;
+        this.phoneKey = ContactKeys.phone(phone);
     }
 
     public LocalDate getReservationDate() {
@@ -135,4 +185,15 @@ public class Booking {
     public Integer getTableNumber() { return tableNumber; }
 
     public void setTableNumber(Integer tableNumber) { this.tableNumber = tableNumber; }
+
+    @JsonIgnore
+    public String getEmailKey() { return emailKey; }
+
+    @JsonIgnore
+    public String getPhoneKey() { return phoneKey; }
+
+    public Instant getLastModified() { return lastModified; }
+
+    // For stores without JPA callbacks (the reactive service), JPA sets it in beforeSave()
+    public void setLastModified(Instant lastModified) { this.lastModified = lastModified; }
 }
@@ -0,0 +1,32 @@
+package org.example;
+
+import java.util.Locale;
+
+/**
+ * Lookup keys for customer contact details, so that the same email or phone number written
+ * differently still matches: emails are trimmed and lower-cased, phone numbers keep only
+ * their digits ("555-1234" and "(555) 1234" are both "5551234").
+ */
+public final class ContactKeys {
+
+    private ContactKeys() {
+    }
+
+    public static String email(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String phone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
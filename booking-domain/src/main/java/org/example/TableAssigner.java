@@ -0,0 +1,137 @@
+package org.example;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Table assignment rules shared by booking creation, updates and the waitlist.
+ * Each guest needs 15 minutes at the table, and a booking gets the smallest free
+ * table that can accommodate the party.
+ */
+public final class TableAssigner {
+
+    public static final long MINUTES_PER_GUEST = 15;
+    public static final long SLOT_MINUTES = 15;
+    public static final LocalTime OPENING_TIME = LocalTime.of(9, 0);
+    public static final LocalTime CLOSING_TIME = LocalTime.of(17, 0);
+
+    private TableAssigner() {
+    }
+
+    // The bookable start times from 9:00 to 16:45 in 15-minute increments
+    public static List<LocalTime> timeSlots() {
+        List<LocalTime> timeList = new ArrayList<>();
+        LocalTime currentTime = OPENING_TIME;
+
+        // 17:00 itself is too late in the cafe's day to take guests
+        while (currentTime.isBefore(CLOSING_TIME)) {
+            timeList.add(currentTime);
+            currentTime = currentTime.plusMinutes(SLOT_MINUTES);
+        }
+        return timeList;
+    }
+
+    // When a booking for the given number of guests starting at startTime ends
+    public static LocalTime endTime(LocalTime startTime, int numberOfGuests) {
+        return startTime.plusMinutes(numberOfGuests * MINUTES_PER_GUEST);
+    }
+
+    // Whether the booking can be completed before the cafe closes
+    public static boolean endsBeforeClosing(LocalTime startTime, int numberOfGuests) {
+        LocalTime endTime = endTime(startTime, numberOfGuests);
+        return !endTime.isAfter(CLOSING_TIME) && !endTime.isBefore(startTime);
+    }
+
+    // Validates that a booking can be completed before the cafe closes, returns the error message or null.
+    // Each guest requires 15 minutes, and cafe closes at 17:00.
+    public static String validateBookingTime(Booking booking) {
+        LocalTime closingTime = CLOSING_TIME;
+        LocalTime reservationTime = booking.getReservationTime();
+        int numberOfGuests = booking.getNumberOfGuests();
+
+        // Calculate how long the booking will take (15 minutes per guest)
+        long durationMinutes = numberOfGuests * MINUTES_PER_GUEST;
+
+        // Calculate when the booking would end
+        LocalTime bookingEndTime = reservationTime.plusMinutes(durationMinutes);
+
+        // Check if booking would end after closing time
+        if (bookingEndTime.isAfter(closingTime)) {
+            return String.format(
+                    "Booking cannot be completed before closing time (17:00). " +
+                            "A reservation at %s for %d guest%s would require until %s.",
+                    reservationTime.toString(),
+                    numberOfGuests,
+                    numberOfGuests == 1 ? "" : "s",
+                    bookingEndTime.toString()
+            );
+        }
+
+        return null; // Valid booking
+    }
+
+    /**
+     * Finds the smallest available table that can accommodate the number of guests.
+     *
+     * @param tables The table inventory
+     * @param existingBookings All bookings for the requested date
+     * @param numberOfGuests The party size
+     * @param time The requested start time
+     * @return The table number, or null if no suitable table is available
+     */
+    public static Integer findTable(List<TableDTO> tables, List<Booking> existingBookings,
+                                    int numberOfGuests, LocalTime time) {
+        LocalTime bookingEndTime = endTime(time, numberOfGuests);
+
+        // Sort tables by size (ascending) to try smallest suitable table first
+        List<TableDTO> sortedTables = new ArrayList<>(tables);
+        sortedTables.sort(Comparator.comparingLong(TableDTO::tableSize));
+
+        for (TableDTO table : sortedTables) {
+            // Check if table is large enough
+            if (table.tableSize() >= numberOfGuests) {
+                // Check if table is free
+                if (isTableAvailable(table.id().intValue(), time, bookingEndTime, existingBookings)) {
+                    return table.id().intValue();
+                }
+            }
+        }
+
+        // No available table found
+        return null;
+    }
+
+    /**
+     * Checks if a specific table is available for the given time period.
+     * A table is available if there are no overlapping bookings.
+     *
+     * @param tableNumber The table number to check
+     * @param startTime The requested booking start time
+     * @param endTime The requested booking end time
+     * @param existingBookings All bookings for the requested date
+     * @return true if the table is available, false otherwise
+     */
+    public static boolean isTableAvailable(int tableNumber, LocalTime startTime, LocalTime endTime,
+                                           List<Booking> existingBookings) {
+        for (Booking existing : existingBookings) {
+            // Skip bookings for different tables
+            if (existing.getTableNumber() == null || existing.getTableNumber() != tableNumber) {
+                continue;
+            }
+
+            // Calculate existing booking's time range
+            LocalTime existingStart = existing.getReservationTime();
+            LocalTime existingEnd = endTime(existingStart, existing.getNumberOfGuests());
+
+            // Check for overlap
+            // Overlap occurs if: (startTime < existingEnd) AND (endTime > existingStart)
+            if (startTime.isBefore(existingEnd) && endTime.isAfter(existingStart)) {
+                return false; // Table is occupied during this time
+            }
+        }
+
+        return true; // Table is available
+    }
+}
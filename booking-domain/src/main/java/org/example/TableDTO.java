@@ -0,0 +1,4 @@
+package org.example;
+
+// DTO for interacting with Table Service
+public record TableDTO(Long id, Long tableSize) {}
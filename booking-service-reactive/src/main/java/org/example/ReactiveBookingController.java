@@ -0,0 +1,280 @@
+package org.example;
+
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The booking endpoints of booking-service's BookingRestController on WebFlux: the same
+ * paths, bodies, validation and status codes, with no thread waiting on the database or
+ * table-service. Not included: waitlist, history (archive), delta sync, alternatives,
+ * schedule and ETags, which depend on booking-service's JPA read models.
+ *
+ * There are no day leases here. Table assignment is checked after the write instead, and
+ * a write that raced onto a table another booking holds at an overlapping time is undone
+ * with a 409, as a unique key violation would be: a new booking yields to any earlier one
+ * (lower id), an update to any other.
+ */
+@RestController
+@RequestMapping({"/api/bookings", "/api/locations/{location}/bookings"})
+public class ReactiveBookingController {
+
+    private static final Pattern LOCATION_NAME = Pattern.compile("^[a-z0-9-]{1,50}$");
+    private static final String SLOT_TAKEN = "This time slot was just booked by another customer. Please select a different time.";
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactiveTableServiceClient tableServiceClient;
+
+    public ReactiveBookingController(ReactiveBookingRepository bookingRepository,
+                                     ReactiveTableServiceClient tableServiceClient) {
+        this.bookingRepository = bookingRepository;
+        this.tableServiceClient = tableServiceClient;
+    }
+
+    // GET all bookings, or those matching email or phone
+    @GetMapping
+    public Flux<Booking> getAllBookings(@RequestParam(required = false) String email,
+                                        @RequestParam(required = false) String phone,
+                                        @PathVariable(required = false) String location) {
+        String at = locationOf(location);
+        if (email != null && !email.isEmpty()) {
+            return bookingRepository.findByLocationAndEmailKey(at, ContactKeys.email(email));
+        }
+        if (phone != null && !phone.isEmpty()) {
+            return bookingRepository.findByLocationAndPhoneKey(at, ContactKeys.phone(phone));
+        }
+        return bookingRepository.findByLocation(at);
+    }
+
+    // GET bookings by email
+    @GetMapping("/email/{email}")
+    public Mono<ResponseEntity<?>> getAllBookingsByEmail(@PathVariable String email,
+                                                         @PathVariable(required = false) String location) {
+        return bookingRepository.findByLocationAndEmailKey(locationOf(location), ContactKeys.email(email))
+                .collectList()
+                .map(bookings -> bookings.isEmpty()
+                        ? error(HttpStatus.NOT_FOUND, "No bookings found with the email")
+                        : ResponseEntity.ok(bookings));
+    }
+
+    // GET bookings by phone
+    @GetMapping("phone/{phone}")
+    public Mono<ResponseEntity<?>> getAllBookingsByPhone(@PathVariable String phone,
+                                                         @PathVariable(required = false) String location) {
+        return bookingRepository.findByLocationAndPhoneKey(locationOf(location), ContactKeys.phone(phone))
+                .collectList()
+                .map(bookings -> bookings.isEmpty()
+                        ? error(HttpStatus.NOT_FOUND, "No bookings found with the phone number")
+                        : ResponseEntity.ok(bookings));
+    }
+
+    // GET a single booking by ID
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Booking>> getBookingById(@PathVariable Long id,
+                                                        @PathVariable(required = false) String location) {
+        String at = locationOf(location);
+        return bookingRepository.findById(id)
+                .filter(booking -> at.equals(booking.getLocation()))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // POST - Create a new booking
+    @PostMapping
+    public Mono<ResponseEntity<?>> createBooking(@Valid @RequestBody Booking booking,
+                                                 @PathVariable(required = false) String location) {
+        // The routed location wins over whatever the body says
+        booking.setLocation(locationOf(location));
+
+        String validationError = TableAssigner.validateBookingTime(booking);
+        if (validationError != null) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, validationError));
+        }
+
+        return assignTable(booking, null)
+                .flatMap(table -> {
+                    booking.setTableNumber(table);
+                    return bookingRepository.insert(booking)
+                            .flatMap(saved -> overlapsOtherBooking(saved, true).flatMap(overlaps -> overlaps
+                                    ? bookingRepository.deleteById(saved.getId()).then(Mono.<ResponseEntity<?>>just(
+                                            error(HttpStatus.CONFLICT, SLOT_TAKEN)))
+                                    : Mono.<ResponseEntity<?>>just(ResponseEntity.status(HttpStatus.CREATED).body(saved))));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> noTable(booking)))
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> Mono.just(error(HttpStatus.CONFLICT, SLOT_TAKEN)));
+    }
+
+    // GET - Get list of available time slots for given date
+    @GetMapping("/available-times/{date}")
+    public Mono<ResponseEntity<List<LocalTime>>> getAvailableTimes(@PathVariable String date,
+                                                                   @PathVariable(required = false) String location) {
+        LocalDate localDate = LocalDate.parse(date);
+        boolean today = localDate.isEqual(LocalDate.now());
+        LocalTime now = LocalTime.now();
+        return bookingRepository.findByLocationAndReservationDate(locationOf(location), localDate)
+                .collectList()
+                .map(bookings -> {
+                    // Slots that any booking occupies are taken, as in booking-service
+                    List<LocalTime> times = TableAssigner.timeSlots();
+                    for (Booking booking : bookings) {
+                        LocalTime start = booking.getReservationTime();
+                        LocalTime end = TableAssigner.endTime(start, booking.getNumberOfGuests());
+                        times.removeIf(time -> !time.isBefore(start) && time.isBefore(end));
+                    }
+                    if (today) {
+                        times.removeIf(time -> time.isBefore(now));
+                    }
+                    return ResponseEntity.ok(times);
+                });
+    }
+
+    // PUT - Update an existing booking
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateBooking(@PathVariable Long id, @Valid @RequestBody Booking bookingDetails,
+                                                 @PathVariable(required = false) String location) {
+        String at = locationOf(location);
+        return bookingRepository.findById(id)
+                .filter(booking -> at.equals(booking.getLocation()))
+                .flatMap(booking -> applyUpdate(booking, bookingDetails))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<ResponseEntity<?>> applyUpdate(Booking booking, Booking bookingDetails) {
+        String validationError = TableAssigner.validateBookingTime(bookingDetails);
+        if (validationError != null) {
+            return Mono.just(error(HttpStatus.BAD_REQUEST, validationError));
+        }
+
+        // Kept to undo the update if it raced with another booking for the same table
+        Booking previous = copyOf(booking);
+        bookingDetails.setLocation(booking.getLocation());
+        return assignTable(bookingDetails, booking.getId())
+                .flatMap(table -> {
+                    booking.setCustomerName(bookingDetails.getCustomerName());
+                    booking.setEmail(bookingDetails.getEmail());
+                    booking.setPhone(bookingDetails.getPhone());
+                    booking.setReservationDate(bookingDetails.getReservationDate());
+                    booking.setReservationTime(bookingDetails.getReservationTime());
+                    booking.setNumberOfGuests(bookingDetails.getNumberOfGuests());
+                    booking.setTableNumber(table);
+                    return bookingRepository.update(booking)
+                            .flatMap(updated -> overlapsOtherBooking(updated, false).flatMap(overlaps -> {
+                                if (!overlaps) {
+                                    return Mono.<ResponseEntity<?>>just(ResponseEntity.ok(updated));
+                                }
+                                previous.setVersion(updated.getVersion());
+                                return bookingRepository.update(previous)
+                                        .then(Mono.<ResponseEntity<?>>just(error(HttpStatus.CONFLICT, SLOT_TAKEN)));
+                            }));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> noTable(bookingDetails)))
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> Mono.just(error(HttpStatus.CONFLICT, SLOT_TAKEN)))
+                .onErrorResume(OptimisticLockingFailureException.class,
+                        e -> Mono.just(error(HttpStatus.CONFLICT,
+                                "This booking was modified by another user. Please refresh and try again.")));
+    }
+
+    // DELETE a booking
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteBooking(@PathVariable Long id,
+                                                    @PathVariable(required = false) String location) {
+        String at = locationOf(location);
+        return bookingRepository.findById(id)
+                .filter(booking -> at.equals(booking.getLocation()))
+                .flatMap(booking -> bookingRepository.deleteById(id).then(Mono.just(ResponseEntity.noContent().<Void>build())))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleIllegalArgument(IllegalArgumentException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // Same body as booking-service: field name -> message
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            errors.put(fieldName, error.getDefaultMessage());
+        });
+        return errors;
+    }
+
+    /**
+     * The smallest free table for the booking, from the day's bookings (without the one being
+     * updated, if excludeBookingId is set). Empty if no table fits.
+     */
+    private Mono<Integer> assignTable(Booking booking, Long excludeBookingId) {
+        Mono<List<Booking>> existingBookings = bookingRepository
+                .findByLocationAndReservationDate(booking.getLocation(), booking.getReservationDate())
+                .filter(existing -> !existing.getId().equals(excludeBookingId))
+                .collectList();
+        return Mono.zip(tableServiceClient.fetchTables(booking.getLocation()), existingBookings)
+                .flatMap(tuple -> Mono.justOrEmpty(TableAssigner.findTable(tuple.getT1(), tuple.getT2(),
+                        booking.getNumberOfGuests(), booking.getReservationTime())));
+    }
+
+    // Whether another booking (with a lower id if onlyEarlier) holds the saved booking's table at an overlapping time
+    private Mono<Boolean> overlapsOtherBooking(Booking saved, boolean onlyEarlier) {
+        return bookingRepository.findByLocationAndReservationDate(saved.getLocation(), saved.getReservationDate())
+                .filter(other -> onlyEarlier ? other.getId() < saved.getId() : !other.getId().equals(saved.getId()))
+                .collectList()
+                .map(others -> !TableAssigner.isTableAvailable(saved.getTableNumber(), saved.getReservationTime(),
+                        TableAssigner.endTime(saved.getReservationTime(), saved.getNumberOfGuests()), others));
+    }
+
+    private static ResponseEntity<?> noTable(Booking booking) {
+        return error(HttpStatus.CONFLICT, "No tables available for " + booking.getNumberOfGuests() +
+                " guest(s) at this time. Please select a different time.");
+    }
+
+    private static Booking copyOf(Booking booking) {
+        Booking copy = new Booking();
+        copy.setId(booking.getId());
+        copy.setVersion(booking.getVersion());
+        copy.setLocation(booking.getLocation());
+        copy.setCustomerName(booking.getCustomerName());
+        copy.setEmail(booking.getEmail());
+        copy.setPhone(booking.getPhone());
+        copy.setReservationDate(booking.getReservationDate());
+        copy.setReservationTime(booking.getReservationTime());
+        copy.setNumberOfGuests(booking.getNumberOfGuests());
+        copy.setTableNumber(booking.getTableNumber());
+        return copy;
+    }
+
+    // /api/bookings is the main cafe
+    private static String locationOf(String location) {
+        if (location == null) {
+            return Booking.DEFAULT_LOCATION;
+        }
+        if (!LOCATION_NAME.matcher(location).matches()) {
+            throw new IllegalArgumentException("Invalid location name");
+        }
+        return location;
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The bookings table over R2DBC. Booking carries JPA annotations for booking-service,
+ * which Spring Data R2DBC doesn't read, so rows are mapped here by hand.
+ */
+@Repository
+public class ReactiveBookingRepository {
+
+    private static final String SELECT = "SELECT id, version, location, customer_name, email, phone, reservation_date, "
+            + "reservation_time, number_of_guests, table_number, last_modified FROM bookings ";
+
+    private final DatabaseClient client;
+
+    public ReactiveBookingRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<Booking> findByLocation(String location) {
+        return client.sql(SELECT + "WHERE location = :location")
+                .bind("location", location)
+                .map(ReactiveBookingRepository::toBooking)
+                .all();
+    }
+
+    public Flux<Booking> findByLocationAndEmailKey(String location, String emailKey) {
+        return client.sql(SELECT + "WHERE location = :location AND email_key = :key")
+                .bind("location", location)
+                .bind("key", emailKey)
+                .map(ReactiveBookingRepository::toBooking)
+                .all();
+    }
+
+    public Flux<Booking> findByLocationAndPhoneKey(String location, String phoneKey) {
+        return client.sql(SELECT + "WHERE location = :location AND phone_key = :key")
+                .bind("location", location)
+                .bind("key", phoneKey)
+                .map(ReactiveBookingRepository::toBooking)
+                .all();
+    }
+
+    public Flux<Booking> findByLocationAndReservationDate(String location, LocalDate date) {
+        return client.sql(SELECT + "WHERE location = :location AND reservation_date = :date")
+                .bind("location", location)
+                .bind("date", date)
+                .map(ReactiveBookingRepository::toBooking)
+                .all();
+    }
+
+    public Mono<Booking> findById(Long id) {
+        return client.sql(SELECT + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveBookingRepository::toBooking)
+                .one();
+    }
+
+    // Inserts a new booking, returning it with its id, version and lastModified
+    public Mono<Booking> insert(Booking booking) {
+        Instant now = Instant.now();
+        return client.sql("INSERT INTO bookings (version, location, customer_name, email, phone, reservation_date, "
+                        + "reservation_time, number_of_guests, table_number, email_key, phone_key, last_modified) "
+                        + "VALUES (0, :location, :customerName, :email, :phone, :date, :time, :guests, :table, "
+                        + ":emailKey, :phoneKey, :lastModified)")
+                .bind("location", booking.getLocation())
+                .bind("customerName", booking.getCustomerName())
+                .bind("email", booking.getEmail())
+                .bind("phone", booking.getPhone())
+                .bind("date", booking.getReservationDate())
+                .bind("time", booking.getReservationTime())
+                .bind("guests", booking.getNumberOfGuests())
+                .bind("table", booking.getTableNumber())
+                .bind("emailKey", booking.getEmailKey())
+                .bind("phoneKey", booking.getPhoneKey())
+                .bind("lastModified", OffsetDateTime.ofInstant(now, ZoneOffset.UTC))
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    booking.setId(id);
+                    booking.setVersion(0L);
+                    booking.setLastModified(now);
+                    return booking;
+                });
+    }
+
+    /**
+     * Writes a booking's fields if its version is still the stored one, like JPA's @Version.
+     * Fails with OptimisticLockingFailureException if someone else updated or deleted it first.
+     */
+    public Mono<Booking> update(Booking booking) {
+        Instant now = Instant.now();
+        return client.sql("UPDATE bookings SET version = version + 1, customer_name = :customerName, email = :email, "
+                        + "phone = :phone, reservation_date = :date, reservation_time = :time, number_of_guests = :guests, "
+                        + "table_number = :table, email_key = :emailKey, phone_key = :phoneKey, last_modified = :lastModified "
+                        + "WHERE id = :id AND version = :version")
+                .bind("customerName", booking.getCustomerName())
+                .bind("email", booking.getEmail())
+                .bind("phone", booking.getPhone())
+                .bind("date", booking.getReservationDate())
+                .bind("time", booking.getReservationTime())
+                .bind("guests", booking.getNumberOfGuests())
+                .bind("table", booking.getTableNumber())
+                .bind("emailKey", booking.getEmailKey())
+                .bind("phoneKey", booking.getPhoneKey())
+                .bind("lastModified", OffsetDateTime.ofInstant(now, ZoneOffset.UTC))
+                .bind("id", booking.getId())
+                .bind("version", booking.getVersion())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(rows -> {
+                    if (rows == 0) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Booking " + booking.getId() + " was modified by another user"));
+                    }
+                    booking.setVersion(booking.getVersion() + 1);
+                    booking.setLastModified(now);
+                    return Mono.just(booking);
+                });
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return client.sql("DELETE FROM bookings WHERE id = :id")
+                .bind("id", id)
+                .then();
+    }
+
+    private static Booking toBooking(Readable row) {
+        Booking booking = new Booking();
+        booking.setId(row.get("id", Long.class));
+        booking.setVersion(row.get("version", Long.class));
+        booking.setLocation(row.get("location", String.class));
+        booking.setCustomerName(row.get("customer_name", String.class));
+        booking.setEmail(row.get("email", String.class));
+        booking.setPhone(row.get("phone", String.class));
+        booking.setReservationDate(row.get("reservation_date", LocalDate.class));
+        booking.setReservationTime(row.get("reservation_time", LocalTime.class));
+        booking.setNumberOfGuests(row.get("number_of_guests", Integer.class));
+        booking.setTableNumber(row.get("table_number", Integer.class));
+        OffsetDateTime lastModified = row.get("last_modified", OffsetDateTime.class);
+        booking.setLastModified(lastModified != null ? lastModified.toInstant() : null);
+        return booking;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking client for table-service. Like TableServiceClient in booking-service, each
+ * location's inventory is cached for table.service.cache-ttl-seconds and concurrent misses
+ * share one request; a failed or empty inventory reads as no tables and is not cached.
+ */
+@Component
+public class ReactiveTableServiceClient {
+
+    private final WebClient webClient;
+    private final Duration cacheTtl;
+    private final ConcurrentHashMap<String, Mono<List<TableDTO>>> cache = new ConcurrentHashMap<>();
+
+    public ReactiveTableServiceClient(WebClient.Builder webClientBuilder,
+                                      @Value("${table.service.url:http://localhost:8081}") String tableServiceUrl,
+                                      @Value("${table.service.cache-ttl-seconds:30}") long cacheTtlSeconds) {
+        this.webClient = webClientBuilder.baseUrl(tableServiceUrl).build();
+        this.cacheTtl = Duration.ofSeconds(cacheTtlSeconds);
+    }
+
+    public Mono<List<TableDTO>> fetchTables(String location) {
+        return cache.computeIfAbsent(location, this::load);
+    }
+
+    // Mono.cache re-runs the request once the value expires; subscribers in between share it
+    private Mono<List<TableDTO>> load(String location) {
+        return webClient.get()
+                .uri("/api/tables?location={location}", location)
+                .retrieve()
+                .bodyToFlux(TableDTO.class)
+                .collectList()
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching tables: " + e.getMessage());
+                    return Mono.just(List.of());
+                })
+                .cache(tables -> tables.isEmpty() ? Duration.ZERO : cacheTtl,
+                        error -> Duration.ZERO,
+                        () -> Duration.ZERO);
+    }
+}
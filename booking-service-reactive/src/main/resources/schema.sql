@@ -0,0 +1,22 @@
+-- The bookings table as booking-service's JPA mapping creates it (see Booking)
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version BIGINT,
+    location VARCHAR(50) NOT NULL,
+    customer_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    phone VARCHAR(255) NOT NULL,
+    reservation_date DATE NOT NULL,
+    reservation_time TIME NOT NULL,
+    number_of_guests INT NOT NULL,
+    table_number INT,
+    email_key VARCHAR(255),
+    phone_key VARCHAR(50),
+    last_modified TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_booking_location_date_time_table UNIQUE (location, reservation_date, reservation_time, table_number)
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_location_date ON bookings (location, reservation_date);
+CREATE INDEX IF NOT EXISTS idx_booking_location_email_key ON bookings (location, email_key);
+CREATE INDEX IF NOT EXISTS idx_booking_location_phone_key ON bookings (location, phone_key);
+CREATE INDEX IF NOT EXISTS idx_booking_location_last_modified ON bookings (location, last_modified);
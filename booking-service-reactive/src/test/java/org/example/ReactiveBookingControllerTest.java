@@ -0,0 +1,150 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveBookingController.class)
+class ReactiveBookingControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveBookingRepository bookingRepository;
+
+    @MockBean
+    private ReactiveTableServiceClient tableServiceClient;
+
+    private final LocalDate date = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        when(tableServiceClient.fetchTables(anyString())).thenReturn(Mono.just(List.of(
+                new TableDTO(1L, 2L), new TableDTO(4L, 6L))));
+        when(bookingRepository.insert(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(10L);
+            booking.setVersion(0L);
+            return Mono.just(booking);
+        });
+        when(bookingRepository.deleteById(anyLong())).thenReturn(Mono.empty());
+    }
+
+    private String bookingJson(LocalTime time, int guests) {
+        return """
+                {"customerName": "John Doe", "email": "john@example.com", "phone": "555-1234",
+                 "reservationDate": "%s", "reservationTime": "%s", "numberOfGuests": %d}
+                """.formatted(date, time, guests);
+    }
+
+    private Booking existing(long id, LocalTime time, int guests, int table) {
+        Booking booking = new Booking("Jane Doe", "jane@example.com", "555-9876", date, time, guests);
+        booking.setId(id);
+        booking.setTableNumber(table);
+        return booking;
+    }
+
+    @Test
+    void testCreateBookingGetsSmallestFreeTable() {
+        // Arrange - table 1 is taken at noon
+        when(bookingRepository.findByLocationAndReservationDate("main", date))
+                .thenReturn(Flux.just(existing(1L, LocalTime.NOON, 2, 1)));
+
+        // Act & Assert
+        webTestClient.post().uri("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookingJson(LocalTime.NOON, 2))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(10)
+                .jsonPath("$.tableNumber").isEqualTo(4)
+                .jsonPath("$.location").isEqualTo("main");
+    }
+
+    @Test
+    void testCreateBookingValidation() {
+        webTestClient.post().uri("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"customerName\": \"J\", \"email\": \"not-an-email\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("Email must be valid");
+
+        // Closing time is checked like in booking-service
+        webTestClient.post().uri("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookingJson(LocalTime.of(16, 30), 4))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(startsWith("Booking cannot be completed"));
+        verify(bookingRepository, never()).insert(any());
+    }
+
+    @Test
+    void testCreateBookingNoTableAvailable() {
+        when(bookingRepository.findByLocationAndReservationDate("main", date)).thenReturn(Flux.just(
+                existing(1L, LocalTime.NOON, 2, 1), existing(2L, LocalTime.NOON, 6, 4)));
+
+        webTestClient.post().uri("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookingJson(LocalTime.NOON, 2))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("No tables available for 2 guest(s) at this time. Please select a different time.");
+    }
+
+    @Test
+    void testCreateBookingThatRacedOntoAnEarlierBookingIsUndone() {
+        // Arrange - table 1 looked free, but booking 5 took it before our insert
+        when(bookingRepository.findByLocationAndReservationDate("main", date))
+                .thenReturn(Flux.empty())
+                .thenReturn(Flux.just(existing(5L, LocalTime.NOON, 4, 1)));
+        when(tableServiceClient.fetchTables(anyString())).thenReturn(Mono.just(List.of(new TableDTO(1L, 6L))));
+
+        // Act & Assert
+        webTestClient.post().uri("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookingJson(LocalTime.of(12, 30), 2))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("This time slot was just booked by another customer. Please select a different time.");
+        verify(bookingRepository).deleteById(10L);
+    }
+
+    @Test
+    void testLocationRouting() {
+        when(bookingRepository.findByLocation("harbour")).thenReturn(Flux.just(existing(1L, LocalTime.NOON, 2, 1)));
+
+        webTestClient.get().uri("/api/locations/harbour/bookings")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1);
+
+        webTestClient.get().uri("/api/locations/Not_Valid/bookings")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid location name");
+    }
+}
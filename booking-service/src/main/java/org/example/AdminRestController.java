@@ -0,0 +1,294 @@
+package org.example;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operational statistics for the admin area.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminRestController {
+
+    private static final int MISDIRECTED_REQUEST = 421; // not in HttpStatus
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final TableRepacker tableRepacker;
+    private final TableServiceClient tableServiceClient;
+    private final LocationRegistry locationRegistry;
+    private final ArchiveJob archiveJob;
+    private final BookingArchive archive;
+    private final BookingImportService importService;
+    private final ScheduleProjection scheduleProjection;
+    private final DateLeaseManager leaseManager;
+    private final OccupancyAnalytics occupancyAnalytics;
+    private final AvailabilityCache availabilityCache;
+    private final ContactIndex contactIndex;
+    private final TableReassignmentJob reassignmentJob;
+    private final StartupWarmUp startupWarmUp;
+    private final CapacitySimulator capacitySimulator;
+
+    public AdminRestController(RateLimitInterceptor rateLimitInterceptor, TableRepacker tableRepacker,
+                               TableServiceClient tableServiceClient, LocationRegistry locationRegistry,
+                               ArchiveJob archiveJob, BookingArchive archive, BookingImportService importService,
+                               ScheduleProjection scheduleProjection, DateLeaseManager leaseManager,
+                               OccupancyAnalytics occupancyAnalytics, AvailabilityCache availabilityCache,
+                               ContactIndex contactIndex, TableReassignmentJob reassignmentJob,
+                               StartupWarmUp startupWarmUp, CapacitySimulator capacitySimulator) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.tableRepacker = tableRepacker;
+        this.tableServiceClient = tableServiceClient;
+        this.locationRegistry = locationRegistry;
+        this.archiveJob = archiveJob;
+        this.archive = archive;
+        this.importService = importService;
+        this.scheduleProjection = scheduleProjection;
+        this.leaseManager = leaseManager;
+        this.occupancyAnalytics = occupancyAnalytics;
+        this.availabilityCache = availabilityCache;
+        this.contactIndex = contactIndex;
+        this.reassignmentJob = reassignmentJob;
+        this.startupWarmUp = startupWarmUp;
+        this.capacitySimulator = capacitySimulator;
+    }
+
+    // GET allowed/rejected request counts per rate limited endpoint
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Map<String, Object>>> getRateLimits() {
+        return ResponseEntity.ok(rateLimitInterceptor.getStatistics());
+    }
+
+    // POST - Re-pack table assignments for today and all future dates now
+    @PostMapping("/repack")
+    public ResponseEntity<List<TableRepacker.RepackResult>> repackUpcomingDates() {
+        return ResponseEntity.ok(tableRepacker.repackUpcomingDates());
+    }
+
+    // POST - Re-pack table assignments for one date at one location
+    @PostMapping("/repack/{date}")
+    public ResponseEntity<?> repackDate(
+            @PathVariable String date,
+            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location) {
+        ResponseEntity<?> rejected = rejectLocation(location);
+        if (rejected != null) {
+            return rejected;
+        }
+        LocalDate localDate = LocalDate.parse(date);
+        return ResponseEntity.ok(tableRepacker.repack(location, localDate, tableServiceClient.fetchTables(location), null));
+    }
+
+    // GET - Last table reassignment per location, with the bookings that could not be placed
+    @GetMapping("/reassign")
+    public ResponseEntity<Map<String, TableReassignmentJob.ReassignmentResult>> getReassignments() {
+        return ResponseEntity.ok(reassignmentJob.getLastResults());
+    }
+
+    // POST - Move future bookings off removed or shrunk tables now, with the latest inventory
+    @PostMapping("/reassign")
+    public ResponseEntity<?> reassignTables(
+            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location) {
+        ResponseEntity<?> rejected = rejectLocation(location);
+        if (rejected != null) {
+            return rejected;
+        }
+        tableServiceClient.evict(location);
+        List<TableDTO> tables = tableServiceClient.fetchTables(location);
+        if (tables.isEmpty()) {
+            return ResponseEntity.status(503).body(Map.of("error", "Table inventory of " + location + " is unavailable"));
+        }
+        return ResponseEntity.ok(reassignmentJob.reassign(location, tables));
+    }
+
+    // POST - Rebuild the schedule read model of one date from its bookings
+    @PostMapping("/schedule/{date}")
+    public ResponseEntity<?> rebuildSchedule(
+            @PathVariable String date,
+            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location) {
+        ResponseEntity<?> rejected = rejectLocation(location);
+        if (rejected != null) {
+            return rejected;
+        }
+        LocalDate localDate = LocalDate.parse(date);
+        return ResponseEntity.ok(leaseManager.withLease(location, localDate, () -> {
+            scheduleProjection.rebuildDay(location, localDate);
+            return scheduleProjection.getDay(location, localDate);
+        }));
+    }
+
+    // GET how long the startup warm-up took, its rounds and failed steps (404 if it is disabled)
+    @GetMapping("/warm-up")
+    public ResponseEntity<StartupWarmUp.Report> getWarmUp() {
+        StartupWarmUp.Report report = startupWarmUp.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    // GET available-times cache size and hit/miss counts
+    @GetMapping("/availability-cache")
+    public ResponseEntity<Map<String, Object>> getAvailabilityCache() {
+        return ResponseEntity.ok(availabilityCache.getStatistics());
+    }
+
+    // GET contact lookups answered by the bloom filter alone vs. sent to the database
+    @GetMapping("/contact-index")
+    public ResponseEntity<Map<String, Object>> getContactIndex() {
+        return ResponseEntity.ok(contactIndex.getStatistics());
+    }
+
+    // POST - Rebuild the contact bloom filter now, e.g. after many cancellations
+    @PostMapping("/contact-index")
+    public ResponseEntity<Map<String, Object>> rebuildContactIndex() {
+        contactIndex.rebuild();
+        return ResponseEntity.ok(contactIndex.getStatistics());
+    }
+
+    // GET - Seat utilization per table, 15-minute slot and weekday between two dates
+    @GetMapping("/analytics/occupancy")
+    public ResponseEntity<?> getOccupancyHeatmap(
+            @RequestParam String from, @RequestParam String to,
+            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location) {
+        ResponseEntity<?> rejected = rejectLocation(location);
+        if (rejected != null) {
+            return rejected;
+        }
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        if (toDate.isBefore(fromDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "to must not be before from"));
+        }
+        return ResponseEntity.ok(occupancyAnalytics.heatmap(location, fromDate, toDate));
+    }
+
+    // POST - Compare table layouts on past or generated demand: acceptance rate, seat utilization
+    // and guests turned away per configuration. Nothing is written (see CapacitySimulator).
+    @PostMapping("/simulate")
+    public ResponseEntity<?> simulateCapacity(
+            @RequestBody CapacitySimulator.SimulationRequest request,
+            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location) {
+        try {
+            if ("history".equals(request.demand())) {
+                // Only history reads the location's bookings; synthetic demand runs anywhere
+                ResponseEntity<?> rejected = rejectLocation(location);
+                if (rejected != null) {
+                    return rejected;
+                }
+                return ResponseEntity.ok(capacitySimulator.simulateHistory(location, request.from(), request.to(),
+                        request.configurations()));
+            }
+            if (request.demand() != null && !"synthetic".equals(request.demand())) {
+                return ResponseEntity.badRequest().body(Map.of("error", "demand must be history or synthetic"));
+            }
+            return ResponseEntity.ok(capacitySimulator.simulateSynthetic(
+                    request.days() != null ? request.days() : 1000,
+                    request.partiesPerDay() != null ? request.partiesPerDay() : 40,
+                    request.seed() != null ? request.seed() : 1L,
+                    request.configurations()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // POST - Rebuild the occupancy rollups between two dates from bookings and the archive
+    @PostMapping("/analytics/occupancy/backfill")
+    public ResponseEntity<?> backfillOccupancy(
+            @RequestParam String from, @RequestParam String to,
+            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location) {
+        ResponseEntity<?> rejected = rejectLocation(location);
+        if (rejected != null) {
+            return rejected;
+        }
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        if (toDate.isBefore(fromDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "to must not be before from"));
+        }
+        return ResponseEntity.ok(occupancyAnalytics.backfill(location, fromDate, toDate));
+    }
+
+    // GET locations served by this instance, routes to other instances and in-flight requests
+    @GetMapping("/locations")
+    public ResponseEntity<Map<String, Object>> getLocations() {
+        return ResponseEntity.ok(locationRegistry.getStatistics());
+    }
+
+    // PUT - Start serving a location on this instance (second half of moving a location here)
+    @PutMapping("/locations/{location}")
+    public ResponseEntity<?> claimLocation(@PathVariable String location) {
+        if (!LocationRegistry.isValidName(location)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid location name"));
+        }
+        tableServiceClient.evict(location);
+        locationRegistry.claim(location);
+        return ResponseEntity.ok(locationRegistry.getStatistics());
+    }
+
+    // DELETE - Stop serving a location, redirecting its requests to the instance given by route
+    @DeleteMapping("/locations/{location}")
+    public ResponseEntity<?> releaseLocation(@PathVariable String location,
+                                             @RequestParam(required = false) String route) {
+        if (!LocationRegistry.isValidName(location)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid location name"));
+        }
+        locationRegistry.release(location, route);
+        tableServiceClient.evict(location);
+        return ResponseEntity.ok(locationRegistry.getStatistics());
+    }
+
+    // GET archive segments, blocks and bookings per location
+    @GetMapping("/archive")
+    public ResponseEntity<Map<String, Map<String, Object>>> getArchive() {
+        return ResponseEntity.ok(archive.getStatistics());
+    }
+
+    // POST - Archive bookings past the horizon now
+    @PostMapping("/archive")
+    public ResponseEntity<List<ArchiveJob.ArchiveResult>> archivePastHorizon() {
+        return ResponseEntity.ok(archiveJob.archivePastHorizon());
+    }
+
+    // GET archived bookings of a location between two dates, e.g. /api/admin/archive/main?from=2025-01-01&to=2025-01-31
+    @GetMapping("/archive/{location}")
+    public ResponseEntity<?> getArchivedBookings(@PathVariable String location,
+                                                 @RequestParam String from, @RequestParam String to) {
+        if (!LocationRegistry.isValidName(location)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid location name"));
+        }
+        return ResponseEntity.ok(archive.findByDateRange(location, LocalDate.parse(from), LocalDate.parse(to)));
+    }
+
+    // POST - Bulk import bookings from a CSV request body (streamed, see BookingImportService)
+    @PostMapping("/import")
+    public ResponseEntity<?> importBookings(HttpServletRequest request,
+                                            @RequestParam(defaultValue = LocationRegistry.DEFAULT_LOCATION) String location)
+            throws IOException {
+        ResponseEntity<?> rejected = rejectLocation(location);
+        if (rejected != null) {
+            return rejected;
+        }
+        try {
+            return ResponseEntity.ok(importService.importCsv(request.getInputStream(), location));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Operations that take leases or write schedules, rollups and caches only run for a valid
+    // location this instance serves, like LocationInterceptor checks for booking requests.
+    // Returns the error response, or null if the location is fine.
+    private ResponseEntity<?> rejectLocation(String location) {
+        if (!LocationRegistry.isValidName(location)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid location name"));
+        }
+        if (!locationRegistry.serves(location)) {
+            String route = locationRegistry.routeFor(location);
+            return ResponseEntity.status(MISDIRECTED_REQUEST).body(Map.of("error", "Location " + location
+                    + " is not served by this instance" + (route != null ? ", send this to " + route : "")));
+        }
+        return null;
+    }
+}
@@ -1,14 +1,51 @@
 package org.example;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class AppConfig {
     
+    // Calls to table-service continue the current trace
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(Tracer tracer) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new TracingClientInterceptor(tracer));
+        return restTemplate;
+    }
+
+    // Decided at runtime rather than with a condition, so a fast-start (AOT) build can run in either mode.
+    // The embedded inventory is only looked up in embedded mode; remote mode never creates it.
+    @Bean
+    public InventorySource inventorySource(@Value("${table.service.mode:remote}") String mode,
+                                           @Value("${table.service.url:http://localhost:8081}") String tableServiceUrl,
+                                           @Value("${table.service.embedded.locations:main}") String[] locations,
+                                           RestTemplate restTemplate, ObjectProvider<TableInventory> tableInventory) {
+        if ("embedded".equalsIgnoreCase(mode)) {
+            return new EmbeddedInventorySource(tableInventory.getObject(), locations);
+        }
+        return new RemoteInventorySource(restTemplate, tableServiceUrl);
+    }
+
+    // Startup runners are ordered so StartupWarmUp (unordered, so last) sees the seeded data
+    @Bean
+    @Order(1)
+    public ApplicationRunner seedEmbeddedInventory(InventorySource inventorySource) {
+        return args -> {
+            if (inventorySource instanceof EmbeddedInventorySource embedded) {
+                embedded.seed();
+            }
+        };
+    }
+
+    @Bean
+    @Order(2)
+    public ApplicationRunner rebuildSchedules(ScheduleProjection scheduleProjection) {
+        return args -> scheduleProjection.rebuildIfEmpty();
     }
 }
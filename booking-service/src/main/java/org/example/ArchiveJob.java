@@ -0,0 +1,113 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves bookings older than archive.horizon-days from the bookings table into the
+ * archive tier (BookingArchive), so queries on the hot table stay bounded in size.
+ *
+ * Works one location and month at a time: the month's bookings are written as a new
+ * segment first and only then deleted from the hot table. If the job stops in between,
+ * the next run archives them again and reads skip the duplicates.
+ *
+ * Only locations served by this instance are archived. With several instances,
+ * archive.dir must be storage they all share.
+ */
+@Service
+public class ArchiveJob {
+
+    public record ArchiveResult(String location, YearMonth month, int archived) {}
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchive archive;
+    private final BookingWriter bookingWriter;
+    private final LocationRegistry locationRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${archive.horizon-days:90}")
+    private int horizonDays = 90;
+
+    public ArchiveJob(BookingRepository bookingRepository, BookingArchive archive, BookingWriter bookingWriter,
+                      LocationRegistry locationRegistry, PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.archive = archive;
+        this.bookingWriter = bookingWriter;
+        this.locationRegistry = locationRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Nightly job, see archive.cron
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        List<ArchiveResult> results = archivePastHorizon();
+        int archived = results.stream().mapToInt(ArchiveResult::archived).sum();
+        System.out.println("Archiving: " + archived + " booking(s) moved to " + results.size() + " segment(s).");
+    }
+
+    /**
+     * Archives every booking before today minus archive.horizon-days.
+     */
+    public List<ArchiveResult> archivePastHorizon() {
+        LocalDate cutoff = LocalDate.now().minusDays(horizonDays);
+
+        // Group the days to archive by location and month
+        Map<String, Map<YearMonth, Set<LocalDate>>> months = new LinkedHashMap<>();
+        for (LocationDate day : bookingRepository.findBookedDaysBefore(cutoff)) {
+            if (locationRegistry.serves(day.location())) {
+                months.computeIfAbsent(day.location(), l -> new LinkedHashMap<>())
+                        .computeIfAbsent(YearMonth.from(day.date()), m -> new LinkedHashSet<>())
+                        .add(day.date());
+            }
+        }
+
+        List<ArchiveResult> results = new ArrayList<>();
+        months.forEach((location, byMonth) -> byMonth.forEach((month, dates) -> {
+            try {
+                results.add(archiveMonth(location, month, dates, cutoff));
+            } catch (IOException | RuntimeException e) {
+                // Leave the month in the hot table, the next run tries again
+                System.err.println("Archiving " + location + " " + month + " failed: " + e.getMessage());
+            }
+        }));
+        return results;
+    }
+
+    private ArchiveResult archiveMonth(String location, YearMonth month, Set<LocalDate> dates, LocalDate cutoff)
+            throws IOException {
+        LocalDate last = month.atEndOfMonth().isBefore(cutoff) ? month.atEndOfMonth() : cutoff.minusDays(1);
+        List<Booking> bookings = bookingRepository.findByLocationAndReservationDateBetween(
+                location, month.atDay(1), last);
+        if (bookings.isEmpty()) {
+            return new ArchiveResult(location, month, 0);
+        }
+
+        archive.writeSegment(location, month, bookings);
+
+        List<Long> ids = bookings.stream().map(Booking::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingRepository.deleteAllByIdInBatch(ids);
+            bookingWriter.recordArchived(location, dates, ids);
+        });
+        return new ArchiveResult(location, month, bookings.size());
+    }
+}
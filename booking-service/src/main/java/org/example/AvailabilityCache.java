@@ -0,0 +1,159 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Computed available times per location and date, for /available-times/{date}.
+ *
+ * Each entry remembers the date's change version (BookingChangeTracker) it was computed at.
+ * Any booking change on that date - a create, either date of an update, a delete, or a change
+ * made by another instance - bumps the version, so only the affected dates miss afterwards.
+ *
+ * Entries hold the whole day; slots that have already passed today are removed when the
+ * entry is read, so today's entry stays valid while the clock moves on.
+ *
+ * The cache is bounded by availability.cache.max-entries (the entries closest to expiry are
+ * evicted first) and availability.cache.ttl-seconds.
+ *
+ * Concurrent misses for the same date and version share one computation (SingleFlight), so
+ * the rush on a newly opened date runs one schedule query instead of one per request.
+ */
+@Component
+public class AvailabilityCache {
+
+    private record Entry(List<LocalTime> times, long generation, long version, long expiresAt) {}
+
+    // A computation only serves callers that would accept its result for the same versions
+    private record Computation(LocationDate day, long generation, long version) {}
+
+    private final BookingChangeTracker changeTracker;
+    private final ConcurrentHashMap<LocationDate, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final SingleFlight<Computation, List<LocalTime>> computations = new SingleFlight<>();
+
+    @Value("${availability.cache.max-entries:10000}")
+    private int maxEntries = 10000;
+
+    @Value("${availability.cache.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    public AvailabilityCache(BookingChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    /**
+     * The available times of a date, computed by the loader on a miss.
+     *
+     * @param loader Computes the whole day's available times, not filtered by the current time
+     * @return A new list, without slots that have passed if the date is today
+     */
+    public List<LocalTime> get(String location, LocalDate date, Supplier<List<LocalTime>> loader) {
+        LocationDate key = new LocationDate(location, date);
+        // Read the version before loading: a change during the load leaves a stale entry that misses next time
+        long generation = changeTracker.getGeneration();
+        long version = changeTracker.getDateVersion(location, date);
+
+        Entry entry = entries.get(key);
+        List<LocalTime> times;
+        if (entry != null && entry.generation() == generation && entry.version() == version
+                && entry.expiresAt() - System.nanoTime() > 0) {
+            hits.increment();
+            times = entry.times();
+        } else {
+            misses.increment();
+            if (entry != null && (entry.generation() != generation || entry.version() != version)) {
+                invalidated.increment();
+            }
+            times = computations.execute(new Computation(key, generation, version), () -> List.copyOf(loader.get()));
+            if (maxEntries > 0) {
+                entries.put(key, new Entry(times, generation, version, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+                if (entries.size() > maxEntries) {
+                    evict();
+                }
+            }
+        }
+        return withoutPassedSlots(date, times);
+    }
+
+    // Drops expired entries, then the tenth of the entries closest to expiry
+    private synchronized void evict() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt() - now <= 0;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<LocationDate, Entry> e) -> e.getValue().expiresAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(key -> {
+                    entries.remove(key);
+                    evictions.increment();
+                });
+    }
+
+    // if today's date is equal to date, remove time slots before current time
+    static List<LocalTime> withoutPassedSlots(LocalDate date, List<LocalTime> times) {
+        List<LocalTime> result = new ArrayList<>(times);
+        if (date.isEqual(LocalDate.now())) {
+            LocalTime now = LocalTime.now();
+            result.removeIf(time -> time.isBefore(now));
+        }
+        return result;
+    }
+
+    // Drops all entries and resets the counters
+    public void clear() {
+        entries.clear();
+        hits.reset();
+        misses.reset();
+        invalidated.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Hit/miss counts for the admin area. Invalidated misses found an entry that a booking change had made stale.
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("entries", entries.size());
+        statistics.put("maxEntries", maxEntries);
+        statistics.put("ttlSeconds", ttlSeconds);
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("invalidated", invalidated.sum());
+        statistics.put("evictions", evictions.sum());
+        statistics.put("computations", computations.getExecutions());
+        statistics.put("coalesced", computations.getShared());
+        statistics.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return statistics;
+    }
+}
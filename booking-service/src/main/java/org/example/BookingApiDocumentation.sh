@@ -36,3 +36,130 @@ curl -X PUT http://localhost:8080/api/bookings/1 \
 
 # DELETE booking
 curl -X DELETE http://localhost:8080/api/bookings/1
+
+
+# Conditional GET - list endpoints return an ETag, send it back to get 304 Not Modified if nothing changed
+curl -i http://localhost:8080/api/bookings -H 'If-None-Match: "<etag from previous response>"'
+curl -i http://localhost:8080/api/bookings/available-times/2025-10-15 -H 'If-None-Match: "<etag from previous response>"'
+
+# Rate limits - over-limit requests get 429 with a Retry-After header. Clients can identify with an API key.
+# (the key only gets its own bucket if it is listed in rate-limit.api-keys, otherwise the IP address counts)
+curl -i http://localhost:8080/api/bookings/available-times/2025-10-15 -H 'X-API-Key: pos-terminal-1'
+curl http://localhost:8080/api/admin/rate-limits
+
+# Waitlist - if no table is free, join the waitlist (202) instead of getting a 409. The waitlist is stored
+# in the database, so any instance can promote the party and it survives restarts.
+# flexMinutes: how far before/after the requested time the party is happy to start
+curl -X POST "http://localhost:8080/api/bookings?waitlist=true&flexMinutes=30" \
+  -H "Content-Type: application/json" \
+  -d '{
+    "customerName": "Jane Doe",
+    "email": "jane@example.com",
+    "phone": "555-1234",
+    "reservationDate": "2025-10-15",
+    "reservationTime": "12:00",
+    "numberOfGuests": 4
+  }'
+
+# Waitlist status (WAITING / BOOKED with bookingId / CANCELLED), and leaving the waitlist
+curl http://localhost:8080/api/bookings/waitlist/1
+curl -X DELETE http://localhost:8080/api/bookings/waitlist/1
+
+# Locations - /api/bookings is the main cafe. Other cafes use /api/locations/{location}/bookings,
+# or the X-Cafe-Location header, with the same endpoints as above.
+curl http://localhost:8080/api/locations/harbour/bookings
+curl http://localhost:8080/api/bookings/available-times/2025-10-15 -H "X-Cafe-Location: harbour"
+
+# Moving a location between instances: claim it on the new one, release it on the old one.
+# Admin calls with ?location= (repack, reassign, schedule, analytics, history simulation, import) must go to
+# the instance that serves the location; others answer 421.
+curl -X PUT http://new-host:8080/api/admin/locations/harbour
+curl -X DELETE "http://localhost:8080/api/admin/locations/harbour?route=http://new-host:8080"
+curl http://localhost:8080/api/admin/locations
+
+# History - bookings past the archive horizon (archive.horizon-days) are only returned with history=true
+curl "http://localhost:8080/api/bookings/email/jane@example.com?history=true"
+curl "http://localhost:8080/api/bookings?history=true"
+
+# Archive - segment statistics, archive now, and archived bookings between two dates
+curl http://localhost:8080/api/admin/archive
+curl -X POST http://localhost:8080/api/admin/archive
+curl "http://localhost:8080/api/admin/archive/main?from=2025-01-01&to=2025-01-31"
+
+# Bulk import from CSV (header: customerName,email,phone,reservationDate,reservationTime,numberOfGuests[,location])
+# Returns row counts and the path of the error report with every rejected row
+curl -X POST "http://localhost:8080/api/admin/import?location=main" \
+  -H "Content-Type: text/csv" --data-binary @bookings.csv
+
+# Capacity simulation - acceptance rate, seat utilization and guests turned away per table layout.
+# Synthetic demand (seeded, repeatable) or the bookings of a past date range (demand "history", from/to)
+curl -X POST "http://localhost:8080/api/admin/simulate?location=main" \
+  -H "Content-Type: application/json" \
+  -d '{"demand": "synthetic", "days": 10000, "partiesPerDay": 40, "seed": 7, "configurations": [
+        {"name": "current", "tables": [{"id": 1, "tableSize": 2}, {"id": 2, "tableSize": 2}, {"id": 3, "tableSize": 4}]},
+        {"name": "6-top", "tables": [{"id": 1, "tableSize": 6}, {"id": 3, "tableSize": 4}]}]}'
+curl -X POST http://localhost:8080/api/admin/simulate -H "Content-Type: application/json" \
+  -d '{"demand": "history", "from": "2025-01-01", "to": "2025-03-31", "configurations": [{"name": "current", "tables": [{"id": 1, "tableSize": 4}]}]}'
+
+# Tracing - sampled requests (tracing.sample-rate) return X-Trace-Id. A traceparent header continues the caller's
+# trace; it only forces sampling with tracing.trust-incoming-sampling=true (set it for local testing).
+# Both services list their recent traces; a booking's trace id also finds the table-service part of it.
+curl -i -H "traceparent: 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01" http://localhost:8080/api/bookings
+curl "http://localhost:8080/api/admin/traces?limit=10"
+curl http://localhost:8081/api/admin/traces/4bf92f3577b34da6a3ce929d0e0e4736
+
+# Query statistics - per-query counts, total/max time and rows, entity loads and possible N+1 patterns.
+# Reset before measuring something specific.
+curl http://localhost:8080/api/admin/queries
+curl -X DELETE http://localhost:8080/api/admin/queries
+curl http://localhost:8081/api/admin/queries
+
+# Schedule - occupied intervals per table for a date, from the schedule read model (also what
+# available-times is computed from). Rebuild a date's schedule from its bookings if it ever drifts.
+curl http://localhost:8080/api/bookings/schedule/2025-10-15
+curl -X POST "http://localhost:8080/api/admin/schedule/2025-10-15?location=main"
+
+# Occupancy analytics - seat-minutes and utilization per table, 15-minute slot and weekday, from daily
+# rollups (kept for archived days too). Backfill rebuilds the rollups of a date range from history.
+curl "http://localhost:8080/api/admin/analytics/occupancy?location=main&from=2025-01-01&to=2025-06-30"
+curl -X POST "http://localhost:8080/api/admin/analytics/occupancy/backfill?location=main&from=2024-01-01&to=2025-06-30"
+
+# Available-times cache - entries, hits, misses, misses caused by booking changes, evictions,
+# computations run and concurrent misses that shared one (coalesced)
+curl http://localhost:8080/api/admin/availability-cache
+
+# Startup warm-up - duration, rounds of the synthetic mix and failed steps; readiness turns UP after it
+curl http://localhost:8080/api/admin/warm-up
+curl http://localhost:8080/actuator/health/readiness
+
+# Contact lookups match regardless of formatting: these find the same bookings as 555-1234 / John@Example.com
+curl "http://localhost:8080/api/bookings/phone/(555)%201234"
+curl http://localhost:8080/api/bookings/email/john@example.com
+# Contact index - lookups answered 404 by the bloom filter alone, and rebuilding it now
+curl http://localhost:8080/api/admin/contact-index
+curl -X POST http://localhost:8080/api/admin/contact-index
+
+# Table inventory changes (table-service). GET returns the inventory version as ETag; PUT/DELETE with
+# If-Match only apply if the layout is still at that version (412 with the current version otherwise).
+curl -i "http://localhost:8081/api/tables?location=main"
+curl -X PUT -H "Content-Type: application/json" -H 'If-Match: "0"' -d '{"tableSize": 2}' "http://localhost:8081/api/tables/4?location=main"
+curl -X DELETE -H 'If-Match: "1"' "http://localhost:8081/api/tables/9?location=main"
+# booking-service notices the new layout within reassign.check-interval-ms and moves future bookings
+# off removed or shrunk tables. Run it now, and list bookings that could not be placed.
+curl -X POST "http://localhost:8080/api/admin/reassign?location=main"
+curl http://localhost:8080/api/admin/reassign
+
+# Alternatives - the nearest free start times for a party around a requested time, on that day first and
+# then on up to `days` days before and after. A 409 from POST /api/bookings carries the same list.
+curl "http://localhost:8080/api/bookings/alternatives/2025-10-15?time=12:00&guests=4&limit=5&days=1"
+
+# Capacity - for every start slot of a day, the largest party that can still be seated (0 = full).
+# A time is bookable for a party of n if maxGuests >= n. Supports If-None-Match like available-times.
+curl http://localhost:8080/api/bookings/capacity/2025-10-15
+curl http://localhost:8080/api/locations/harbour/bookings/capacity/2025-10-15
+
+# Delta sync - everything once (empty changedSince), then only what changed: bookings created or updated
+# since, and tombstones of deleted/archived ones. Pass nextChangedSince from the response next time.
+# 410 means the client was away longer than sync.tombstone-retention-hours and must start over.
+curl "http://localhost:8080/api/bookings?changedSince="
+curl "http://localhost:8080/api/bookings?changedSince=2025-10-15T10:00:00Z"
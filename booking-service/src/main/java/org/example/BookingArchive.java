@@ -0,0 +1,291 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for bookings that are past the archive horizon (see ArchiveJob).
+ *
+ * Bookings are stored in immutable segment files, one or more per location and month:
+ * {archive.dir}/{location}/{yyyy-MM}/{name}.seg. A segment is a sequence of independently
+ * gzipped blocks of archive.block-size bookings (one JSON object per line), sorted by date.
+ * Next to it, {name}.idx is a sparse index with one line per block:
+ * first date, last date, byte offset, byte length, number of bookings.
+ *
+ * The index is small and kept in memory, so a date range lookup only decompresses the
+ * blocks that overlap it. Segments written by other instances sharing archive.dir are
+ * picked up with refresh(), which ChangeLogTailer calls for their ARCHIVED changes. Lookups by email or phone have to scan the location's blocks,
+ * which is why they only happen when a caller asks for history.
+ */
+@Component
+public class BookingArchive {
+
+    record Block(LocalDate firstDate, LocalDate lastDate, long offset, int length, int rows) {}
+
+    record Segment(String location, YearMonth month, Path data, List<Block> blocks) {
+        int rows() {
+            return blocks.stream().mapToInt(Block::rows).sum();
+        }
+    }
+
+    // Archived bookings keep lastModified, which API clients cannot set (Booking makes it read-only for JSON)
+    abstract static class ArchivedBooking {
+        @JsonProperty(access = JsonProperty.Access.READ_WRITE)
+        private Instant lastModified;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, List<Segment>> segments = new ConcurrentHashMap<>();
+    // Data files of the segments above, so a segment is never loaded twice
+    private final Set<Path> loaded = ConcurrentHashMap.newKeySet();
+
+    @Value("${archive.dir:archive}")
+    private String archiveDir = "archive";
+
+    @Value("${archive.block-size:256}")
+    private int blockSize = 256;
+
+    public BookingArchive(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().addMixIn(Booking.class, ArchivedBooking.class);
+    }
+
+    // Loads the sparse indexes of all segments written by earlier runs
+    @PostConstruct
+    void loadIndexes() throws IOException {
+        Path root = Paths.get(archiveDir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            for (Path index : files.filter(p -> p.toString().endsWith(".idx")).sorted().toList()) {
+                Path monthDir = index.getParent();
+                String location = monthDir.getParent().getFileName().toString();
+                addSegment(location, YearMonth.parse(monthDir.getFileName().toString()), index);
+            }
+        }
+    }
+
+    /**
+     * Loads segments of a location and month that are not known yet, e.g. ones another
+     * instance has just written to the shared archive.dir.
+     */
+    public void refresh(String location, YearMonth month) {
+        Path monthDir = Paths.get(archiveDir, location, month.toString());
+        if (!Files.isDirectory(monthDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(monthDir)) {
+            for (Path index : files.filter(p -> p.toString().endsWith(".idx")).sorted().toList()) {
+                addSegment(location, month, index);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive directory " + monthDir, e);
+        }
+    }
+
+    private void addSegment(String location, YearMonth month, Path index) throws IOException {
+        Path data = index.resolveSibling(index.getFileName().toString().replaceFirst("\\.idx$", ".seg"));
+        if (loaded.contains(key(data))) {
+            return;
+        }
+        Segment segment = new Segment(location, month, data, readIndex(index));
+        if (loaded.add(key(data))) {
+            segmentsOf(location).add(segment);
+        }
+    }
+
+    private static Path key(Path data) {
+        return data.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Writes bookings of one location and month as a new segment. The index is written
+     * last, so a segment only becomes visible (also after a restart) once it is complete.
+     *
+     * @param bookings The bookings, all at the location and in the month
+     * @return The new segment
+     */
+    public Segment writeSegment(String location, YearMonth month, List<Booking> bookings) throws IOException {
+        List<Booking> sorted = new ArrayList<>(bookings);
+        sorted.sort(Comparator.comparing(Booking::getReservationDate)
+                .thenComparing(Booking::getReservationTime)
+                .thenComparing(Booking::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Path monthDir = Paths.get(archiveDir, location, month.toString());
+        Files.createDirectories(monthDir);
+        String name = System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        Path data = monthDir.resolve(name + ".seg");
+        Path index = monthDir.resolve(name + ".idx");
+
+        List<Block> blocks = new ArrayList<>();
+        try (OutputStream out = Files.newOutputStream(data, StandardOpenOption.CREATE_NEW)) {
+            long offset = 0;
+            for (int from = 0; from < sorted.size(); from += blockSize) {
+                List<Booking> chunk = sorted.subList(from, Math.min(from + blockSize, sorted.size()));
+                byte[] compressed = compress(chunk);
+                out.write(compressed);
+                blocks.add(new Block(chunk.get(0).getReservationDate(), chunk.get(chunk.size() - 1).getReservationDate(),
+                        offset, compressed.length, chunk.size()));
+                offset += compressed.length;
+            }
+        }
+
+        StringBuilder indexText = new StringBuilder();
+        for (Block block : blocks) {
+            indexText.append(block.firstDate()).append(',').append(block.lastDate()).append(',')
+                    .append(block.offset()).append(',').append(block.length()).append(',')
+                    .append(block.rows()).append('\n');
+        }
+        Path tmp = monthDir.resolve(name + ".idx.tmp");
+        Files.writeString(tmp, indexText, StandardCharsets.UTF_8);
+        Files.move(tmp, index, StandardCopyOption.ATOMIC_MOVE);
+
+        Segment segment = new Segment(location, month, data, List.copyOf(blocks));
+        if (loaded.add(key(data))) {
+            segmentsOf(location).add(segment);
+        }
+        return segment;
+    }
+
+    // Archived bookings at a location between two dates (inclusive), using the sparse index
+    public List<Booking> findByDateRange(String location, LocalDate from, LocalDate to) {
+        return scan(location,
+                block -> !block.lastDate().isBefore(from) && !block.firstDate().isAfter(to),
+                b -> !b.getReservationDate().isBefore(from) && !b.getReservationDate().isAfter(to));
+    }
+
+    // Matched by normalized contact, like the bookings table (see ContactKeys)
+    public List<Booking> findByEmail(String location, String email) {
+        String key = ContactKeys.email(email);
+        return scan(location, block -> true, b -> key.equals(b.getEmailKey()));
+    }
+
+    public List<Booking> findByPhone(String location, String phone) {
+        String key = ContactKeys.phone(phone);
+        return scan(location, block -> true, b -> key.equals(b.getPhoneKey()));
+    }
+
+    public List<Booking> findAll(String location) {
+        return scan(location, block -> true, b -> true);
+    }
+
+    private List<Booking> scan(String location, Predicate<Block> blockFilter, Predicate<Booking> filter) {
+        List<Booking> result = new ArrayList<>();
+        // A segment may repeat bookings if archiving stopped between writing it and deleting them
+        Set<Long> seen = new HashSet<>();
+        for (Segment segment : segments.getOrDefault(location, List.of())) {
+            try (FileChannel channel = FileChannel.open(segment.data(), StandardOpenOption.READ)) {
+                for (Block block : segment.blocks()) {
+                    if (blockFilter.test(block)) {
+                        for (Booking booking : readBlock(channel, block)) {
+                            if (filter.test(booking) && seen.add(booking.getId())) {
+                                result.add(booking);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive segment " + segment.data(), e);
+            }
+        }
+        return result;
+    }
+
+    private byte[] compress(List<Booking> bookings) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (Booking booking : bookings) {
+                gzip.write(objectMapper.writeValueAsBytes(booking));
+                gzip.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Booking> readBlock(FileChannel channel, Block block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+                throw new IOException("Archive segment is truncated");
+            }
+        }
+        List<Booking> bookings = new ArrayList<>(block.rows());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                bookings.add(objectMapper.readValue(line, Booking.class));
+            }
+        }
+        return bookings;
+    }
+
+    private static List<Block> readIndex(Path index) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            blocks.add(new Block(LocalDate.parse(parts[0]), LocalDate.parse(parts[1]),
+                    Long.parseLong(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
+        }
+        return List.copyOf(blocks);
+    }
+
+    private List<Segment> segmentsOf(String location) {
+        return segments.computeIfAbsent(location, l -> new CopyOnWriteArrayList<>());
+    }
+
+    /**
+     * Segment and booking counts per location, for the admin area.
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new TreeMap<>();
+        segments.forEach((location, list) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("segments", list.size());
+            stats.put("blocks", list.stream().mapToInt(s -> s.blocks().size()).sum());
+            stats.put("bookings", list.stream().mapToInt(Segment::rows).sum());
+            statistics.put(location, stats);
+        });
+        return statistics;
+    }
+}
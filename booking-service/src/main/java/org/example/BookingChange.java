@@ -0,0 +1,85 @@
+package org.example;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * One row per booking change, written in the same transaction as the change itself.
+ * Every booking-service instance tails this table (ChangeLogTailer) to invalidate its
+ * in-process caches for changes made by other instances.
+ */
+@Entity
+@jakarta.persistence.Table(name = "booking_changes",
+        indexes = @Index(name = "idx_booking_change_changed_at", columnList = "changed_at"))
+public class BookingChange {
+
+    public enum Type { CREATED, UPDATED, DELETED, MOVED, ARCHIVED }
+
+    // Mutation sequence number
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(nullable = false, length = 50)
+    private String location;
+
+    @Column(nullable = false)
+    private LocalDate reservationDate;
+
+    @Column(nullable = true)
+    private Long bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type changeType;
+
+    // Interval a cancelled or moved booking no longer occupies, so other instances can promote their waitlists
+    @Column(nullable = true)
+    private LocalTime freedStart;
+
+    @Column(nullable = true)
+    private LocalTime freedEnd;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    // Node id of the instance that made the change
+    @Column(nullable = false, length = 64)
+    private String origin;
+
+    // Default constructor (needed by JPA)
+    public BookingChange() {
+    }
+
+    public BookingChange(String location, LocalDate reservationDate, Long bookingId, Type changeType,
+                         LocalTime freedStart, LocalTime freedEnd, String origin) {
+        this.location = location;
+        this.reservationDate = reservationDate;
+        this.bookingId = bookingId;
+        this.changeType = changeType;
+        this.freedStart = freedStart;
+        this.freedEnd = freedEnd;
+        this.changedAt = Instant.now();
+        this.origin = origin;
+    }
+
+    public Long getSeq() { return seq; }
+
+    public String getLocation() { return location; }
+
+    public LocalDate getReservationDate() { return reservationDate; }
+
+    public Long getBookingId() { return bookingId; }
+
+    public Type getChangeType() { return changeType; }
+
+    public LocalTime getFreedStart() { return freedStart; }
+
+    public LocalTime getFreedEnd() { return freedEnd; }
+
+    public Instant getChangedAt() { return changedAt; }
+
+    public String getOrigin() { return origin; }
+}
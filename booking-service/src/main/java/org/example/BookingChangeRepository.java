@@ -0,0 +1,22 @@
+package org.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface BookingChangeRepository extends JpaRepository<BookingChange, Long> {
+    List<BookingChange> findBySeqGreaterThanOrderBySeqAsc(long seq);
+
+    @Query("select coalesce(max(c.seq), 0) from BookingChange c")
+    long findMaxSeq();
+
+    @Modifying
+    @Transactional
+    long deleteByChangedAtBefore(Instant cutoff);
+}
@@ -0,0 +1,104 @@
+package org.example;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps cheap mutation versions for bookings so read endpoints can answer
+ * conditional GETs (If-None-Match) without touching the repository.
+ *
+ * - Each location has a version that changes on every create, update or delete at that location.
+ * - Each location and reservation date has its own version, bumped only when a booking on that day changes.
+ * - The epoch makes ETags from a previous run of the service invalid after a restart.
+ * - The generation is bumped by invalidateAll() when this node may have missed changes made by other nodes.
+ */
+@Component
+public class BookingChangeTracker {
+
+    private static final LocalTime OPENING_TIME = LocalTime.of(9, 0);
+    private static final long SLOT_NANOS = 15L * 60 * 1_000_000_000L;
+
+    private final long epoch = System.currentTimeMillis();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> locationVersions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocationDate, AtomicLong> dateVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Records a booking change at a location affecting the given dates (e.g. old and new date on an update).
+     */
+    public void recordChange(String location, LocalDate... dates) {
+        for (LocalDate date : dates) {
+            if (date != null) {
+                dateVersions.computeIfAbsent(new LocationDate(location, date), d -> new AtomicLong()).incrementAndGet();
+            }
+        }
+        locationVersions.computeIfAbsent(location, l -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Makes every ETag handed out so far stale, e.g. after this node fell too far behind the change log.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    // Identifies this instance in the change log and on date leases
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public long getLocationVersion(String location) {
+        AtomicLong version = locationVersions.get(location);
+        return version == null ? 0 : version.get();
+    }
+
+    public long getDateVersion(String location, LocalDate date) {
+        AtomicLong version = dateVersions.get(new LocationDate(location, date));
+        return version == null ? 0 : version.get();
+    }
+
+    // ETag for anything that depends on a location's full booking list (all bookings, email and phone lookups)
+    public String locationEtag(String location) {
+        return "\"" + epoch + "." + generation.get() + "-" + location + "-" + getLocationVersion(location) + "\"";
+    }
+
+    /**
+     * ETag for the available times of a date. Today's list also shrinks as the clock moves
+     * past slots, so the number of slots already passed is part of today's tag.
+     */
+    public String dateEtag(String location, LocalDate date) {
+        return "\"" + dateTag(location, date) + "\"";
+    }
+
+    /**
+     * ETag for data that depends on the location's table inventory as well as the date's
+     * bookings, e.g. the capacity per slot.
+     */
+    public String dateEtag(String location, LocalDate date, long inventoryVersion) {
+        return "\"" + dateTag(location, date) + "-i" + inventoryVersion + "\"";
+    }
+
+    private String dateTag(String location, LocalDate date) {
+        String tag = epoch + "." + generation.get() + "-" + location + "-" + date + "-" + getDateVersion(location, date);
+        if (date.isEqual(LocalDate.now())) {
+            tag += "-t" + passedSlots(LocalTime.now());
+        }
+        return tag;
+    }
+
+    // Number of 15-minute slots (from opening) strictly before the given time
+    static long passedSlots(LocalTime now) {
+        long nanos = now.toNanoOfDay() - OPENING_TIME.toNanoOfDay();
+        return nanos <= 0 ? 0 : (nanos + SLOT_NANOS - 1) / SLOT_NANOS;
+    }
+}
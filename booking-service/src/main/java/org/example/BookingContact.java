@@ -0,0 +1,4 @@
+package org.example;
+
+// Contact lookup keys of one booking, loaded for rebuilding the ContactIndex
+public record BookingContact(String location, String emailKey, String phoneKey) {}
@@ -0,0 +1,534 @@
+package org.example;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.FutureOrPresent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import of bookings from CSV, e.g. when migrating from another reservation system.
+ *
+ * The file is streamed and never held in memory:
+ * 1. Rows are read in chunks of import.chunk-size. Each chunk is validated in parallel
+ *    (Booking's bean validation constraints and the closing time check), sorted by
+ *    location, date and time, and written to a temporary run file.
+ * 2. The run files are merged, so rows come out sorted by day. More than
+ *    import.merge-fan-in runs are first merged in passes, so only that many files are
+ *    open at once however large the input. Each day is assigned
+ *    tables in one pass (under the day's lease) and inserted with JDBC batch inserts
+ *    of import.batch-size rows.
+ *
+ * Rows that fail validation or get no table are written to an error report in
+ * import.report-dir instead of aborting the import, as the original CSV row, so they
+ * can be corrected and imported again. Past dates are accepted, since
+ * a migration usually brings the booking history along.
+ *
+ * Expected header: customerName,email,phone,reservationDate,reservationTime,numberOfGuests
+ * and optionally location (column order does not matter).
+ */
+@Service
+public class BookingImportService {
+
+    public record ImportResult(long rows, long imported, long rejected, int runs, long millis, String errorReport) {}
+
+    // A row that passed validation, with its original text for the error report
+    record ImportRow(long line, String location, String customerName, String email, String phone,
+                     LocalDate date, LocalTime time, int guests, String raw) {
+
+        static final Comparator<ImportRow> ORDER = Comparator.comparing(ImportRow::location)
+                .thenComparing(ImportRow::date)
+                .thenComparing(ImportRow::time)
+                .thenComparingLong(ImportRow::line);
+
+        String toCsv() {
+            return formatCsvLine(List.of(String.valueOf(line), location, customerName, email, phone,
+                    date.toString(), time.toString(), String.valueOf(guests), raw));
+        }
+
+        static ImportRow fromCsv(String csv) {
+            List<String> f = parseCsvLine(csv);
+            return new ImportRow(Long.parseLong(f.get(0)), f.get(1), f.get(2), f.get(3), f.get(4),
+                    LocalDate.parse(f.get(5)), LocalTime.parse(f.get(6)), Integer.parseInt(f.get(7)), f.get(8));
+        }
+
+        Booking toBooking(int table) {
+            Booking booking = new Booking(customerName, email, phone, date, time, guests);
+            booking.setLocation(location);
+            booking.setTableNumber(table);
+            return booking;
+        }
+    }
+
+    private record RawRow(long line, String text) {}
+
+    record Validated(long line, String raw, ImportRow row, String error) {}
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "customername", "email", "phone", "reservationdate", "reservationtime", "numberofguests");
+
+    private static final String INSERT_SQL = "insert into bookings (version, location, customer_name, email, phone, " +
+            "reservation_date, reservation_time, number_of_guests, table_number, email_key, phone_key, last_modified) " +
+            "values (0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+    private final TableServiceClient tableServiceClient;
+    private final BookingWriter bookingWriter;
+    private final DateLeaseManager leaseManager;
+    private final ContactIndex contactIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${import.chunk-size:10000}")
+    private int chunkSize = 10000;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${import.merge-fan-in:64}")
+    private int mergeFanIn = 64;
+
+    @Value("${import.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${import.report-dir:import-reports}")
+    private String reportDir = "import-reports";
+
+    public BookingImportService(Validator validator, JdbcTemplate jdbcTemplate, BookingRepository bookingRepository,
+                                TableServiceClient tableServiceClient, BookingWriter bookingWriter,
+                                DateLeaseManager leaseManager, ContactIndex contactIndex,
+                                PlatformTransactionManager transactionManager) {
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingRepository = bookingRepository;
+        this.tableServiceClient = tableServiceClient;
+        this.bookingWriter = bookingWriter;
+        this.leaseManager = leaseManager;
+        this.contactIndex = contactIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports bookings from a CSV stream.
+     *
+     * @param in The CSV data, with a header row
+     * @param defaultLocation Location for rows without a location column
+     * @return Row counts and the path of the error report
+     * @throws IllegalArgumentException if the header is missing a required column
+     */
+    public ImportResult importCsv(InputStream in, String defaultLocation) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(Paths.get(reportDir));
+        Path report = Paths.get(reportDir, "import-" + System.currentTimeMillis() + "-errors.csv");
+        Path workDir = Files.createTempDirectory("booking-import");
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long[] counts = new long[3]; // rows, imported, rejected
+        List<Path> runs = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             BufferedWriter errors = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            errors.write("line,error,row\n");
+
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV file is empty");
+            }
+            Map<String, Integer> columns = columns(header);
+
+            // Phase 1: validate chunks in parallel, spill each as a sorted run
+            List<RawRow> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawRow(lineNumber, line));
+                if (chunk.size() == chunkSize) {
+                    spill(chunk, columns, defaultLocation, pool, workDir, runs, errors, counts);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                spill(chunk, columns, defaultLocation, pool, workDir, runs, errors, counts);
+            }
+
+            // Phase 2: merge the runs and import one day at a time
+            try (RunMerger merged = new RunMerger(mergeToFanIn(runs, mergeFanIn, workDir))) {
+                ImportRow next = merged.hasNext() ? merged.next() : null;
+                while (next != null) {
+                    ImportRow first = next;
+                    next = leaseManager.withLease(first.location(), first.date(),
+                            () -> importDay(first, merged, errors, counts));
+                }
+            }
+        } finally {
+            pool.shutdown();
+            try (Stream<Path> files = Files.list(workDir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(workDir);
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new ImportResult(counts[0], counts[1], counts[2], runs.size(), millis, report.toAbsolutePath().toString());
+    }
+
+    // Validates a chunk on the pool, reports rejected rows and writes the valid ones as a sorted run
+    private void spill(List<RawRow> chunk, Map<String, Integer> columns, String defaultLocation, ForkJoinPool pool,
+                       Path workDir, List<Path> runs, Writer errors, long[] counts) throws IOException {
+        List<Validated> results = pool.submit(() -> chunk.parallelStream()
+                .map(raw -> validate(raw.line(), raw.text(), columns, defaultLocation))
+                .toList()).join();
+
+        List<ImportRow> valid = new ArrayList<>(results.size());
+        for (Validated result : results) {
+            counts[0]++;
+            if (result.row() != null) {
+                valid.add(result.row());
+            } else {
+                reject(errors, result.line(), result.error(), result.raw(), counts);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        valid.sort(ImportRow.ORDER);
+        Path run = workDir.resolve("run-" + runs.size() + ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            for (ImportRow row : valid) {
+                out.write(row.toCsv());
+                out.write('\n');
+            }
+        }
+        runs.add(run);
+    }
+
+    Validated validate(long line, String raw, Map<String, Integer> columns, String defaultLocation) {
+        List<String> fields;
+        try {
+            fields = parseCsvLine(raw);
+        } catch (IllegalArgumentException e) {
+            return new Validated(line, raw, null, e.getMessage());
+        }
+
+        Booking booking = new Booking();
+        String location = field(fields, columns, "location");
+        booking.setLocation(location == null || location.isBlank() ? defaultLocation : location.trim());
+        booking.setCustomerName(field(fields, columns, "customername"));
+        booking.setEmail(field(fields, columns, "email"));
+        booking.setPhone(field(fields, columns, "phone"));
+        String date = field(fields, columns, "reservationdate");
+        String time = field(fields, columns, "reservationtime");
+        String guests = field(fields, columns, "numberofguests");
+        if (date == null || time == null || guests == null) {
+            return new Validated(line, raw, null, "Row has fewer columns than the header");
+        }
+        try {
+            booking.setReservationDate(LocalDate.parse(date.trim()));
+            booking.setReservationTime(LocalTime.parse(time.trim()));
+            booking.setNumberOfGuests(Integer.parseInt(guests.trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return new Validated(line, raw, null, "Invalid date, time or number of guests");
+        }
+
+        // @FutureOrPresent is for new bookings; history being migrated is in the past
+        List<ConstraintViolation<Booking>> violations = validator.validate(booking).stream()
+                .filter(v -> !(v.getConstraintDescriptor().getAnnotation() instanceof FutureOrPresent))
+                .toList();
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new Validated(line, raw, null, error);
+        }
+        String timeError = TableAssigner.validateBookingTime(booking);
+        if (timeError != null) {
+            return new Validated(line, raw, null, timeError);
+        }
+
+        return new Validated(line, raw, new ImportRow(line, booking.getLocation(), booking.getCustomerName(),
+                booking.getEmail(), booking.getPhone(), booking.getReservationDate(),
+                booking.getReservationTime(), booking.getNumberOfGuests(), raw), null);
+    }
+
+    /**
+     * Imports the rows of one day, starting with first, using the merged (sorted) rows.
+     *
+     * @return The first row of the next day, or null if there are no more rows
+     */
+    private ImportRow importDay(ImportRow first, Iterator<ImportRow> rows, Writer errors, long[] counts) {
+        String location = first.location();
+        LocalDate date = first.date();
+        List<TableDTO> tables = tableServiceClient.fetchTables(location);
+        List<Booking> dayBookings = new ArrayList<>(bookingRepository.findByLocationAndReservationDate(location, date));
+        List<ImportRow> batchRows = new ArrayList<>(batchSize);
+        List<Booking> batch = new ArrayList<>(batchSize);
+
+        ImportRow row = first;
+        try {
+            while (row != null && row.location().equals(location) && row.date().equals(date)) {
+                Integer table = TableAssigner.findTable(tables, dayBookings, row.guests(), row.time());
+                if (table == null) {
+                    reject(errors, row.line(), tables.isEmpty() ? "Table inventory unavailable"
+                            : "No tables available for " + row.guests() + " guest(s) at this time", row.raw(), counts);
+                } else {
+                    Booking booking = row.toBooking(table);
+                    dayBookings.add(booking);
+                    batch.add(booking);
+                    batchRows.add(row);
+                    if (batch.size() == batchSize) {
+                        insertBatch(location, date, batch, batchRows, errors, counts);
+                    }
+                }
+                row = rows.hasNext() ? rows.next() : null;
+            }
+            insertBatch(location, date, batch, batchRows, errors, counts);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return row;
+    }
+
+    private void insertBatch(String location, LocalDate date, List<Booking> batch, List<ImportRow> batchRows,
+                             Writer errors, long[] counts) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Inserted rows bypass the entity's @PrePersist, so set lastModified for delta sync here
+        Timestamp importedAt = Timestamp.from(Instant.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, b) -> {
+                    ps.setString(1, b.getLocation());
+                    ps.setString(2, b.getCustomerName());
+                    ps.setString(3, b.getEmail());
+                    ps.setString(4, b.getPhone());
+                    ps.setDate(5, Date.valueOf(b.getReservationDate()));
+                    ps.setTime(6, Time.valueOf(b.getReservationTime()));
+                    ps.setInt(7, b.getNumberOfGuests());
+                    ps.setInt(8, b.getTableNumber());
+                    ps.setString(9, b.getEmailKey());
+                    ps.setString(10, b.getPhoneKey());
+                    ps.setTimestamp(11, importedAt);
+                });
+                bookingWriter.recordImported(location, date);
+            });
+            batch.forEach(contactIndex::add);
+            counts[1] += batch.size();
+        } catch (DataAccessException e) {
+            // A table was taken outside this service (e.g. directly in the database) - report the whole batch
+            for (ImportRow row : batchRows) {
+                reject(errors, row.line(), "Insert failed: " + e.getMostSpecificCause().getMessage(), row.raw(), counts);
+            }
+        }
+        batch.clear();
+        batchRows.clear();
+    }
+
+    /**
+     * Merges runs in passes, at most fanIn at a time, until no more than fanIn are left.
+     * Merged runs are deleted.
+     *
+     * @return The runs to merge in the final pass
+     */
+    static List<Path> mergeToFanIn(List<Path> runs, int fanIn, Path workDir) throws IOException {
+        int fan = Math.max(2, fanIn);
+        int pass = 0;
+        while (runs.size() > fan) {
+            pass++;
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += fan) {
+                List<Path> group = runs.subList(from, Math.min(from + fan, runs.size()));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                Path out = workDir.resolve("merge-" + pass + "-" + merged.size() + ".csv");
+                try (RunMerger merger = new RunMerger(group);
+                     BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                    while (merger.hasNext()) {
+                        writer.write(merger.next().toCsv());
+                        writer.write('\n');
+                    }
+                }
+                for (Path run : group) {
+                    Files.delete(run);
+                }
+                merged.add(out);
+            }
+            runs = merged;
+        }
+        return runs;
+    }
+
+    private static void reject(Writer errors, long line, String error, String raw, long[] counts) throws IOException {
+        counts[2]++;
+        errors.write(formatCsvLine(List.of(String.valueOf(line), error, raw)));
+        errors.write('\n');
+    }
+
+    private static Map<String, Integer> columns(String header) {
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    // Splits one CSV line; fields may be quoted, with "" for a quote inside a quoted field
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static String formatCsvLine(List<String> fields) {
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            String value = field == null ? "" : field.replace("\r", " ").replace("\n", " ");
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * K-way merge of sorted run files; holds one row per run in memory.
+     */
+    static final class RunMerger implements Iterator<ImportRow>, Closeable {
+
+        private record Head(ImportRow row, BufferedReader reader) {}
+
+        private final PriorityQueue<Head> heads =
+                new PriorityQueue<>(Comparator.comparing(Head::row, ImportRow.ORDER));
+        private final List<BufferedReader> readers = new ArrayList<>();
+
+        RunMerger(List<Path> runs) throws IOException {
+            for (Path run : runs) {
+                BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+                readers.add(reader);
+                advance(reader);
+            }
+        }
+
+        private void advance(BufferedReader reader) {
+            try {
+                String line = reader.readLine();
+                if (line != null) {
+                    heads.add(new Head(ImportRow.fromCsv(line), reader));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public ImportRow next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.reader());
+            return head.row();
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
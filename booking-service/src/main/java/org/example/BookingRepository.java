@@ -1,16 +1,45 @@
 package org.example;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByReservationDate(LocalDate date);
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
     List<Booking> findByCustomerName(String customerName);
     List<Booking> findByEmail(String email);
     List<Booking> findByPhone(String phone);
     List<Booking> findByReservationDateAndReservationTime(LocalDate date, LocalTime time);
+
+    // Location-partitioned queries, backed by the (location, reservation_date) index
+    List<Booking> findByLocation(String location);
+    List<Booking> findByLocationAndReservationDate(String location, LocalDate date);
+
+    // Lookups by normalized contact (see ContactKeys), backed by the (location, email_key/phone_key) indexes
+    List<Booking> findByLocationAndEmailKey(String location, String emailKey);
+    List<Booking> findByLocationAndPhoneKey(String location, String phoneKey);
+
+    // Delta sync, backed by the (location, last_modified) index
+    List<Booking> findByLocationAndLastModifiedAfter(String location, Instant since);
+
+    @Query("select new org.example.BookingContact(b.location, b.emailKey, b.phoneKey) from Booking b")
+    Stream<BookingContact> streamAllContacts();
+
+    @Query("select distinct new org.example.LocationDate(b.location, b.reservationDate) from Booking b " +
+            "where b.reservationDate >= :from order by b.location, b.reservationDate")
+    List<LocationDate> findBookedDaysFrom(@Param("from") LocalDate from);
+
+    // Days that are past the archive horizon and still in the hot table
+    @Query("select distinct new org.example.LocationDate(b.location, b.reservationDate) from Booking b " +
+            "where b.reservationDate < :before order by b.location, b.reservationDate")
+    List<LocationDate> findBookedDaysBefore(@Param("before") LocalDate before);
+
+    List<Booking> findByLocationAndReservationDateBetween(String location, LocalDate from, LocalDate to);
 }
@@ -1,64 +1,137 @@
 package org.example;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Supplier;
 
+// /api/bookings is the main cafe, other locations are under /api/locations/{location}/bookings
+// (LocationInterceptor resolves the location and puts it in a request attribute)
 @RestController
-@RequestMapping("/api/bookings")
+@RequestMapping({"/api/bookings", "/api/locations/{location}/bookings"})
 public class BookingRestController {
 
     private final BookingRepository bookingRepository;
-    private final RestTemplate restTemplate;
-
-    // DTO for interacting with Table Service
-    private record TableDTO(Long id, Long tableSize) {}
-
-    @Value("${table.service.url:http://localhost:8081}")
-    private String tableServiceUrl;
+    private final TableServiceClient tableServiceClient;
+    private final BookingChangeTracker changeTracker;
+    private final BookingWriter bookingWriter;
+    private final DateLeaseManager leaseManager;
+    private final WaitlistService waitlistService;
+    private final TableRepacker tableRepacker;
+    private final BookingArchive archive;
+    private final Tracer tracer;
+    private final ScheduleProjection scheduleProjection;
+    private final AvailabilityCache availabilityCache;
+    private final ContactIndex contactIndex;
+    private final SlotSuggester slotSuggester;
+    private final BookingSync bookingSync;
 
     @Autowired
-    public BookingRestController(BookingRepository bookingRepository, RestTemplate restTemplate) {
+    public BookingRestController(BookingRepository bookingRepository, TableServiceClient tableServiceClient,
+                                 BookingChangeTracker changeTracker, BookingWriter bookingWriter,
+                                 DateLeaseManager leaseManager, WaitlistService waitlistService,
+                                 TableRepacker tableRepacker, BookingArchive archive, Tracer tracer,
+                                 ScheduleProjection scheduleProjection, AvailabilityCache availabilityCache,
+                                 ContactIndex contactIndex, SlotSuggester slotSuggester,
+                                 BookingSync bookingSync) {
         this.bookingRepository = bookingRepository;
-        this.restTemplate = restTemplate;
+        this.tableServiceClient = tableServiceClient;
+        this.changeTracker = changeTracker;
+        this.bookingWriter = bookingWriter;
+        this.leaseManager = leaseManager;
+        this.waitlistService = waitlistService;
+        this.tableRepacker = tableRepacker;
+        this.archive = archive;
+        this.tracer = tracer;
+        this.scheduleProjection = scheduleProjection;
+        this.availabilityCache = availabilityCache;
+        this.contactIndex = contactIndex;
+        this.slotSuggester = slotSuggester;
+        this.bookingSync = bookingSync;
     }
 
     // GET all bookings
+    // Only bookings within the archive horizon, unless history=true
     @GetMapping
     public List<Booking> getAllBookings(
         @RequestParam(required = false) String email,
-        @RequestParam(required = false) String phone) {
+        @RequestParam(required = false) String phone,
+        @RequestParam(defaultValue = "false") boolean history,
+        @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location,
+        WebRequest webRequest) {
+
+        // Nothing changed since the client's copy - answer 304 without querying
+        if (webRequest.checkNotModified(historyEtag(location, history))) {
+            return null;
+        }
 
         // Filter by email if provided
         if (email != null && !email.isEmpty()) {
-            return bookingRepository.findByEmail(email);
+            return withHistory(bookingRepository.findByLocationAndEmailKey(location, ContactKeys.email(email)),
+                    history, () -> archive.findByEmail(location, email));
         }
 
         // Filter by phone if provided
         if (phone != null && !phone.isEmpty()) {
-            return bookingRepository.findByPhone(phone);
+            return withHistory(bookingRepository.findByLocationAndPhoneKey(location, ContactKeys.phone(phone)),
+                    history, () -> archive.findByPhone(location, phone));
         }
 
         // Return all bookings if no filters
-        return bookingRepository.findAll();
+        return withHistory(bookingRepository.findByLocation(location), history, () -> archive.findAll(location));
+    }
+
+    // GET only what changed: bookings created or updated after changedSince, and tombstones of bookings
+    // deleted or archived since (see BookingSync), e.g. /api/bookings?changedSince=2025-10-15T10:00:00Z.
+    // Pass the response's nextChangedSince next time; an empty changedSince returns every booking.
+    @GetMapping(params = "changedSince")
+    public ResponseEntity<?> getChangedBookings(
+            @RequestParam String changedSince,
+            @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
+        Instant since;
+        try {
+            since = changedSince.isBlank() ? null : Instant.parse(changedSince);
+        } catch (DateTimeParseException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "changedSince must be an ISO-8601 instant, e.g. 2025-10-15T10:00:00Z");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        Optional<BookingSync.Delta> delta = bookingSync.changesSince(location, since);
+        if (delta.isEmpty()) {
+            // Tombstones that old are gone, deletions could be missing
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "changedSince is older than the tombstone retention. Download the full list again.");
+            return ResponseEntity.status(HttpStatus.GONE).body(error);
+        }
+        return ResponseEntity.ok(delta.get());
     }
 
     // GET bookings by email
     @GetMapping("/email/{email}")
-    public ResponseEntity<?> getAllBookingsByEmail(@PathVariable String email) {
-        List<Booking> bookings = bookingRepository.findByEmail(email);
+    public ResponseEntity<?> getAllBookingsByEmail(@PathVariable String email,
+                                                   @RequestParam(defaultValue = "false") boolean history,
+                                                   @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location,
+                                                   WebRequest webRequest) {
+        if (webRequest.checkNotModified(historyEtag(location, history))) {
+            return null;
+        }
+
+        // Definitely unknown - the contact index only covers the bookings table, not the archive
+        List<Booking> bookings = !history && !contactIndex.mightHaveEmail(location, email) ? List.of()
+                : withHistory(bookingRepository.findByLocationAndEmailKey(location, ContactKeys.email(email)),
+                        history, () -> archive.findByEmail(location, email));
 
         if (bookings.isEmpty()) {
             Map<String, String> error = new HashMap<>();
@@ -71,8 +144,17 @@ public class BookingRestController {
 
     //GET bookings by phone
     @GetMapping("phone/{phone}")
-    public ResponseEntity<?> getAllBookingsByPhone(@PathVariable String phone) {
-        List<Booking> bookings = bookingRepository.findByPhone(phone);
+    public ResponseEntity<?> getAllBookingsByPhone(@PathVariable String phone,
+                                                   @RequestParam(defaultValue = "false") boolean history,
+                                                   @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location,
+                                                   WebRequest webRequest) {
+        if (webRequest.checkNotModified(historyEtag(location, history))) {
+            return null;
+        }
+
+        List<Booking> bookings = !history && !contactIndex.mightHavePhone(location, phone) ? List.of()
+                : withHistory(bookingRepository.findByLocationAndPhoneKey(location, ContactKeys.phone(phone)),
+                        history, () -> archive.findByPhone(location, phone));
 
         if (bookings.isEmpty()) {
             Map<String, String> error = new HashMap<>();
@@ -85,46 +167,76 @@ public class BookingRestController {
 
     // GET a single booking by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getBookingById(@PathVariable Long id) {
+    public ResponseEntity<Booking> getBookingById(@PathVariable Long id,
+                                                  @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
         return bookingRepository.findById(id)
+            .filter(booking -> location.equals(booking.getLocation()))
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
     // POST - Create a new booking
+    // With waitlist=true a party that gets no table is put on the waitlist (202) instead of a 409
     @PostMapping
-    public ResponseEntity<?> createBooking(@Valid @RequestBody Booking booking) {
+    public ResponseEntity<?> createBooking(@Valid @RequestBody Booking booking,
+                                           @RequestParam(defaultValue = "false") boolean waitlist,
+                                           @RequestParam(defaultValue = "0") int flexMinutes,
+                                           @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
         // Spring automatically validates based on annotations
         // If validation fails, it throws MethodArgumentNotValidException
 
+        // The routed location wins over whatever the body says
+        booking.setLocation(location);
+
         // Check if booking can be completed before closing time
-        String validationError = validateBookingTime(booking);
+        String validationError = TableAssigner.validateBookingTime(booking);
             if (validationError != null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", validationError);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            // Logic moved back to BookingService to avoid circular dependency
-            // We use local data to check availability instead of calling external service
-            Integer assignedTable = assignTable(booking);
+        // Assignment and save happen under the day's lease, so no other instance assigns the same table
+        return leaseManager.withLease(location, booking.getReservationDate(),
+                () -> assignAndSave(booking, waitlist, flexMinutes));
+    }
 
-            if (assignedTable == null) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "No tables available for " + booking.getNumberOfGuests() +
-                        " guest(s) at this time. Please select a different time.");
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    private ResponseEntity<?> assignAndSave(Booking booking, boolean waitlist, int flexMinutes) {
+        // Logic moved back to BookingService to avoid circular dependency
+        // We use local data to check availability instead of calling external service
+        Integer assignedTable = assignTable(booking);
+
+        // The day may just be fragmented - try moving existing bookings to make room
+        if (assignedTable == null) {
+            try (Span span = tracer.span("repack")) {
+                assignedTable = tableRepacker.repackFor(booking);
+                span.tag("table", assignedTable);
             }
+        }
 
-            booking.setTableNumber(assignedTable);
+        if (assignedTable == null) {
+            if (waitlist) {
+                WaitlistEntry entry = waitlistService.add(booking, flexMinutes);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(waitlistStatus(entry));
+            }
+            // The nearest free times come with the 409, so the client doesn't have to probe for them
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "No tables available for " + booking.getNumberOfGuests() +
+                    " guest(s) at this time. Please select a different time.");
+            error.put("alternatives", slotSuggester.suggest(booking));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
 
-            try {
-            Booking savedBooking = bookingRepository.save(booking);
+        booking.setTableNumber(assignedTable);
+
+        try {
+            Booking savedBooking = bookingWriter.create(booking);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedBooking);
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             // This catches the race condition where two users try to book simultaneously
-            Map<String, String> error = new HashMap<>();
+            Map<String, Object> error = new HashMap<>();
             error.put("error", "This time slot was just booked by another customer. Please select a different time.");
+            error.put("alternatives", slotSuggester.suggest(booking));
             return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         }
     }
@@ -132,96 +244,208 @@ public class BookingRestController {
 
     // GET - Get list of available time slots for given date
     @GetMapping("/available-times/{date}")
-    public ResponseEntity<List<LocalTime>> getAvailableTimes(@PathVariable String date) {
+    public ResponseEntity<List<LocalTime>> getAvailableTimes(@PathVariable String date,
+                                                             @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location,
+                                                             WebRequest webRequest) {
         // get reservations for given date
         //convert date string to LocalDate
         LocalDate localDate = LocalDate.parse(date);
-        List<Booking> bookings = bookingRepository.findByReservationDate(localDate);
 
+        // Date unchanged since the client's copy - answer 304 without querying
+        if (webRequest.checkNotModified(changeTracker.dateEtag(location, localDate))) {
+            return null;
+        }
+
+        return ResponseEntity.ok(availabilityCache.get(location, localDate, () -> computeAvailableTimes(location, localDate)));
+    }
+
+    // All of a day's slots that are not booked, regardless of the current time
+    // (slots that have passed today are removed by AvailabilityCache when the list is read)
+    private List<LocalTime> computeAvailableTimes(String location, LocalDate date) {
         // generate available time slots
-        List<LocalTime> times = generateTimeSlots(localDate);
-
-        // remove any times that are already booked
-        for (Booking booking : bookings) {
-            LocalTime startTime = booking.getReservationTime();
-            LocalTime endTime = startTime.plusMinutes(booking.getNumberOfGuests() * 15L);
-            for (int i = 0; i < times.size(); i++) { // for each timeslot
-                LocalTime time = times.get(i); //get the current timeslot
-                if ((time.equals(startTime) || time.isAfter(startTime)) && time.isBefore(endTime)) {
-                    times.remove(i);
-                    i--; //decrement i to skip the current timeslot since it was already removed
-                }
+        List<LocalTime> times = TableAssigner.timeSlots();
+
+        // remove any times that are already booked, from the schedule read model (not the bookings table)
+        for (TableSchedule table : scheduleProjection.getDay(location, date)) {
+            for (TableSchedule.Interval interval : table.getOccupied()) {
+                times.removeIf(time -> !time.isBefore(interval.start()) && time.isBefore(interval.end()));
             }
         }
+        return times;
+    }
+
+    // GET - Free start times nearest to a requested one for a party, e.g.
+    // /api/bookings/alternatives/2025-10-15?time=12:00&guests=4&limit=5&days=1 (days = adjacent days to look at)
+    @GetMapping("/alternatives/{date}")
+    public ResponseEntity<?> getAlternatives(@PathVariable String date,
+                                             @RequestParam String time,
+                                             @RequestParam int guests,
+                                             @RequestParam(defaultValue = "5") int limit,
+                                             @RequestParam(defaultValue = "1") int days,
+                                             @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
+        if (guests < 1 || guests > 9 || limit < 1 || limit > 20 || days < 0 || days > 7) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "guests must be 1-9, limit 1-20 and days 0-7");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        return ResponseEntity.ok(slotSuggester.suggest(location, LocalDate.parse(date), LocalTime.parse(time),
+                guests, limit, days));
+    }
+
+    // GET - Per start slot, the largest party that can still be seated, e.g.
+    // [{"time": "12:00:00", "maxGuests": 6}, ...], so the form can filter times by party size itself
+    @GetMapping("/capacity/{date}")
+    public ResponseEntity<List<SlotSuggester.SlotCapacity>> getCapacity(@PathVariable String date,
+                                                                         @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location,
+                                                                         WebRequest webRequest) {
+        LocalDate localDate = LocalDate.parse(date);
+        // Depends on the inventory as well as the date's bookings; without an inventory version there is no ETag
+        long inventoryVersion = tableServiceClient.getInventoryVersion(location);
+        if (inventoryVersion >= 0
+                && webRequest.checkNotModified(changeTracker.dateEtag(location, localDate, inventoryVersion))) {
+            return null;
+        }
+        List<TableDTO> tables = tableServiceClient.fetchTables(location);
+        return ResponseEntity.ok(slotSuggester.capacity(location, localDate, tables));
+    }
 
-        return ResponseEntity.ok(times);
+    // GET - Occupied intervals per table for given date
+    @GetMapping("/schedule/{date}")
+    public ResponseEntity<List<TableSchedule>> getSchedule(@PathVariable String date,
+                                                           @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location,
+                                                           WebRequest webRequest) {
+        LocalDate localDate = LocalDate.parse(date);
+        if (webRequest.checkNotModified(changeTracker.dateEtag(location, localDate))) {
+            return null;
+        }
+        return ResponseEntity.ok(scheduleProjection.getDay(location, localDate));
     }
 
     // PUT - Update an existing booking
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateBooking(@PathVariable Long id, @Valid @RequestBody Booking bookingDetails) {
+    public ResponseEntity<?> updateBooking(@PathVariable Long id, @Valid @RequestBody Booking bookingDetails,
+                                           @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
         return bookingRepository.findById(id)
-            .map(booking -> {
-                // Check if booking can be completed before closing time
-                String validationError = validateBookingTime(bookingDetails);
-                if (validationError != null) {
-                    Map<String, String> error = new HashMap<>();
-                    error.put("error", validationError);
-                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-                }
-
-                // Create a temporary booking object to check table availability
-                // (excluding the current booking from conflict check)
-                Booking tempBooking = new Booking();
-                tempBooking.setId(id); // Keep the same ID
-                tempBooking.setReservationDate(bookingDetails.getReservationDate());
-                tempBooking.setReservationTime(bookingDetails.getReservationTime());
-                tempBooking.setNumberOfGuests(bookingDetails.getNumberOfGuests());
-
-                // Try to assign a table (this will check availability)
-                Integer assignedTable = assignTableForUpdate(tempBooking, id);
-                if (assignedTable == null) {
-                    Map<String, String> error = new HashMap<>();
-                    error.put("error", "No tables available for " + bookingDetails.getNumberOfGuests() +
-                            " guest(s) at this time. Please select a different time.");
-                    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
-                }
-
-                booking.setCustomerName(bookingDetails.getCustomerName());
-                booking.setEmail(bookingDetails.getEmail());
-                booking.setPhone(bookingDetails.getPhone());
-                booking.setReservationDate(bookingDetails.getReservationDate());
-                booking.setReservationTime(bookingDetails.getReservationTime());
-                booking.setNumberOfGuests(bookingDetails.getNumberOfGuests());
-                try {
-                    Booking updated = bookingRepository.save(booking);
-                    return ResponseEntity.ok().body(updated);
-                } catch (org.springframework.dao.DataIntegrityViolationException e) {
-                    // Race condition during update
-                    Map<String, String> error = new HashMap<>();
-                    error.put("error", "This time slot was just booked by another customer. Please select a different time.");
-                    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
-                } catch (org.springframework.orm.ObjectOptimisticLockingFailureException e) {
-                    // Optimistic locking failure - someone else modified this booking
-                    Map<String, String> error = new HashMap<>();
-                    error.put("error", "This booking was modified by another user. Please refresh and try again.");
-                    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
-                }
-            })
-                .orElse(ResponseEntity.notFound().build());
+            .filter(booking -> location.equals(booking.getLocation()))
+            .map(booking -> leaseManager.withLease(location,
+                    List.of(booking.getReservationDate(), bookingDetails.getReservationDate()),
+                    () -> applyUpdate(id, booking, bookingDetails, location)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> applyUpdate(Long id, Booking booking, Booking bookingDetails, String location) {
+        // Check if booking can be completed before closing time
+        String validationError = TableAssigner.validateBookingTime(bookingDetails);
+        if (validationError != null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", validationError);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        // Create a temporary booking object to check table availability
+        // (excluding the current booking from conflict check)
+        Booking tempBooking = new Booking();
+        tempBooking.setId(id); // Keep the same ID
+        tempBooking.setLocation(location);
+        tempBooking.setReservationDate(bookingDetails.getReservationDate());
+        tempBooking.setReservationTime(bookingDetails.getReservationTime());
+        tempBooking.setNumberOfGuests(bookingDetails.getNumberOfGuests());
+
+        // Try to assign a table (this will check availability)
+        Integer assignedTable = assignTableForUpdate(tempBooking, id);
+        if (assignedTable == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "No tables available for " + bookingDetails.getNumberOfGuests() +
+                    " guest(s) at this time. Please select a different time.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+
+        LocalDate previousDate = booking.getReservationDate();
+        LocalTime previousTime = booking.getReservationTime();
+        int previousGuests = booking.getNumberOfGuests();
+        Integer previousTable = booking.getTableNumber();
+        booking.setCustomerName(bookingDetails.getCustomerName());
+        booking.setEmail(bookingDetails.getEmail());
+        booking.setPhone(bookingDetails.getPhone());
+        booking.setReservationDate(bookingDetails.getReservationDate());
+        booking.setReservationTime(bookingDetails.getReservationTime());
+        booking.setNumberOfGuests(bookingDetails.getNumberOfGuests());
+        booking.setTableNumber(assignedTable);
+
+        // The old slot is freed if the booking moved away from it
+        boolean moved = !previousDate.equals(booking.getReservationDate())
+                || !previousTime.equals(booking.getReservationTime())
+                || previousGuests > booking.getNumberOfGuests()
+                || !Objects.equals(previousTable, assignedTable);
+        LocalTime freedEnd = TableAssigner.endTime(previousTime, previousGuests);
+        try {
+            Booking updated = bookingWriter.update(booking, previousDate,
+                    moved ? previousTime : null, moved ? freedEnd : null);
+
+            // Offer the old slot to the waitlist
+            if (moved) {
+                promoteWaitlist(location, previousDate, previousTime, freedEnd);
+            }
+            return ResponseEntity.ok().body(updated);
+        } catch (org.springframework.dao.DataIntegrityViolationException e) {
+            // Race condition during update
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "This time slot was just booked by another customer. Please select a different time.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (org.springframework.orm.ObjectOptimisticLockingFailureException e) {
+            // Optimistic locking failure - someone else modified this booking
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "This booking was modified by another user. Please refresh and try again.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
     }
 
     // DELETE a booking
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBooking(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteBooking(@PathVariable Long id,
+                                              @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
         return bookingRepository.findById(id)
-            .map(booking -> {
-                bookingRepository.delete(booking);
+            .filter(booking -> location.equals(booking.getLocation()))
+            .map(booking -> leaseManager.withLease(location, booking.getReservationDate(), () -> {
+                bookingWriter.delete(booking);
+
+                // The freed table goes to the best waiting party, if any
+                promoteWaitlist(location, booking.getReservationDate(), booking.getReservationTime(),
+                        TableAssigner.endTime(booking.getReservationTime(), booking.getNumberOfGuests()));
                 return ResponseEntity.noContent().<Void>build();
-            })
+            }))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET - Status of a waitlist entry (WAITING, BOOKED with the booking id, or CANCELLED)
+    @GetMapping("/waitlist/{id}")
+    public ResponseEntity<?> getWaitlistEntry(@PathVariable Long id,
+                                              @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
+        return waitlistService.find(id)
+            .filter(entry -> location.equals(entry.getLocation()))
+            .<ResponseEntity<?>>map(entry -> ResponseEntity.ok(waitlistStatus(entry)))
             .orElse(ResponseEntity.notFound().build());
     }
 
+    // DELETE - Leave the waitlist
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<Void> cancelWaitlistEntry(@PathVariable Long id,
+                                                    @RequestAttribute(LocationInterceptor.LOCATION_ATTRIBUTE) String location) {
+        boolean atLocation = waitlistService.find(id).map(entry -> location.equals(entry.getLocation())).orElse(false);
+        if (atLocation && waitlistService.cancel(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // Another instance is assigning tables for the same day right now
+    @ExceptionHandler(LeaseUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleLeaseUnavailable(LeaseUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(error);
+    }
+
     // Exception handler for validation errors (optional but recommended)
     //TODO make unique error messages for each field
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -241,25 +465,6 @@ public class BookingRestController {
         return !bookings.isEmpty();
     }
 
-    /**
-     * Fetch the list of all tables from the Table Service (Inventory)
-     */
-    private List<TableDTO> fetchTables() {
-        String url = tableServiceUrl + "/api/tables";
-        try {
-            ResponseEntity<List<TableDTO>> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<List<TableDTO>>() {}
-            );
-            return response.getBody() != null ? response.getBody() : new ArrayList<>();
-        } catch (Exception e) {
-            System.err.println("Error fetching tables: " + e.getMessage());
-            return new ArrayList<>();
-        }
-    }
-
     /**
      * Assigns the smallest available table that can accommodate the number of guests.
      * Fetches table configurations dynamically from Table Service.
@@ -268,68 +473,19 @@ public class BookingRestController {
      * @return The assigned table number, or null if no suitable table is available
      */
     private Integer assignTable(Booking booking) {
-        int numberOfGuests = booking.getNumberOfGuests();
-        LocalDate date = booking.getReservationDate();
-        LocalTime time = booking.getReservationTime();
-
-        // Calculate booking duration
-        long durationMinutes = numberOfGuests * 15L;
-        LocalTime bookingEndTime = time.plusMinutes(durationMinutes);
-
         // Get table inventory
-        List<TableDTO> allTables = fetchTables();
-
-        // Sort tables by size (ascending) to try smallest suitable table first
-        allTables.sort(Comparator.comparingLong(TableDTO::tableSize));
+        List<TableDTO> allTables = tableServiceClient.fetchTables(booking.getLocation());
 
         // Get all bookings for this date
-        List<Booking> existingBookings = bookingRepository.findByReservationDate(date);
-
-        for (TableDTO table : allTables) {
-            // Check if table is large enough
-            if (table.tableSize() >= numberOfGuests) {
-                // Check if table is free
-                if (isTableAvailable(table.id().intValue(), time, bookingEndTime, existingBookings)) {
-                    return table.id().intValue();
-                }
-            }
+        List<Booking> existingBookings = bookingRepository.findByLocationAndReservationDate(
+                booking.getLocation(), booking.getReservationDate());
+
+        try (Span span = tracer.span("assign-table")) {
+            Integer table = TableAssigner.findTable(allTables, existingBookings,
+                    booking.getNumberOfGuests(), booking.getReservationTime());
+            span.tag("guests", booking.getNumberOfGuests()).tag("bookings", existingBookings.size()).tag("table", table);
+            return table;
         }
-
-        // No available table found
-        return null;
-    }
-
-    /**
-     * Checks if a specific table is available for the given time period.
-     * A table is available if there are no overlapping bookings.
-     *
-     * @param tableNumber The table number to check
-     * @param startTime The requested booking start time
-     * @param endTime The requested booking end time
-     * @param existingBookings All bookings for the requested date
-     * @return true if the table is available, false otherwise
-     */
-    private boolean isTableAvailable(int tableNumber, LocalTime startTime, LocalTime endTime,
-                                     List<Booking> existingBookings) {
-        for (Booking existing : existingBookings) {
-            // Skip bookings for different tables
-            if (existing.getTableNumber() == null || existing.getTableNumber() != tableNumber) {
-                continue;
-            }
-
-            // Calculate existing booking's time range
-            LocalTime existingStart = existing.getReservationTime();
-            long existingDuration = existing.getNumberOfGuests() * 15L;
-            LocalTime existingEnd = existingStart.plusMinutes(existingDuration);
-
-            // Check for overlap
-            // Overlap occurs if: (startTime < existingEnd) AND (endTime > existingStart)
-            if (startTime.isBefore(existingEnd) && endTime.isAfter(existingStart)) {
-                return false; // Table is occupied during this time
-            }
-        }
-
-        return true; // Table is available
     }
 
     /**
@@ -341,81 +497,59 @@ public class BookingRestController {
      * @return The assigned table number, or null if no suitable table is available
      */
     private Integer assignTableForUpdate(Booking booking, Long excludeBookingId) {
-        int numberOfGuests = booking.getNumberOfGuests();
-        LocalDate date = booking.getReservationDate();
-        LocalTime time = booking.getReservationTime();
-
-        // Calculate booking duration
-        long durationMinutes = numberOfGuests * 15L;
-        LocalTime bookingEndTime = time.plusMinutes(durationMinutes);
-
         // Get table inventory
-        List<TableDTO> allTables = fetchTables();
-        allTables.sort(Comparator.comparingLong(TableDTO::tableSize));
+        List<TableDTO> allTables = tableServiceClient.fetchTables(booking.getLocation());
 
         // Get all bookings for this date, excluding the one being updated
-        List<Booking> existingBookings = bookingRepository.findByReservationDate(date)
+        List<Booking> existingBookings = bookingRepository.findByLocationAndReservationDate(
+                        booking.getLocation(), booking.getReservationDate())
                 .stream()
                 .filter(b -> !b.getId().equals(excludeBookingId))
                 .toList();
 
-        for (TableDTO table : allTables) {
-            if (table.tableSize() >= numberOfGuests) {
-                if (isTableAvailable(table.id().intValue(), time, bookingEndTime, existingBookings)) {
-                    return table.id().intValue();
-                }
-            }
+        try (Span span = tracer.span("assign-table")) {
+            Integer table = TableAssigner.findTable(allTables, existingBookings,
+                    booking.getNumberOfGuests(), booking.getReservationTime());
+            span.tag("guests", booking.getNumberOfGuests()).tag("bookings", existingBookings.size()).tag("table", table);
+            return table;
         }
-
-        return null;
     }
 
-    // Validates that a booking can be completed before the cafe closes.
-    // Each guest requires 15 minutes, and cafe closes at 17:00.
-    private String validateBookingTime(Booking booking) {
-        LocalTime closingTime = LocalTime.of(17, 0);
-        LocalTime reservationTime = booking.getReservationTime();
-        int numberOfGuests = booking.getNumberOfGuests();
-
-        // Calculate how long the booking will take (15 minutes per guest)
-        long durationMinutes = numberOfGuests * 15L;
-
-        // Calculate when the booking would end
-        LocalTime bookingEndTime = reservationTime.plusMinutes(durationMinutes);
-
-        // Check if booking would end after closing time
-        if (bookingEndTime.isAfter(closingTime)) {
-            return String.format(
-                    "Booking cannot be completed before closing time (17:00). " +
-                            "A reservation at %s for %d guest%s would require until %s.",
-                    reservationTime.toString(),
-                    numberOfGuests,
-                    numberOfGuests == 1 ? "" : "s",
-                    bookingEndTime.toString()
-            );
+    // Archived bookings are only read when the caller asks for history
+    private static List<Booking> withHistory(List<Booking> hot, boolean history,
+                                             Supplier<List<Booking>> archived) {
+        if (!history) {
+            return hot;
         }
-
-        return null; // Valid booking
+        List<Booking> all = new ArrayList<>(hot);
+        all.addAll(archived.get());
+        return all;
     }
 
-    // Generate a list of LocalTime objects from 9:00 to 17:00 in 15-minute increments
-    private static List<LocalTime> generateTimeSlots(LocalDate date) {
-        List<LocalTime> timeList = new ArrayList<>();
-        LocalTime currentTime = LocalTime.of(9, 0);
-        LocalTime endTime = LocalTime.of(17, 0);
-        long incrementValue = 15;
+    // A response with history differs from one without, so they must not share an ETag
+    private String historyEtag(String location, boolean history) {
+        String etag = changeTracker.locationEtag(location);
+        return history ? etag.substring(0, etag.length() - 1) + "-h\"" : etag;
+    }
 
-        while (!currentTime.isAfter(endTime)) {
-            timeList.add(currentTime);
-            currentTime = currentTime.plusMinutes(incrementValue);
+    // Hands a freed interval to the waitlist; only fetches the inventory if someone is waiting
+    private void promoteWaitlist(String location, LocalDate date, LocalTime freedStart, LocalTime freedEnd) {
+        if (waitlistService.hasWaiting(location, date)) {
+            waitlistService.promote(location, date, freedStart, freedEnd, tableServiceClient.fetchTables(location));
         }
-        // if today's date is equal to date, remove time slots before current time
-        if (date.isEqual(LocalDate.now())) {
-            LocalTime now = LocalTime.now();
-            timeList.removeIf(time -> time.isBefore(now));
-        }
-        //remove final timeslot as this is too late in the cafe's day to take guests
-        timeList.remove(timeList.size() - 1);
-        return timeList;
+    }
+
+    private Map<String, Object> waitlistStatus(WaitlistEntry entry) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("waitlistId", entry.getId());
+        status.put("location", entry.getLocation());
+        status.put("status", entry.getStatus());
+        status.put("reservationDate", entry.getReservationDate());
+        status.put("earliestTime", entry.getEarliestTime());
+        status.put("latestTime", entry.getLatestTime());
+        status.put("numberOfGuests", entry.getNumberOfGuests());
+        status.put("position", waitlistService.position(entry));
+        status.put("bookingId", entry.getBookingId());
+        return status;
     }
 }
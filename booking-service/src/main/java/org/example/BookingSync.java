@@ -0,0 +1,76 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Delta sync for clients that mirror a location's bookings (dashboard, POS, reporting).
+ *
+ * Every booking carries lastModified, set on each insert and update, and every deleted or
+ * archived booking leaves a tombstone. A client passes the nextChangedSince of its previous
+ * response and gets only the bookings changed since then plus the tombstones.
+ *
+ * Timestamps are taken before commit, so a change can become visible after a later one.
+ * nextChangedSince therefore lies coherence.commit-grace-ms before the read: the next delta
+ * overlaps the previous one a little, which is harmless since clients upsert by id.
+ * Tombstones are dropped after sync.tombstone-retention-hours; a client that is further behind
+ * gets no delta (410) and has to download the full list again.
+ */
+@Service
+public class BookingSync {
+
+    public record Delta(List<Booking> bookings, List<BookingTombstone> deleted,
+                        Instant changedSince, Instant nextChangedSince) {}
+
+    private final BookingRepository bookingRepository;
+    private final BookingTombstoneRepository tombstoneRepository;
+
+    @Value("${sync.tombstone-retention-hours:168}")
+    private long retentionHours = 168;
+
+    @Value("${coherence.commit-grace-ms:10000}")
+    private long commitGraceMs = 10000;
+
+    public BookingSync(BookingRepository bookingRepository, BookingTombstoneRepository tombstoneRepository) {
+        this.bookingRepository = bookingRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    /**
+     * Bookings at a location created or changed after since, and tombstones of those removed after since.
+     *
+     * @param since The previous response's nextChangedSince, or null for every booking
+     * @return The delta, or empty if since is older than the tombstone retention
+     */
+    @Transactional(readOnly = true)
+    public Optional<Delta> changesSince(String location, Instant since) {
+        Instant readAt = Instant.now();
+        if (since == null) {
+            return Optional.of(new Delta(bookingRepository.findByLocation(location), List.of(),
+                    null, readAt.minusMillis(commitGraceMs)));
+        }
+        if (since.isBefore(readAt.minus(Duration.ofHours(retentionHours)))) {
+            return Optional.empty();
+        }
+        Instant next = readAt.minusMillis(commitGraceMs);
+        return Optional.of(new Delta(
+                bookingRepository.findByLocationAndLastModifiedAfter(location, since),
+                tombstoneRepository.findByLocationAndDeletedAtAfter(location, since),
+                since, next.isAfter(since) ? next : since));
+    }
+
+    @Scheduled(fixedDelayString = "${sync.prune-interval-ms:3600000}")
+    public void pruneTombstones() {
+        long pruned = tombstoneRepository.deleteByDeletedAtBefore(Instant.now().minus(Duration.ofHours(retentionHours)));
+        if (pruned > 0) {
+            System.out.println("Delta sync: " + pruned + " tombstone(s) past retention removed.");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Marks a booking that left the bookings table, so delta sync clients
+ * (GET /api/bookings?changedSince=) learn about deletions too. Kept for
+ * sync.tombstone-retention-hours, see BookingSync.
+ */
+@Entity
+@jakarta.persistence.Table(name = "booking_tombstones",
+        indexes = @Index(name = "idx_booking_tombstone_location_deleted_at", columnList = "location, deleted_at"))
+public class BookingTombstone {
+
+    public enum Reason { DELETED, ARCHIVED }
+
+    // The booking's id
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String location;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Reason reason;
+
+    // Default constructor (needed by JPA)
+    public BookingTombstone() {
+    }
+
+    public BookingTombstone(Long id, String location, Reason reason) {
+        this.id = id;
+        this.location = location;
+        this.reason = reason;
+        this.deletedAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+
+    public String getLocation() { return location; }
+
+    public Instant getDeletedAt() { return deletedAt; }
+
+    public Reason getReason() { return reason; }
+}
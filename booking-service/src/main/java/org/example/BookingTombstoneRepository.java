@@ -0,0 +1,19 @@
+package org.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface BookingTombstoneRepository extends JpaRepository<BookingTombstone, Long> {
+    // Backed by the (location, deleted_at) index
+    List<BookingTombstone> findByLocationAndDeletedAtAfter(String location, Instant since);
+
+    @Modifying
+    @Transactional
+    long deleteByDeletedAtBefore(Instant cutoff);
+}
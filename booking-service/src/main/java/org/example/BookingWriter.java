@@ -0,0 +1,143 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * All booking writes go through here, so that every change is recorded in the
+ * booking_changes table in the same transaction as the change itself. Other instances
+ * tail that table (ChangeLogTailer); this instance updates its own change tracker
+ * once the transaction has committed. The schedule read model (ScheduleProjection)
+ * and the day's occupancy rollups are updated in the same transaction. Bookings that leave
+ * the table get a tombstone for delta sync (BookingSync).
+ */
+@Service
+public class BookingWriter {
+
+    private final BookingRepository bookingRepository;
+    private final BookingChangeRepository changeRepository;
+    private final BookingChangeTracker changeTracker;
+    private final ScheduleProjection scheduleProjection;
+    private final OccupancyRollups occupancyRollups;
+    private final ContactIndex contactIndex;
+    private final BookingTombstoneRepository tombstoneRepository;
+
+    @Value("${coherence.change-log.enabled:true}")
+    private boolean changeLogEnabled = true;
+
+    public BookingWriter(BookingRepository bookingRepository, BookingChangeRepository changeRepository,
+                         BookingChangeTracker changeTracker, ScheduleProjection scheduleProjection,
+                         OccupancyRollups occupancyRollups, ContactIndex contactIndex,
+                         BookingTombstoneRepository tombstoneRepository) {
+        this.bookingRepository = bookingRepository;
+        this.changeRepository = changeRepository;
+        this.changeTracker = changeTracker;
+        this.scheduleProjection = scheduleProjection;
+        this.occupancyRollups = occupancyRollups;
+        this.contactIndex = contactIndex;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    @Transactional
+    public Booking create(Booking booking) {
+        Booking saved = bookingRepository.save(booking);
+        scheduleProjection.bookingSaved(saved, null);
+        afterCommit(() -> contactIndex.add(saved));
+        occupancyRollups.refreshDay(booking.getLocation(), booking.getReservationDate());
+        logChange(booking.getLocation(), booking.getReservationDate(), saved.getId(),
+                BookingChange.Type.CREATED, null, null);
+        return saved;
+    }
+
+    /**
+     * Saves an updated booking.
+     *
+     * @param booking The booking with its new details
+     * @param previousDate The date the booking was on before the update
+     * @param freedStart Start of the interval the booking no longer occupies, or null
+     * @param freedEnd End of the interval the booking no longer occupies, or null
+     */
+    @Transactional
+    public Booking update(Booking booking, LocalDate previousDate, LocalTime freedStart, LocalTime freedEnd) {
+        Booking saved = bookingRepository.save(booking);
+        scheduleProjection.bookingSaved(saved, previousDate);
+        afterCommit(() -> contactIndex.add(saved));
+        occupancyRollups.refreshDay(booking.getLocation(), booking.getReservationDate());
+        Long id = saved.getId();
+        logChange(booking.getLocation(), previousDate, id, BookingChange.Type.UPDATED, freedStart, freedEnd);
+        if (!previousDate.equals(booking.getReservationDate())) {
+            occupancyRollups.refreshDay(booking.getLocation(), previousDate);
+            logChange(booking.getLocation(), booking.getReservationDate(), id, BookingChange.Type.UPDATED, null, null);
+        }
+        return saved;
+    }
+
+    @Transactional
+    public void delete(Booking booking) {
+        bookingRepository.delete(booking);
+        tombstoneRepository.save(new BookingTombstone(booking.getId(), booking.getLocation(), BookingTombstone.Reason.DELETED));
+        scheduleProjection.bookingRemoved(booking.getLocation(), booking.getReservationDate(), booking.getId());
+        occupancyRollups.refreshDay(booking.getLocation(), booking.getReservationDate());
+        logChange(booking.getLocation(), booking.getReservationDate(), booking.getId(), BookingChange.Type.DELETED,
+                booking.getReservationTime(),
+                TableAssigner.endTime(booking.getReservationTime(), booking.getNumberOfGuests()));
+    }
+
+    // Table moves made by the re-packer; joins the re-packer's transaction
+    @Transactional
+    public void recordMoves(String location, LocalDate date) {
+        scheduleProjection.rebuildDay(location, date);
+        occupancyRollups.refreshDay(location, date);
+        logChange(location, date, null, BookingChange.Type.MOVED, null, null);
+    }
+
+    // Bookings inserted in bulk by the CSV import; joins the import batch's transaction
+    @Transactional
+    public void recordImported(String location, LocalDate date) {
+        scheduleProjection.rebuildDay(location, date);
+        occupancyRollups.refreshDay(location, date);
+        logChange(location, date, null, BookingChange.Type.CREATED, null, null);
+    }
+
+    // Bookings moved to the archive tier; joins the archive job's transaction. Their rollups stay.
+    @Transactional
+    public void recordArchived(String location, Collection<LocalDate> dates, Collection<Long> bookingIds) {
+        scheduleProjection.dropDays(location, dates);
+        tombstoneRepository.saveAll(bookingIds.stream()
+                .map(id -> new BookingTombstone(id, location, BookingTombstone.Reason.ARCHIVED))
+                .toList());
+        for (LocalDate date : dates) {
+            logChange(location, date, null, BookingChange.Type.ARCHIVED, null, null);
+        }
+    }
+
+    private void logChange(String location, LocalDate date, Long bookingId, BookingChange.Type type,
+                           LocalTime freedStart, LocalTime freedEnd) {
+        if (changeLogEnabled) {
+            changeRepository.save(new BookingChange(location, date, bookingId, type, freedStart, freedEnd,
+                    changeTracker.getNodeId()));
+        }
+        afterCommit(() -> changeTracker.recordChange(location, date));
+    }
+
+    // Local caches (change tracker, contact index) must not see the change before it is visible in the database
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -2,8 +2,12 @@ package org.example;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(CafeRuntimeHints.class)
 public class CafeApplication {
     public static void main(String[] args) {
         SpringApplication.run(CafeApplication.class, args);
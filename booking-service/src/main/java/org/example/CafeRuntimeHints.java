@@ -0,0 +1,41 @@
+package org.example;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Runtime hints for the fast-start build (Spring AOT, see the fast-start Maven profile).
+ *
+ * - JSON types are bound with Jackson by reflection: entities returned by the API,
+ *   TableDTO read from table-service, the admin result records and recorded spans.
+ * - LocationDate and BookingContact are created by JPQL constructor expressions.
+ * - Static pages are loaded as classpath resources.
+ */
+public class CafeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Booking.class, TableDTO.class, WaitlistEntry.class,
+                TableRepacker.RepackResult.class, ArchiveJob.ArchiveResult.class,
+                BookingImportService.ImportResult.class, TraceCollector.SpanRecord.class,
+                TableSchedule.class, OccupancyAnalytics.Heatmap.class, OccupancyAnalytics.BackfillResult.class,
+                TableReassignmentJob.ReassignmentResult.class, SlotSuggester.Alternative.class,
+                SlotSuggester.SlotCapacity.class, BookingSync.Delta.class, StartupWarmUp.Report.class, CapacitySimulator.SimulationRequest.class,
+                CapacitySimulator.SimulationResult.class);
+
+        hints.reflection().registerType(LocationDate.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(BookingContact.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(BookingArchive.ArchivedBooking.class, MemberCategory.DECLARED_FIELDS);
+        for (Class<?> entity : new Class<?>[] {Booking.class, BookingChange.class, DateLease.class,
+                TableSchedule.class, OccupancyRollup.class, BookingTombstone.class, Table.class, TableId.class,
+                InventoryVersion.class, WaitlistEntry.class}) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        hints.resources().registerPattern("static/*");
+    }
+}
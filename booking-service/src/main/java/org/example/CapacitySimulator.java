@@ -0,0 +1,264 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Capacity planning: replays booking demand against alternative table layouts ("what if two
+ * 2-tops became one 6-top") without touching real bookings or the inventory.
+ *
+ * Each party is seated the way booking creation does it, in arrival order: the smallest free
+ * table that fits (TableAssigner.findTable), and if there is none and simulation.repack is on,
+ * a re-pack of the day (TableRepacker.plan). Parties that still get no table are turned away.
+ * Every configuration sees exactly the same demand.
+ *
+ * Demand is either history (the bookings and archived bookings of a date range; parties that
+ * were turned away back then are not known, so this measures a layout against demand it
+ * could already seat) or synthetic (seeded, so runs are repeatable). Days are independent and
+ * run in parallel on a fork-join pool (simulation.parallelism, 0 = one thread per core).
+ * Dates come from the clock, not LocalDate.now(), so a run can be pinned to any day.
+ */
+@Service
+public class CapacitySimulator {
+
+    // One party asking for a table, in the Booking fields the assignment uses
+    public record Party(LocalTime time, int guests) {}
+
+    public record Configuration(String name, List<Table> tables) {}
+
+    public record ConfigurationResult(String name, int tables, long seats, int days, long parties, long accepted,
+                                      double acceptanceRate, long guestsTurnedAway, double seatUtilization) {}
+
+    /**
+     * POST /api/admin/simulate body. demand is "history" (from, to) or "synthetic" (days,
+     * partiesPerDay, seed); unset values get defaults.
+     */
+    public record SimulationRequest(List<Configuration> configurations, String demand, LocalDate from, LocalDate to,
+                                    Integer days, Integer partiesPerDay, Long seed) {}
+
+    public record SimulationResult(String demand, LocalDate from, LocalDate to, List<ConfigurationResult> configurations,
+                                   long millis) {}
+
+    // Per simulated day: parties, accepted, guests turned away, seated guest-minutes
+    record DayResult(long parties, long accepted, long guestsTurnedAway, long guestMinutes) {
+        DayResult plus(DayResult other) {
+            return new DayResult(parties + other.parties, accepted + other.accepted,
+                    guestsTurnedAway + other.guestsTurnedAway, guestMinutes + other.guestMinutes);
+        }
+    }
+
+    // Share of synthetic parties of 1..9 guests, in percent
+    private static final int[] PARTY_SIZE_PERCENT = {10, 35, 15, 20, 7, 7, 3, 2, 1};
+
+    private static final long OPEN_MINUTES = (TableAssigner.CLOSING_TIME.toSecondOfDay()
+            - TableAssigner.OPENING_TIME.toSecondOfDay()) / 60;
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchive archive;
+    private final Clock clock;
+
+    @Value("${simulation.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${simulation.repack:true}")
+    private boolean repack = true;
+
+    @Value("${simulation.max-days:20000}")
+    private int maxDays = 20000;
+
+    // Synthetic demand is generated up front, days x partiesPerDay parties
+    @Value("${simulation.max-parties-per-day:1000}")
+    private int maxPartiesPerDay = 1000;
+
+    @Autowired
+    public CapacitySimulator(BookingRepository bookingRepository, BookingArchive archive) {
+        this(bookingRepository, archive, Clock.systemDefaultZone());
+    }
+
+    CapacitySimulator(BookingRepository bookingRepository, BookingArchive archive, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.archive = archive;
+        this.clock = clock;
+    }
+
+    /**
+     * Replays the bookings of a location between two dates (default: the 90 days up to
+     * yesterday) against each configuration.
+     */
+    public SimulationResult simulateHistory(String location, LocalDate from, LocalDate to,
+                                            List<Configuration> configurations) {
+        LocalDate end = to != null ? to : LocalDate.now(clock).minusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(89);
+        validate(start, end, configurations);
+
+        List<Booking> bookings = new ArrayList<>(bookingRepository.findByLocationAndReservationDateBetween(location, start, end));
+        bookings.addAll(archive.findByDateRange(location, start, end));
+        // Arrival order is creation order, i.e. by id
+        bookings.sort(Comparator.comparing(Booking::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Map<LocalDate, List<Party>> byDate = new TreeMap<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            byDate.put(date, new ArrayList<>());
+        }
+        for (Booking booking : bookings) {
+            byDate.get(booking.getReservationDate()).add(new Party(booking.getReservationTime(), booking.getNumberOfGuests()));
+        }
+        return run("history", start, end, new ArrayList<>(byDate.values()), configurations);
+    }
+
+    /**
+     * Generates days of random demand starting today (by the clock), the same for every
+     * configuration: partiesPerDay parties of 1-9 guests at random bookable times.
+     */
+    public SimulationResult simulateSynthetic(int days, int partiesPerDay, long seed, List<Configuration> configurations) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be at least 1");
+        }
+        if (partiesPerDay < 1 || partiesPerDay > maxPartiesPerDay) {
+            throw new IllegalArgumentException("partiesPerDay must be between 1 and " + maxPartiesPerDay);
+        }
+        LocalDate start = LocalDate.now(clock);
+        LocalDate end = start.plusDays(days - 1L);
+        validate(start, end, configurations);
+
+        List<List<Party>> demand = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            demand.add(syntheticDay(new Random(seed + day), partiesPerDay));
+        }
+        return run("synthetic", start, end, demand, configurations);
+    }
+
+    private void validate(LocalDate start, LocalDate end, List<Configuration> configurations) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (end.toEpochDay() - start.toEpochDay() >= maxDays) {
+            throw new IllegalArgumentException("At most " + maxDays + " days can be simulated");
+        }
+        if (configurations == null || configurations.isEmpty()) {
+            throw new IllegalArgumentException("At least one configuration is required");
+        }
+        for (Configuration configuration : configurations) {
+            if (configuration.tables() == null || configuration.tables().isEmpty()) {
+                throw new IllegalArgumentException("Configuration " + configuration.name() + " has no tables");
+            }
+            for (Table table : configuration.tables()) {
+                if (table.getId() == null || table.getTableSize() == null
+                        || table.getTableSize() < 1 || table.getTableSize() > 9) {
+                    throw new IllegalArgumentException("Configuration " + configuration.name()
+                            + " needs an id and a size of 1-9 for every table");
+                }
+            }
+        }
+    }
+
+    private SimulationResult run(String kind, LocalDate start, LocalDate end, List<List<Party>> demand,
+                                 List<Configuration> configurations) {
+        long started = System.nanoTime();
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ConfigurationResult> results = new ArrayList<>();
+            for (Configuration configuration : configurations) {
+                List<TableDTO> tables = configuration.tables().stream()
+                        .map(table -> new TableDTO(table.getId(), table.getTableSize()))
+                        .toList();
+                DayResult total = pool.submit(() -> demand.parallelStream()
+                        .map(day -> simulateDay(day, tables, repack))
+                        .reduce(new DayResult(0, 0, 0, 0), DayResult::plus)).join();
+                results.add(result(configuration.name(), tables, demand.size(), total));
+            }
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.out.println("Capacity simulation (" + kind + "): " + demand.size() + " day(s) x "
+                    + configurations.size() + " configuration(s) in " + millis + " ms.");
+            return new SimulationResult(kind, start, end, results, millis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Seats one day's parties in arrival order, like BookingRestController.createBooking:
+     * the smallest free table, else (with repack) a re-pack of the day's bookings.
+     */
+    static DayResult simulateDay(List<Party> parties, List<TableDTO> tables, boolean repack) {
+        List<Booking> seated = new ArrayList<>();
+        long accepted = 0;
+        long turnedAway = 0;
+        long guestMinutes = 0;
+        for (Party party : parties) {
+            Booking booking = new Booking();
+            booking.setId((long) seated.size() + 1);
+            booking.setReservationTime(party.time());
+            booking.setNumberOfGuests(party.guests());
+
+            Integer table = TableAssigner.endsBeforeClosing(party.time(), party.guests())
+                    ? TableAssigner.findTable(tables, seated, party.guests(), party.time())
+                    : null;
+            if (table == null && repack && !seated.isEmpty()) {
+                TableRepacker.Plan plan = TableRepacker.plan(seated, tables, booking, null);
+                if (plan.complete()) {
+                    for (Booking other : seated) {
+                        other.setTableNumber(plan.tableFor(other));
+                    }
+                    table = plan.tableFor(booking);
+                }
+            }
+
+            if (table == null) {
+                turnedAway += party.guests();
+                continue;
+            }
+            booking.setTableNumber(table);
+            seated.add(booking);
+            accepted++;
+            guestMinutes += party.guests() * (long) party.guests() * TableAssigner.MINUTES_PER_GUEST;
+        }
+        return new DayResult(parties.size(), accepted, turnedAway, guestMinutes);
+    }
+
+    static List<Party> syntheticDay(Random random, int parties) {
+        List<LocalTime> slots = TableAssigner.timeSlots();
+        List<Party> day = new ArrayList<>(parties);
+        while (day.size() < parties) {
+            int guests = partySize(random);
+            LocalTime time = slots.get(random.nextInt(slots.size()));
+            if (TableAssigner.endsBeforeClosing(time, guests)) {
+                day.add(new Party(time, guests));
+            }
+        }
+        return day;
+    }
+
+    private static int partySize(Random random) {
+        int percentile = random.nextInt(100);
+        for (int size = 0; size < PARTY_SIZE_PERCENT.length; size++) {
+            percentile -= PARTY_SIZE_PERCENT[size];
+            if (percentile < 0) {
+                return size + 1;
+            }
+        }
+        return PARTY_SIZE_PERCENT.length;
+    }
+
+    // Seat utilization: seated guest-minutes over every seat for every open minute
+    private static ConfigurationResult result(String name, List<TableDTO> tables, int days, DayResult total) {
+        long seats = tables.stream().mapToLong(TableDTO::tableSize).sum();
+        double acceptanceRate = total.parties() == 0 ? 0.0 : (double) total.accepted() / total.parties();
+        double utilization = days == 0 ? 0.0 : (double) total.guestMinutes() / (seats * OPEN_MINUTES * days);
+        return new ConfigurationResult(name, tables.size(), seats, days, total.parties(), total.accepted(),
+                acceptanceRate, total.guestsTurnedAway(), utilization);
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps this instance's caches coherent with changes made by other booking-service instances.
+ *
+ * Polls booking_changes every coherence.poll-interval-ms and, for each change made
+ * elsewhere, bumps the change tracker (so ETags go stale), offers freed intervals to
+ * the waitlist and loads newly archived segments. The log is read by sequence number, not by the writers' clocks, so clock
+ * differences between instances cannot hide a change.
+ *
+ * Sequence numbers are handed out before commit, so a change with a lower number can become
+ * visible after a higher one. A missing number is a gap: it is looked for again on every poll
+ * until it shows up, or until coherence.commit-grace-ms (on this instance's clock) has passed
+ * since it was first noticed - then its transaction is assumed rolled back.
+ *
+ * If this instance could not read the log for longer than its retention, it may have
+ * missed changes, so every ETag is invalidated instead.
+ */
+@Component
+public class ChangeLogTailer {
+
+    private final BookingChangeRepository changeRepository;
+    private final BookingChangeTracker changeTracker;
+    private final WaitlistService waitlistService;
+    private final TableServiceClient tableServiceClient;
+    private final DateLeaseManager leaseManager;
+    private final ContactIndex contactIndex;
+    private final BookingRepository bookingRepository;
+    private final BookingArchive archive;
+
+    // Every change up to here is applied or given up; -1 until the first poll
+    private long watermark = -1;
+    // Applied changes above the watermark
+    private final Set<Long> applied = new HashSet<>();
+    // Missing sequence numbers above the watermark, and when each was first noticed
+    private final Map<Long, Instant> gaps = new HashMap<>();
+    private Instant lastSuccess = Instant.now();
+    private volatile long appliedCount;
+
+    @Value("${coherence.change-log.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${coherence.commit-grace-ms:10000}")
+    private long commitGraceMs = 10000;
+
+    @Value("${coherence.retention-minutes:60}")
+    private long retentionMinutes = 60;
+
+    public ChangeLogTailer(BookingChangeRepository changeRepository, BookingChangeTracker changeTracker,
+                           WaitlistService waitlistService, TableServiceClient tableServiceClient,
+                           DateLeaseManager leaseManager, ContactIndex contactIndex,
+                           BookingRepository bookingRepository, BookingArchive archive) {
+        this.changeRepository = changeRepository;
+        this.changeTracker = changeTracker;
+        this.waitlistService = waitlistService;
+        this.tableServiceClient = tableServiceClient;
+        this.leaseManager = leaseManager;
+        this.contactIndex = contactIndex;
+        this.bookingRepository = bookingRepository;
+        this.archive = archive;
+    }
+
+    @Scheduled(fixedDelayString = "${coherence.poll-interval-ms:500}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        Instant pollStart = Instant.now();
+        List<BookingChange> changes;
+        try {
+            if (watermark < 0) {
+                // Changes from before this instance started are already in the database it reads
+                watermark = changeRepository.findMaxSeq();
+            }
+            changes = changeRepository.findBySeqGreaterThanOrderBySeqAsc(watermark);
+        } catch (RuntimeException e) {
+            System.err.println("Could not read booking change log: " + e.getMessage());
+            return;
+        }
+
+        if (Duration.between(lastSuccess, pollStart).toMinutes() >= retentionMinutes) {
+            changeTracker.invalidateAll();
+            contactIndex.invalidate();
+        }
+
+        long highest = watermark;
+        for (BookingChange change : changes) {
+            long seq = change.getSeq();
+            highest = Math.max(highest, seq);
+            if (seq <= watermark || !applied.add(seq)) {
+                continue;
+            }
+            gaps.remove(seq);
+            if (!changeTracker.getNodeId().equals(change.getOrigin())) {
+                apply(change);
+            }
+        }
+        for (long seq = watermark + 1; seq < highest; seq++) {
+            if (!applied.contains(seq)) {
+                gaps.putIfAbsent(seq, pollStart);
+            }
+        }
+        advanceWatermark(pollStart.minusMillis(commitGraceMs));
+        lastSuccess = pollStart;
+    }
+
+    // Moves past applied changes and gaps noticed before the cutoff, stops at the first gap still open
+    private void advanceWatermark(Instant cutoff) {
+        while (true) {
+            long next = watermark + 1;
+            if (applied.remove(next)) {
+                watermark = next;
+                continue;
+            }
+            Instant noticed = gaps.get(next);
+            if (noticed == null || !noticed.isBefore(cutoff)) {
+                return;
+            }
+            gaps.remove(next);
+            watermark = next;
+        }
+    }
+
+    private void apply(BookingChange change) {
+        appliedCount++;
+        changeTracker.recordChange(change.getLocation(), change.getReservationDate());
+
+        // New contacts must be in the contact index before this instance is asked about them
+        if (change.getChangeType() == BookingChange.Type.CREATED || change.getChangeType() == BookingChange.Type.UPDATED) {
+            if (change.getBookingId() == null) {
+                contactIndex.invalidate(); // bulk import, contacts unknown until the next rebuild
+            } else {
+                bookingRepository.findById(change.getBookingId()).ifPresent(contactIndex::add);
+            }
+        }
+
+        // The bookings left the table for a segment in the shared archive.dir
+        if (change.getChangeType() == BookingChange.Type.ARCHIVED) {
+            try {
+                archive.refresh(change.getLocation(), YearMonth.from(change.getReservationDate()));
+            } catch (UncheckedIOException e) {
+                System.err.println("Could not load archived segments: " + e.getMessage());
+            }
+        }
+
+        // A booking was cancelled or moved on another instance - parties waiting here may fit now
+        if (change.getFreedStart() != null && waitlistService.hasWaiting(change.getLocation(), change.getReservationDate())) {
+            try {
+                leaseManager.withLease(change.getLocation(), change.getReservationDate(), () ->
+                        waitlistService.promote(change.getLocation(), change.getReservationDate(),
+                                change.getFreedStart(), change.getFreedEnd(),
+                                tableServiceClient.fetchTables(change.getLocation())));
+            } catch (LeaseUnavailableException e) {
+                System.err.println("Waitlist promotion for " + change.getLocation() + " "
+                        + change.getReservationDate() + " skipped: " + e.getMessage());
+            }
+        }
+    }
+
+    // Old entries are only needed by instances that are lagging behind
+    @Scheduled(fixedDelayString = "${coherence.prune-interval-ms:60000}")
+    public void prune() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            changeRepository.deleteByChangedAtBefore(Instant.now().minus(Duration.ofMinutes(retentionMinutes)));
+        } catch (RuntimeException e) {
+            System.err.println("Could not prune booking change log: " + e.getMessage());
+        }
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    // Sequence numbers still waited for
+    public int getOpenGaps() {
+        return gaps.size();
+    }
+}
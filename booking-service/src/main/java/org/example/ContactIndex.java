@@ -0,0 +1,141 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory bloom filter over the contact keys (see ContactKeys) of all bookings in the
+ * bookings table, so that email and phone lookups for unknown customers can be answered
+ * with 404 without a query.
+ *
+ * Bookings saved by this instance are added as they are written, those saved by other
+ * instances when the change log tailer sees them. Bloom filters cannot forget, so the
+ * filter is rebuilt from the database every contacts.bloom.rebuild-interval-ms to drop
+ * deleted and archived contacts. Until the first build, and after a change whose contacts
+ * are unknown (a bulk import on another instance), every lookup goes to the database.
+ */
+@Component
+public class ContactIndex {
+
+    private final BookingRepository bookingRepository;
+    private final AtomicLong definiteMisses = new AtomicLong();
+    private final AtomicLong passedToDatabase = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile BloomFilter filter;
+    // Filter being rebuilt; adds go to both so nothing written during a rebuild is lost
+    private volatile BloomFilter next;
+    private volatile long entries;
+
+    @Value("${contacts.bloom.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${contacts.bloom.expected-entries:100000}")
+    private long expectedEntries = 100000;
+
+    @Value("${contacts.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    public ContactIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    // False if no booking at the location has this email
+    public boolean mightHaveEmail(String location, String email) {
+        return mightContain(emailEntry(location, ContactKeys.email(email)));
+    }
+
+    // False if no booking at the location has this phone number
+    public boolean mightHavePhone(String location, String phone) {
+        return mightContain(phoneEntry(location, ContactKeys.phone(phone)));
+    }
+
+    private boolean mightContain(String entry) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(entry)) {
+            passedToDatabase.incrementAndGet();
+            return true;
+        }
+        definiteMisses.incrementAndGet();
+        return false;
+    }
+
+    public void add(Booking booking) {
+        add(booking.getLocation(), booking.getEmailKey(), booking.getPhoneKey());
+    }
+
+    private void add(String location, String emailKey, String phoneKey) {
+        for (BloomFilter target : new BloomFilter[] {filter, next}) {
+            if (target != null) {
+                target.add(emailEntry(location, emailKey));
+                target.add(phoneEntry(location, phoneKey));
+            }
+        }
+    }
+
+    // Contacts written elsewhere are unknown until the next rebuild
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        filter = null;
+    }
+
+    /**
+     * Rebuilds the filter from the bookings table.
+     */
+    @Scheduled(fixedDelayString = "${contacts.bloom.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long invalidated = invalidations.get();
+        // Room for the bookings to double before the next rebuild, with an email and a phone entry each
+        long capacity = Math.max(expectedEntries, bookingRepository.count() * 2);
+        BloomFilter built = new BloomFilter(capacity * 2, falsePositiveRate);
+        next = built;
+        long count = 0;
+        try (Stream<BookingContact> contacts = bookingRepository.streamAllContacts()) {
+            for (BookingContact contact : (Iterable<BookingContact>) contacts::iterator) {
+                built.add(emailEntry(contact.location(), contact.emailKey()));
+                built.add(phoneEntry(contact.location(), contact.phoneKey()));
+                count++;
+            }
+            // Contacts that became unknown during the rebuild may not be in it either
+            if (invalidations.get() == invalidated) {
+                filter = built;
+            }
+            entries = count;
+        } catch (RuntimeException e) {
+            System.err.println("Could not rebuild contact index: " + e.getMessage());
+        } finally {
+            next = null;
+        }
+    }
+
+    private static String emailEntry(String location, String emailKey) {
+        return location + "\u0000e\u0000" + emailKey;
+    }
+
+    private static String phoneEntry(String location, String phoneKey) {
+        return location + "\u0000p\u0000" + phoneKey;
+    }
+
+    /**
+     * Lookups answered from the filter alone and lookups that went to the database, for the admin area.
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("built", filter != null);
+        statistics.put("bookings", entries);
+        statistics.put("definiteMisses", definiteMisses.get());
+        statistics.put("passedToDatabase", passedToDatabase.get());
+        return statistics;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A short lease one booking-service instance holds on a location's day while it
+ * assigns tables, so two instances never assign the same table at the same time.
+ */
+@Entity
+@jakarta.persistence.Table(name = "date_leases")
+public class DateLease {
+
+    // location/date
+    @Id
+    @Column(length = 80)
+    private String leaseKey;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Default constructor (needed by JPA)
+    public DateLease() {
+    }
+
+    public String getLeaseKey() { return leaseKey; }
+
+    public String getOwner() { return owner; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,179 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes table assignment per location and day, across threads and across instances.
+ *
+ * - Within this instance, a striped set of reentrant locks (one per hash of location and date).
+ * - Across instances, a short lease row in date_leases, owned by this node's id. A lease that
+ *   is not released (e.g. the instance died) expires after coherence.leases.duration-ms.
+ *
+ * Leases are reentrant, so the re-packer can run inside a booking's lease. While the action
+ * runs (which can include a re-pack and a call to table-service), a heartbeat renews the
+ * leases every third of their duration, so they only expire if this instance stops. Lease
+ * expiry uses each instance's clock, so clocks must be in sync well within the lease duration.
+ */
+@Component
+public class DateLeaseManager {
+
+    private static final int STRIPES = 64;
+
+    private final DateLeaseRepository leaseRepository;
+    private final String owner;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final ThreadLocal<Set<String>> heldLeases = ThreadLocal.withInitial(HashSet::new);
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${coherence.leases.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${coherence.leases.duration-ms:5000}")
+    private long durationMs = 5000;
+
+    @Value("${coherence.leases.wait-ms:2000}")
+    private long waitMs = 2000;
+
+    public DateLeaseManager(DateLeaseRepository leaseRepository, BookingChangeTracker changeTracker) {
+        this.leaseRepository = leaseRepository;
+        this.owner = changeTracker.getNodeId();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLease(String location, LocalDate date, Supplier<T> action) {
+        return withLease(location, List.of(date), action);
+    }
+
+    /**
+     * Runs the action while holding the leases of all given days at the location.
+     *
+     * @throws LeaseUnavailableException if a lease could not be taken within coherence.leases.wait-ms
+     */
+    public <T> T withLease(String location, Collection<LocalDate> dates, Supplier<T> action) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+
+        // Local locks in stripe order, so two threads never wait on each other's stripes
+        TreeSet<Integer> stripes = new TreeSet<>();
+        TreeSet<String> keys = new TreeSet<>();
+        for (LocalDate date : dates) {
+            String key = location + "/" + date;
+            keys.add(key);
+            stripes.add(Math.floorMod(key.hashCode(), STRIPES));
+        }
+
+        List<ReentrantLock> locked = new ArrayList<>();
+        List<String> taken = new ArrayList<>();
+        ScheduledFuture<?> renewal = null;
+        try {
+            for (int stripe : stripes) {
+                ReentrantLock lock = locks[stripe];
+                if (!lock.tryLock(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                    throw new LeaseUnavailableException("Bookings for " + location + " are busy, please try again");
+                }
+                locked.add(lock);
+            }
+            if (enabled) {
+                Set<String> held = heldLeases.get();
+                for (String key : keys) {
+                    if (held.contains(key)) {
+                        continue; // taken further up this thread's call stack
+                    }
+                    if (!acquire(key, deadline)) {
+                        throw new LeaseUnavailableException("Bookings for " + location
+                                + " are being changed by another server, please try again");
+                    }
+                    held.add(key);
+                    taken.add(key);
+                }
+            }
+            if (!taken.isEmpty()) {
+                List<String> keysToRenew = List.copyOf(taken);
+                long period = Math.max(1, durationMs / 3);
+                renewal = heartbeat.scheduleAtFixedRate(() -> renew(keysToRenew), period, period, TimeUnit.MILLISECONDS);
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LeaseUnavailableException("Interrupted while waiting for bookings of " + location);
+        } finally {
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+            for (String key : taken) {
+                heldLeases.get().remove(key);
+                try {
+                    leaseRepository.release(key, owner, Instant.now());
+                } catch (RuntimeException e) {
+                    // The lease expires on its own
+                    System.err.println("Could not release lease " + key + ": " + e.getMessage());
+                }
+            }
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).unlock();
+            }
+        }
+    }
+
+    // Heartbeat; a lease that was taken over cannot be won back, so that is only reported
+    private void renew(List<String> keys) {
+        Instant expiresAt = Instant.now().plusMillis(durationMs);
+        for (String key : keys) {
+            try {
+                if (leaseRepository.renew(key, owner, expiresAt) == 0) {
+                    System.err.println("Lease " + key + " was taken over by another server");
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not renew lease " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Renew or take over an expired lease, otherwise create it; retry until the deadline
+    private boolean acquire(String key, long deadline) throws InterruptedException {
+        while (true) {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plusMillis(durationMs);
+            if (leaseRepository.tryTakeOver(key, owner, expiresAt, now) == 1) {
+                return true;
+            }
+            try {
+                if (leaseRepository.insertLease(key, owner, expiresAt) == 1) {
+                    return true;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Another instance holds it
+            }
+            if (remainingNanos(deadline) <= 0) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+// Lease changes commit on their own, so other instances see them straight away
+@Repository
+public interface DateLeaseRepository extends JpaRepository<DateLease, String> {
+
+    // Takes the lease if this node already holds it or it has expired
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("update DateLease l set l.owner = :owner, l.expiresAt = :expiresAt " +
+            "where l.leaseKey = :key and (l.owner = :owner or l.expiresAt < :now)")
+    int tryTakeOver(@Param("key") String key, @Param("owner") String owner,
+                    @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    // Fails with a duplicate key if the lease row already exists
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "insert into date_leases (lease_key, owner, expires_at) values (:key, :owner, :expiresAt)",
+            nativeQuery = true)
+    int insertLease(@Param("key") String key, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    // Extends a lease this node holds; 0 if another node has taken it over
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("update DateLease l set l.expiresAt = :expiresAt where l.leaseKey = :key and l.owner = :owner")
+    int renew(@Param("key") String key, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("update DateLease l set l.expiresAt = :now where l.leaseKey = :key and l.owner = :owner")
+    int release(@Param("key") String key, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -0,0 +1,38 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Reads the inventory in-process, for deployments that run both services on one host:
+ * no HTTP round trip and no JSON, just a query on this service's database.
+ * The locations in table.service.embedded.locations get the default layout on startup,
+ * like table-service does.
+ */
+public class EmbeddedInventorySource implements InventorySource {
+
+    private final TableInventory tableInventory;
+    private final String[] locations;
+
+    public EmbeddedInventorySource(TableInventory tableInventory, String[] locations) {
+        this.tableInventory = tableInventory;
+        this.locations = locations;
+    }
+
+    @Override
+    public Inventory loadTables(String location) {
+        // Version first: if the tables change in between, the version is older than the tables, never newer
+        long version = tableInventory.getVersion(location);
+        List<TableDTO> tables = tableInventory.getTables(location).stream()
+                .map(table -> new TableDTO(table.getId(), table.getTableSize()))
+                .toList();
+        return new Inventory(tables, version);
+    }
+
+    void seed() {
+        for (String location : locations) {
+            if (tableInventory.seedDefaultLayout(location.trim())) {
+                System.out.println("Embedded table inventory initialized for location " + location.trim() + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * Writes the same {"error": "..."} body as the controllers, for interceptors that
+ * reject a request before it reaches a controller.
+ */
+final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    static void write(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        write(response, status.value(), message);
+    }
+
+    static void write(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}");
+    }
+}
@@ -0,0 +1,19 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Where TableServiceClient loads a location's tables from, selected by table.service.mode:
+ * - remote (default): table-service over HTTP (RemoteInventorySource)
+ * - embedded: the table inventory in this JVM and database (EmbeddedInventorySource)
+ */
+public interface InventorySource {
+
+    // A location's tables with the inventory version they were read at (-1 if unknown)
+    record Inventory(List<TableDTO> tables, long version) {}
+
+    /**
+     * @throws RuntimeException if the inventory cannot be read
+     */
+    Inventory loadTables(String location);
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+/**
+ * Thrown when another instance holds the lease on a day for longer than we are willing to wait.
+ */
+public class LeaseUnavailableException extends RuntimeException {
+
+    public LeaseUnavailableException(String message) {
+        super(message);
+    }
+}
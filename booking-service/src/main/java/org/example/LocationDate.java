@@ -0,0 +1,6 @@
+package org.example;
+
+import java.time.LocalDate;
+
+// A day at one cafe - the unit bookings, caches and waitlists are partitioned by
+public record LocationDate(String location, LocalDate date) {}
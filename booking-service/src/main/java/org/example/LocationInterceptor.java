@@ -0,0 +1,117 @@
+package org.example;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Routes booking requests to a cafe location.
+ *
+ * The location comes from the path (/api/locations/{location}/bookings/...), the
+ * X-Cafe-Location header or the location query parameter, in that order, and defaults
+ * to the main cafe so /api/bookings keeps working for single-location deployments.
+ * Controllers read it from the request attribute LOCATION_ATTRIBUTE.
+ *
+ * Requests for a location served by another instance are redirected there (307), or
+ * rejected with 421 if no route is configured. Each location has its own in-flight
+ * request limit, and requests over that limit get 503 so other locations keep working.
+ */
+@Component
+public class LocationInterceptor implements HandlerInterceptor {
+
+    public static final String LOCATION_ATTRIBUTE = "cafe.location";
+    public static final String LOCATION_HEADER = "X-Cafe-Location";
+    private static final String PERMIT_ATTRIBUTE = "cafe.location.permit";
+    private static final int MISDIRECTED_REQUEST = 421; // not in HttpStatus
+
+    private final LocationRegistry locationRegistry;
+
+    public LocationInterceptor(LocationRegistry locationRegistry) {
+        this.locationRegistry = locationRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        String location = resolveLocation(request);
+
+        if (!LocationRegistry.isValidName(location)) {
+            ErrorResponses.write(response, HttpStatus.BAD_REQUEST, "Unknown location");
+            return false;
+        }
+
+        if (!locationRegistry.serves(location)) {
+            String route = locationRegistry.routeFor(location);
+            if (route != null) {
+                // 307 keeps the method and body, so POST and PUT are replayed on the owner
+                String query = request.getQueryString();
+                response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+                response.setHeader(HttpHeaders.LOCATION, route + request.getRequestURI() + (query != null ? "?" + query : ""));
+                return false;
+            }
+            ErrorResponses.write(response, MISDIRECTED_REQUEST,
+                    "Location " + location + " is not served by this instance");
+            return false;
+        }
+
+        if (!locationRegistry.tryEnter(location)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            ErrorResponses.write(response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "This location is very busy right now. Please try again in a moment.");
+            return false;
+        }
+
+        request.setAttribute(PERMIT_ATTRIBUTE, location);
+        request.setAttribute(LOCATION_ATTRIBUTE, location);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object location = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (location != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            locationRegistry.exit((String) location);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String resolveLocation(HttpServletRequest request) {
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null && pathVariables.get("location") != null) {
+            return pathVariables.get("location");
+        }
+        String header = request.getHeader(LOCATION_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        String parameter = request.getParameter("location");
+        if (parameter != null && !parameter.isBlank()) {
+            return parameter.trim();
+        }
+        return LocationRegistry.DEFAULT_LOCATION;
+    }
+
+    /**
+     * The request path with any /api/locations/{location} prefix turned into /api/bookings,
+     * so other interceptors can match endpoints the same way for every location.
+     */
+    static String bookingsPath(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/locations/")) {
+            int bookings = path.indexOf("/bookings", "/api/locations/".length());
+            if (bookings >= 0) {
+                return "/api" + path.substring(bookings);
+            }
+        }
+        return path;
+    }
+}
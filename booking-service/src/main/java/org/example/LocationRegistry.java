@@ -0,0 +1,115 @@
+package org.example;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Which cafe locations this booking-service instance serves.
+ *
+ * - cafe.locations.served: comma separated locations, or * for every location
+ * - cafe.locations.route.{location}: base URL of the instance that owns a location this one does not serve
+ * - cafe.locations.max-concurrent-requests: in-flight requests allowed per location
+ *
+ * Locations can be released and claimed at runtime (see AdminRestController), so a
+ * location can move between instances without a restart. Each location gets its own
+ * concurrency limit, so a busy location cannot take all request threads from the others.
+ */
+@Component
+public class LocationRegistry {
+
+    public static final String DEFAULT_LOCATION = Booking.DEFAULT_LOCATION;
+
+    private final boolean servesAll;
+    private final Set<String> served = ConcurrentHashMap.newKeySet();
+    private final Set<String> released = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> routes = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final int maxConcurrentRequests;
+
+    public LocationRegistry(Environment environment) {
+        String servedProperty = environment.getProperty("cafe.locations.served", "*").trim();
+        this.servesAll = servedProperty.equals("*");
+        if (!servesAll) {
+            Arrays.stream(servedProperty.split(","))
+                    .map(String::trim)
+                    .filter(location -> !location.isEmpty())
+                    .forEach(served::add);
+        }
+        routes.putAll(Binder.get(environment)
+                .bind("cafe.locations.route", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+        this.maxConcurrentRequests = environment.getProperty(
+                "cafe.locations.max-concurrent-requests", Integer.class, 50);
+    }
+
+    public static boolean isValidName(String location) {
+        return location != null && location.matches("^[a-z0-9-]{1,50}$");
+    }
+
+    public boolean serves(String location) {
+        return !released.contains(location) && (servesAll || served.contains(location));
+    }
+
+    // Base URL of the instance that serves the location, or null if unknown
+    public String routeFor(String location) {
+        return routes.get(location);
+    }
+
+    // Start serving a location on this instance
+    public void claim(String location) {
+        released.remove(location);
+        served.add(location);
+        routes.remove(location);
+    }
+
+    // Stop serving a location, optionally redirecting its requests to the new owner
+    public void release(String location, String route) {
+        served.remove(location);
+        released.add(location);
+        if (route != null && !route.isBlank()) {
+            routes.put(location, route);
+        } else {
+            routes.remove(location);
+        }
+    }
+
+    /**
+     * Takes one of the location's request slots without waiting.
+     *
+     * @return false if the location already has max-concurrent-requests in flight
+     */
+    public boolean tryEnter(String location) {
+        return bulkheads.computeIfAbsent(location, l -> new Semaphore(maxConcurrentRequests)).tryAcquire();
+    }
+
+    public void exit(String location) {
+        Semaphore bulkhead = bulkheads.get(location);
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("servesAll", servesAll);
+        statistics.put("served", new TreeSet<>(served));
+        statistics.put("released", new TreeSet<>(released));
+        statistics.put("routes", new TreeSet<>(routes.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).toList()));
+        Map<String, Integer> inFlight = new LinkedHashMap<>();
+        bulkheads.forEach((location, bulkhead) ->
+                inFlight.put(location, maxConcurrentRequests - bulkhead.availablePermits()));
+        statistics.put("inFlightRequests", inFlight);
+        statistics.put("maxConcurrentRequests", maxConcurrentRequests);
+        return statistics;
+    }
+}
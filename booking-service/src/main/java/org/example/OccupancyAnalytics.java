@@ -0,0 +1,191 @@
+package org.example;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Seat utilization heatmaps (table x 15-minute slot x weekday) over date ranges, read from
+ * the daily occupancy rollups, and the backfill job that rebuilds rollups from history.
+ *
+ * A range query loads the range's rollup rows (one per table and day) and merges them in
+ * parallel on the common fork-join pool. Utilization is seat-minutes divided by what the
+ * table could have seated in that slot on every such weekday in the range.
+ */
+@Service
+public class OccupancyAnalytics {
+
+    public record TableHeatmap(int table, long size, Map<DayOfWeek, long[]> seatMinutes,
+                               Map<DayOfWeek, double[]> utilization) {}
+
+    public record Heatmap(String location, LocalDate from, LocalDate to, List<LocalTime> slots,
+                          List<TableHeatmap> tables, long millis) {}
+
+    public record BackfillResult(String location, LocalDate from, LocalDate to, int days, long millis) {}
+
+    // Rollup rows merged sequentially by one fork-join task
+    private static final int MERGE_THRESHOLD = 256;
+
+    private final OccupancyRollupRepository rollupRepository;
+    private final OccupancyRollups rollups;
+    private final TableScheduleRepository scheduleRepository;
+    private final BookingArchive archive;
+    private final TableServiceClient tableServiceClient;
+    private final DateLeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public OccupancyAnalytics(OccupancyRollupRepository rollupRepository, OccupancyRollups rollups,
+                              TableScheduleRepository scheduleRepository, BookingArchive archive,
+                              TableServiceClient tableServiceClient, DateLeaseManager leaseManager,
+                              PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.rollups = rollups;
+        this.scheduleRepository = scheduleRepository;
+        this.archive = archive;
+        this.tableServiceClient = tableServiceClient;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Heatmap of a location between two dates (inclusive).
+     */
+    public Heatmap heatmap(String location, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        List<OccupancyRollup> rows = rollupRepository.findByLocationAndRollupDateBetween(location, from, to);
+        Map<Integer, long[][]> merged = ForkJoinPool.commonPool().invoke(new MergeTask(rows, 0, rows.size()));
+
+        // How often each weekday occurs in the range
+        int[] weekdays = new int[7];
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            weekdays[date.getDayOfWeek().ordinal()]++;
+        }
+
+        Map<Integer, Long> sizes = new HashMap<>();
+        for (TableDTO table : tableServiceClient.fetchTables(location)) {
+            sizes.put(table.id().intValue(), table.tableSize());
+        }
+
+        List<TableHeatmap> tables = new ArrayList<>();
+        for (Map.Entry<Integer, long[][]> entry : merged.entrySet()) {
+            long size = sizes.getOrDefault(entry.getKey(), 0L);
+            Map<DayOfWeek, long[]> seatMinutes = new EnumMap<>(DayOfWeek.class);
+            Map<DayOfWeek, double[]> utilization = new EnumMap<>(DayOfWeek.class);
+            for (DayOfWeek day : DayOfWeek.values()) {
+                long[] slots = entry.getValue()[day.ordinal()];
+                double capacity = (double) size * OccupancyRollups.SLOT_MINUTES * weekdays[day.ordinal()];
+                double[] used = new double[slots.length];
+                for (int slot = 0; slot < slots.length; slot++) {
+                    used[slot] = capacity == 0 ? 0 : slots[slot] / capacity;
+                }
+                seatMinutes.put(day, slots);
+                utilization.put(day, used);
+            }
+            tables.add(new TableHeatmap(entry.getKey(), size, seatMinutes, utilization));
+        }
+
+        List<LocalTime> slots = new ArrayList<>();
+        for (int slot = 0; slot < OccupancyRollups.SLOTS; slot++) {
+            slots.add(TableAssigner.OPENING_TIME.plusMinutes((long) slot * OccupancyRollups.SLOT_MINUTES));
+        }
+        return new Heatmap(location, from, to, slots, tables, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Sums rollup rows into table -> weekday -> slot, splitting large ranges in halves
+    private static final class MergeTask extends RecursiveTask<Map<Integer, long[][]>> {
+
+        private final List<OccupancyRollup> rows;
+        private final int from;
+        private final int to;
+
+        MergeTask(List<OccupancyRollup> rows, int from, int to) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Integer, long[][]> compute() {
+            if (to - from <= MERGE_THRESHOLD) {
+                Map<Integer, long[][]> result = new TreeMap<>();
+                for (OccupancyRollup row : rows.subList(from, to)) {
+                    long[] day = result.computeIfAbsent(row.getTableNumber(),
+                            table -> new long[7][OccupancyRollups.SLOTS])[row.getRollupDate().getDayOfWeek().ordinal()];
+                    long[] seatMinutes = row.getSeatMinutes();
+                    for (int slot = 0; slot < Math.min(day.length, seatMinutes.length); slot++) {
+                        day[slot] += seatMinutes[slot];
+                    }
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            MergeTask left = new MergeTask(rows, from, middle);
+            left.fork();
+            Map<Integer, long[][]> result = new MergeTask(rows, middle, to).compute();
+            left.join().forEach((table, days) -> result.merge(table, days, (a, b) -> {
+                for (int day = 0; day < a.length; day++) {
+                    for (int slot = 0; slot < a[day].length; slot++) {
+                        a[day][slot] += b[day][slot];
+                    }
+                }
+                return a;
+            }));
+            return result;
+        }
+    }
+
+    /**
+     * Rebuilds the rollups of a location between two dates (inclusive): archived days from
+     * the archive, other days from the schedule read model under the day's lease.
+     */
+    public BackfillResult backfill(String location, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        int days = 0;
+        for (YearMonth month = YearMonth.from(from); !month.atDay(1).isAfter(to); month = month.plusMonths(1)) {
+            LocalDate monthFrom = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+            LocalDate monthTo = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+
+            // Archived days no longer change
+            Map<LocalDate, Map<Integer, long[]>> archived = new TreeMap<>();
+            for (Booking booking : archive.findByDateRange(location, monthFrom, monthTo)) {
+                int table = booking.getTableNumber() == null ? 0 : booking.getTableNumber();
+                long[] slots = archived.computeIfAbsent(booking.getReservationDate(), d -> new TreeMap<>())
+                        .computeIfAbsent(table, t -> new long[OccupancyRollups.SLOTS]);
+                OccupancyRollups.add(slots, booking.getReservationTime(), booking.getNumberOfGuests());
+            }
+            for (Map.Entry<LocalDate, Map<Integer, long[]>> day : archived.entrySet()) {
+                transactionTemplate.executeWithoutResult(status -> rollups.writeDay(location, day.getKey(), day.getValue()));
+                days++;
+            }
+
+            // Days that are booked now, or had rollups that may be stale
+            TreeSet<LocalDate> hot = new TreeSet<>(scheduleRepository.findScheduledDays(location, monthFrom, monthTo));
+            hot.addAll(rollupRepository.findRolledUpDays(location, monthFrom, monthTo));
+            hot.removeAll(archived.keySet());
+            for (LocalDate date : hot) {
+                leaseManager.withLease(location, date, () -> transactionTemplate.execute(status -> {
+                    rollups.refreshDay(location, date);
+                    return null;
+                }));
+                days++;
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Occupancy rollups rebuilt for " + days + " day(s) at " + location + " in " + millis + " ms.");
+        return new BackfillResult(location, from, to, days, millis);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Daily occupancy rollup: seat-minutes per 15-minute slot (from opening) for one table
+ * on one day. Maintained by OccupancyRollups, read by OccupancyAnalytics. Rollups are kept
+ * when the day's bookings move to the archive.
+ */
+@Entity
+@jakarta.persistence.Table(name = "occupancy_rollups",
+        uniqueConstraints = @UniqueConstraint(
+                columnNames = {"location", "rollup_date", "table_number"},
+                name = "uk_occupancy_rollup_location_date_table"))
+public class OccupancyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String location;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private int tableNumber;
+
+    // Comma separated, one value per slot
+    @Column(nullable = false, length = 500)
+    private String seatMinutes;
+
+    // Default constructor (needed by JPA)
+    public OccupancyRollup() {
+    }
+
+    public OccupancyRollup(String location, LocalDate rollupDate, int tableNumber, long[] seatMinutes) {
+        this.location = location;
+        this.rollupDate = rollupDate;
+        this.tableNumber = tableNumber;
+        StringBuilder text = new StringBuilder();
+        for (long value : seatMinutes) {
+            if (!text.isEmpty()) {
+                text.append(',');
+            }
+            text.append(value);
+        }
+        this.seatMinutes = text.toString();
+    }
+
+    public String getLocation() { return location; }
+
+    public LocalDate getRollupDate() { return rollupDate; }
+
+    public int getTableNumber() { return tableNumber; }
+
+    public long[] getSeatMinutes() {
+        String[] parts = seatMinutes.split(",");
+        long[] values = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Long.parseLong(parts[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OccupancyRollupRepository extends JpaRepository<OccupancyRollup, Long> {
+
+    // Backed by the (location, rollup_date, table_number) unique index
+    List<OccupancyRollup> findByLocationAndRollupDateBetween(String location, LocalDate from, LocalDate to);
+
+    @Query("select distinct r.rollupDate from OccupancyRollup r " +
+            "where r.location = :location and r.rollupDate between :from and :to")
+    List<LocalDate> findRolledUpDays(@Param("location") String location,
+                                     @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from OccupancyRollup r where r.location = :location and r.rollupDate = :date")
+    int deleteDay(@Param("location") String location, @Param("date") LocalDate date);
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the daily occupancy rollups (OccupancyRollup) up to date. BookingWriter refreshes
+ * a day's rollups from the day's schedule read model in the transaction of every change
+ * to it, which only touches that day's few rows.
+ */
+@Component
+public class OccupancyRollups {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS = (TableAssigner.CLOSING_TIME.toSecondOfDay()
+            - TableAssigner.OPENING_TIME.toSecondOfDay()) / 60 / SLOT_MINUTES;
+
+    private final OccupancyRollupRepository rollupRepository;
+    private final TableScheduleRepository scheduleRepository;
+
+    public OccupancyRollups(OccupancyRollupRepository rollupRepository, TableScheduleRepository scheduleRepository) {
+        this.rollupRepository = rollupRepository;
+        this.scheduleRepository = scheduleRepository;
+    }
+
+    // Recomputes a day's rollups from its schedule (each guest occupies the table for 15 minutes)
+    @Transactional
+    public void refreshDay(String location, LocalDate date) {
+        Map<Integer, long[]> tables = new TreeMap<>();
+        for (TableSchedule schedule : scheduleRepository.findByLocationAndReservationDate(location, date)) {
+            long[] slots = tables.computeIfAbsent(schedule.getTableNumber(), table -> new long[SLOTS]);
+            for (TableSchedule.Interval interval : schedule.getOccupied()) {
+                long minutes = (interval.end().toSecondOfDay() - interval.start().toSecondOfDay()) / 60;
+                add(slots, interval.start(), (int) (minutes / TableAssigner.MINUTES_PER_GUEST));
+            }
+        }
+        writeDay(location, date, tables);
+    }
+
+    // Replaces a day's rollups
+    @Transactional
+    public void writeDay(String location, LocalDate date, Map<Integer, long[]> tables) {
+        rollupRepository.deleteDay(location, date);
+        tables.forEach((table, slots) -> rollupRepository.save(new OccupancyRollup(location, date, table, slots)));
+    }
+
+    /**
+     * Adds a booking's seat-minutes to the slots it overlaps.
+     *
+     * @param slots Seat-minutes per slot from opening
+     * @param start The booking's start time
+     * @param guests The party size, which also determines how long the booking lasts
+     */
+    public static void add(long[] slots, LocalTime start, int guests) {
+        int startMinute = (start.toSecondOfDay() - TableAssigner.OPENING_TIME.toSecondOfDay()) / 60;
+        int endMinute = startMinute + guests * (int) TableAssigner.MINUTES_PER_GUEST;
+        for (int slot = Math.max(0, startMinute / SLOT_MINUTES); slot < slots.length && slot * SLOT_MINUTES < endMinute; slot++) {
+            int overlap = Math.min(endMinute, (slot + 1) * SLOT_MINUTES) - Math.max(startMinute, slot * SLOT_MINUTES);
+            if (overlap > 0) {
+                slots[slot] += (long) guests * overlap;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Per-client rate limiting for the booking endpoints that hit the database hardest.
+ * Runs before the controller, so rejected requests never reach the repository.
+ *
+ * Limits are configured per endpoint in application.properties:
+ * - rate-limit.{endpoint}.capacity: burst size (requests)
+ * - rate-limit.{endpoint}.refill-per-second: sustained requests per second
+ *
+ * Clients are identified by the X-API-Key header if it is one of rate-limit.api-keys, otherwise
+ * by their IP address. Unknown keys are ignored, so a client cannot get a fresh bucket by
+ * sending a new key with every request.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String AVAILABLE_TIMES = "available-times";
+    public static final String CAPACITY = "capacity";
+    public static final String CREATE_BOOKING = "create-booking";
+
+    private final boolean enabled;
+    private final Map<String, TokenBucketRateLimiter> limiters = new LinkedHashMap<>();
+    private final Set<String> apiKeys;
+
+    public RateLimitInterceptor(Environment environment) {
+        this.enabled = environment.getProperty("rate-limit.enabled", Boolean.class, true);
+        this.apiKeys = Arrays.stream(environment.getProperty("rate-limit.api-keys", String[].class, new String[0]))
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toSet());
+        limiters.put(AVAILABLE_TIMES, createLimiter(environment, AVAILABLE_TIMES, 30, 10));
+        limiters.put(CAPACITY, createLimiter(environment, CAPACITY, 30, 10));
+        limiters.put(CREATE_BOOKING, createLimiter(environment, CREATE_BOOKING, 20, 5));
+    }
+
+    private static TokenBucketRateLimiter createLimiter(Environment environment, String endpoint,
+                                                        long defaultCapacity, double defaultRefill) {
+        long capacity = environment.getProperty("rate-limit." + endpoint + ".capacity", Long.class, defaultCapacity);
+        double refill = environment.getProperty("rate-limit." + endpoint + ".refill-per-second", Double.class, defaultRefill);
+        return new TokenBucketRateLimiter(capacity, refill);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!enabled) {
+            return true;
+        }
+
+        String endpoint = endpointFor(request);
+        if (endpoint == null) {
+            return true;
+        }
+
+        long waitNanos = limiters.get(endpoint).tryAcquire(clientKey(request));
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        // Over the limit - 429 with the number of seconds until the next token
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        ErrorResponses.write(response, HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests. Please try again in " + retryAfterSeconds + " second(s).");
+        return false;
+    }
+
+    // Maps the request to one of the rate limited endpoints, or null if it is not limited
+    private static String endpointFor(HttpServletRequest request) {
+        String path = LocationInterceptor.bookingsPath(request);
+        String method = request.getMethod();
+
+        if ("GET".equals(method) && path.startsWith("/api/bookings/available-times/")) {
+            return AVAILABLE_TIMES;
+        }
+        if ("GET".equals(method) && path.startsWith("/api/bookings/capacity/")) {
+            return CAPACITY;
+        }
+        if ("POST".equals(method) && (path.equals("/api/bookings") || path.equals("/api/bookings/"))) {
+            return CREATE_BOOKING;
+        }
+        return null;
+    }
+
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader("X-API-Key");
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Allowed and rejected request counts per endpoint, for the admin area.
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        limiters.forEach((endpoint, limiter) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enabled", enabled);
+            stats.put("capacity", limiter.getCapacity());
+            stats.put("refillPerSecond", limiter.getTokensPerSecond());
+            stats.put("allowed", limiter.getAllowedCount());
+            stats.put("rejected", limiter.getRejectedCount());
+            stats.put("trackedClients", limiter.getTrackedClients());
+            statistics.put(endpoint, stats);
+        });
+        return statistics;
+    }
+}
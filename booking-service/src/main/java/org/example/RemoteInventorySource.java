@@ -0,0 +1,48 @@
+package org.example;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the inventory from table-service at table.service.url.
+ */
+public class RemoteInventorySource implements InventorySource {
+
+    private final RestTemplate restTemplate;
+    private final String tableServiceUrl;
+
+    public RemoteInventorySource(RestTemplate restTemplate, String tableServiceUrl) {
+        this.restTemplate = restTemplate;
+        this.tableServiceUrl = tableServiceUrl;
+    }
+
+    @Override
+    public Inventory loadTables(String location) {
+        ResponseEntity<List<TableDTO>> response = restTemplate.exchange(
+                tableServiceUrl + "/api/tables?location={location}",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<TableDTO>>() {},
+                location
+        );
+        List<TableDTO> tables = response.getBody() != null ? response.getBody() : new ArrayList<>();
+        return new Inventory(tables, parseVersion(response.getHeaders().getETag()));
+    }
+
+    // table-service sends the inventory version as ETag "n"
+    static long parseVersion(String etag) {
+        if (etag == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(etag.replace("W/", "").replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the per-day schedule read model (TableSchedule) from booking changes.
+ *
+ * BookingWriter calls it in the transaction of every booking write, and writes to a day
+ * happen under that day's lease, so the read model never disagrees with committed bookings.
+ * Bulk changes (re-packing, CSV import) rebuild the affected day from its bookings.
+ */
+@Component
+public class ScheduleProjection {
+
+    private final TableScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+
+    public ScheduleProjection(TableScheduleRepository scheduleRepository, BookingRepository bookingRepository) {
+        this.scheduleRepository = scheduleRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    // The tables occupied on a day and when; tables without bookings have no row
+    public List<TableSchedule> getDay(String location, LocalDate date) {
+        return scheduleRepository.findByLocationAndReservationDate(location, date);
+    }
+
+    /**
+     * Applies a created or updated booking.
+     *
+     * @param previousDate The date the booking was on before an update, or null for a new booking
+     */
+    @Transactional
+    public void bookingSaved(Booking booking, LocalDate previousDate) {
+        int tableNumber = tableNumberOf(booking);
+        TableSchedule target = null;
+        for (TableSchedule schedule : scheduleRepository.findByLocationAndReservationDate(
+                booking.getLocation(), booking.getReservationDate())) {
+            if (schedule.getTableNumber() == tableNumber) {
+                target = schedule;
+            } else {
+                releaseFrom(schedule, booking.getId());
+            }
+        }
+        if (previousDate != null && !previousDate.equals(booking.getReservationDate())) {
+            bookingRemoved(booking.getLocation(), previousDate, booking.getId());
+        }
+
+        if (target == null) {
+            target = new TableSchedule(booking.getLocation(), booking.getReservationDate(), tableNumber);
+        }
+        target.occupy(booking);
+        scheduleRepository.save(target);
+    }
+
+    @Transactional
+    public void bookingRemoved(String location, LocalDate date, Long bookingId) {
+        for (TableSchedule schedule : scheduleRepository.findByLocationAndReservationDate(location, date)) {
+            releaseFrom(schedule, bookingId);
+        }
+    }
+
+    private void releaseFrom(TableSchedule schedule, Long bookingId) {
+        if (schedule.release(bookingId)) {
+            if (schedule.isEmpty()) {
+                scheduleRepository.delete(schedule);
+            } else {
+                scheduleRepository.save(schedule);
+            }
+        }
+    }
+
+    // Rebuilds a day from its bookings, after changes that did not go through bookingSaved
+    @Transactional
+    public void rebuildDay(String location, LocalDate date) {
+        scheduleRepository.deleteDay(location, date);
+        Map<Integer, TableSchedule> tables = new TreeMap<>();
+        for (Booking booking : bookingRepository.findByLocationAndReservationDate(location, date)) {
+            tables.computeIfAbsent(tableNumberOf(booking), table -> new TableSchedule(location, date, table))
+                    .occupy(booking);
+        }
+        scheduleRepository.saveAll(tables.values());
+    }
+
+    // Days whose bookings are gone, e.g. moved to the archive
+    @Transactional
+    public void dropDays(String location, Collection<LocalDate> dates) {
+        for (LocalDate date : dates) {
+            scheduleRepository.deleteDay(location, date);
+        }
+    }
+
+    /**
+     * Rebuilds the whole read model from the bookings table.
+     *
+     * @return The number of days rebuilt
+     */
+    @Transactional
+    public int rebuildAll() {
+        scheduleRepository.deleteAllInBatch();
+        List<LocationDate> days = bookingRepository.findBookedDaysFrom(LocalDate.of(1970, 1, 1));
+        for (LocationDate day : days) {
+            rebuildDay(day.location(), day.date());
+        }
+        return days.size();
+    }
+
+    // Fills the read model on the first start against a database that already has bookings
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (scheduleRepository.count() == 0 && bookingRepository.count() > 0) {
+            System.out.println("Schedule read model rebuilt for " + rebuildAll() + " day(s).");
+        }
+    }
+
+    private static int tableNumberOf(Booking booking) {
+        return booking.getTableNumber() == null ? 0 : booking.getTableNumber();
+    }
+}
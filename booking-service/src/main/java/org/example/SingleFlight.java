@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical work: the first caller for a key runs it, and callers that
+ * arrive while it runs wait for it and get the same result or exception. Nothing is kept once
+ * the work completes, so this is not a cache, and a failure is not remembered for later callers.
+ *
+ * Cancellation: a waiting caller that is interrupted stops waiting (with its interrupt flag set)
+ * without affecting the others. If the running caller is interrupted and its work fails, the
+ * waiters do not inherit the failure; one of them runs the work again.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    V execute(K key, Supplier<V> work) {
+        while (true) {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> running = calls.putIfAbsent(key, call);
+            if (running == null) {
+                return run(key, call, work);
+            }
+            try {
+                V value = running.get();
+                shared.increment();
+                return value;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for " + key);
+            } catch (CancellationException e) {
+                // The running caller was interrupted, the work itself did not fail - run it again
+            } catch (ExecutionException e) {
+                shared.increment();
+                throw rethrow(e.getCause());
+            }
+        }
+    }
+
+    private V run(K key, CompletableFuture<V> call, Supplier<V> work) {
+        executions.increment();
+        V value;
+        try {
+            value = work.get();
+        } catch (RuntimeException | Error e) {
+            // Removed first, so callers arriving from now on start a new call instead of joining a failed one
+            calls.remove(key, call);
+            if (Thread.currentThread().isInterrupted()) {
+                call.cancel(false);
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        }
+        calls.remove(key, call);
+        call.complete(value);
+        return value;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    // Calls that ran the work
+    long getExecutions() {
+        return executions.sum();
+    }
+
+    // Calls that got the result of another caller's work
+    long getShared() {
+        return shared.sum();
+    }
+
+    // Keys with work running right now
+    int getInFlight() {
+        return calls.size();
+    }
+}
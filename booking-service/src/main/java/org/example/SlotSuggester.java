@@ -0,0 +1,219 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the free start times nearest to a requested one, so a party that got a 409
+ * can pick an alternative instead of probing other times one request at a time.
+ *
+ * A day is evaluated in one pass over its schedule (the read model): for each table large
+ * enough for the party, every gap between its occupied intervals marks the 15-minute slots
+ * where the party would fit. The search then walks outward from the requested time.
+ * Adjacent days are only read if the requested day has fewer than the wanted number of slots.
+ *
+ * The same walk over the gaps also gives, per slot, the largest party that can still be
+ * seated (capacity), so the booking form can filter times by party size on its own.
+ */
+@Component
+public class SlotSuggester {
+
+    public record Alternative(LocalDate date, LocalTime time) {}
+
+    public record SlotCapacity(LocalTime time, int maxGuests) {}
+
+    private static final int SLOT_MINUTES = 15;
+    private static final int OPENING_MINUTE = TableAssigner.OPENING_TIME.toSecondOfDay() / 60;
+    private static final int CLOSING_MINUTE = TableAssigner.CLOSING_TIME.toSecondOfDay() / 60;
+    // Start slots 9:00 - 16:45
+    private static final int SLOTS = (CLOSING_MINUTE - OPENING_MINUTE) / SLOT_MINUTES;
+    // Larger parties cannot book (Booking.numberOfGuests)
+    private static final int MAX_GUESTS = 9;
+
+    private final ScheduleProjection scheduleProjection;
+    private final TableServiceClient tableServiceClient;
+
+    @Value("${suggestions.limit:5}")
+    private int defaultLimit = 5;
+
+    @Value("${suggestions.adjacent-days:1}")
+    private int defaultAdjacentDays = 1;
+
+    public SlotSuggester(ScheduleProjection scheduleProjection, TableServiceClient tableServiceClient) {
+        this.scheduleProjection = scheduleProjection;
+        this.tableServiceClient = tableServiceClient;
+    }
+
+    // Alternatives for a booking that got no table, with the configured limit and adjacent days
+    public List<Alternative> suggest(Booking booking) {
+        return suggest(booking.getLocation(), booking.getReservationDate(), booking.getReservationTime(),
+                booking.getNumberOfGuests(), defaultLimit, defaultAdjacentDays);
+    }
+
+    /**
+     * The free start times nearest to the requested one, on the requested day first and then on
+     * the days before and after it (up to adjacentDays away, never in the past).
+     *
+     * @param requested The time that was asked for; only suggested on other days
+     * @param limit The maximum number of alternatives
+     * @return Alternatives, nearest first
+     */
+    public List<Alternative> suggest(String location, LocalDate date, LocalTime requested, int guests,
+                                     int limit, int adjacentDays) {
+        List<Alternative> alternatives = new ArrayList<>();
+        if (limit <= 0) {
+            return alternatives;
+        }
+        List<TableDTO> tables = tableServiceClient.fetchTables(location);
+        LocalDate today = LocalDate.now();
+
+        for (int offset = 0; offset <= adjacentDays && alternatives.size() < limit; offset++) {
+            for (LocalDate day : offset == 0 ? List.of(date) : List.of(date.minusDays(offset), date.plusDays(offset))) {
+                if (day.isBefore(today) || alternatives.size() >= limit) {
+                    continue;
+                }
+                LocalTime notBefore = day.isEqual(today) ? LocalTime.now() : null;
+                boolean[] free = freeStarts(scheduleProjection.getDay(location, day), tables, guests);
+                // The requested time itself is the best alternative on another day
+                for (LocalTime time : nearest(free, requested, offset > 0, limit - alternatives.size(), notBefore)) {
+                    alternatives.add(new Alternative(day, time));
+                }
+            }
+        }
+        return alternatives;
+    }
+
+    /**
+     * The largest party that can still be seated at each start slot of a day, 0 if none.
+     * A party of that size or smaller gets a table at that time (findTable would find one).
+     *
+     * @param tables The table inventory
+     * @return Every slot of the day, without slots that have passed if the date is today
+     */
+    public List<SlotCapacity> capacity(String location, LocalDate date, List<TableDTO> tables) {
+        int[] maxGuests = maxGuests(scheduleProjection.getDay(location, date), tables);
+        LocalTime notBefore = date.isEqual(LocalDate.now()) ? LocalTime.now() : null;
+        List<SlotCapacity> capacity = new ArrayList<>();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            LocalTime time = LocalTime.of(slotMinute(slot) / 60, slotMinute(slot) % 60);
+            if (notBefore == null || !time.isBefore(notBefore)) {
+                capacity.add(new SlotCapacity(time, maxGuests[slot]));
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * One pass over a day's schedule: per start slot, the largest party some table can take.
+     * A party needs a table at least its size that stays free for its duration, so in each
+     * gap a slot seats as many guests as fit before the gap ends, up to the table size.
+     *
+     * @return Per 15-minute start slot from opening, the largest party that fits, 0 if none
+     */
+    static int[] maxGuests(List<TableSchedule> day, List<TableDTO> tables) {
+        int[] maxGuests = new int[SLOTS];
+        Map<Integer, TableSchedule> byTable = day.stream()
+                .collect(Collectors.toMap(TableSchedule::getTableNumber, t -> t, (a, b) -> a));
+
+        for (TableDTO table : tables) {
+            int size = (int) Math.min(table.tableSize(), MAX_GUESTS);
+            TableSchedule schedule = byTable.get(table.id().intValue());
+            int freeFrom = OPENING_MINUTE;
+            for (TableSchedule.Interval interval : schedule == null ? List.<TableSchedule.Interval>of() : schedule.getOccupied()) {
+                fillGap(maxGuests, freeFrom, minuteOf(interval.start()), size);
+                freeFrom = Math.max(freeFrom, minuteOf(interval.end()));
+            }
+            fillGap(maxGuests, freeFrom, CLOSING_MINUTE, size);
+        }
+        return maxGuests;
+    }
+
+    // Raises each slot in the gap between from and to (minutes of the day) to the party that fits there
+    private static void fillGap(int[] maxGuests, int from, int to, int size) {
+        int end = Math.min(to, CLOSING_MINUTE);
+        for (int slot = Math.max(0, (from - OPENING_MINUTE + SLOT_MINUTES - 1) / SLOT_MINUTES);
+             slot < SLOTS && slotMinute(slot) < end; slot++) {
+            int guests = Math.min(size, (end - slotMinute(slot)) / (int) TableAssigner.MINUTES_PER_GUEST);
+            maxGuests[slot] = Math.max(maxGuests[slot], guests);
+        }
+    }
+
+    /**
+     * One pass over a day's schedule: which start slots have a table for the party.
+     *
+     * @param day The day's schedule, one entry per table with bookings
+     * @param tables The table inventory (tables without bookings are free all day)
+     * @return Per 15-minute start slot from opening, whether some table fits the party
+     */
+    static boolean[] freeStarts(List<TableSchedule> day, List<TableDTO> tables, int guests) {
+        boolean[] free = new boolean[SLOTS];
+        int duration = guests * (int) TableAssigner.MINUTES_PER_GUEST;
+        Map<Integer, TableSchedule> byTable = day.stream()
+                .collect(Collectors.toMap(TableSchedule::getTableNumber, t -> t, (a, b) -> a));
+
+        for (TableDTO table : tables) {
+            if (table.tableSize() < guests) {
+                continue;
+            }
+            TableSchedule schedule = byTable.get(table.id().intValue());
+            int freeFrom = OPENING_MINUTE;
+            for (TableSchedule.Interval interval : schedule == null ? List.<TableSchedule.Interval>of() : schedule.getOccupied()) {
+                markGap(free, freeFrom, minuteOf(interval.start()), duration);
+                freeFrom = Math.max(freeFrom, minuteOf(interval.end()));
+            }
+            markGap(free, freeFrom, CLOSING_MINUTE, duration);
+        }
+        return free;
+    }
+
+    // Marks the slots where a party of the given duration fits between from and to (minutes of the day)
+    private static void markGap(boolean[] free, int from, int to, int duration) {
+        int first = Math.max(0, (from - OPENING_MINUTE + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        int last = Math.min(SLOTS - 1, Math.floorDiv(Math.min(to, CLOSING_MINUTE) - duration - OPENING_MINUTE, SLOT_MINUTES));
+        for (int slot = first; slot <= last; slot++) {
+            free[slot] = true;
+        }
+    }
+
+    /**
+     * Walks outward from the requested time over the free slots, nearest first (earlier on ties).
+     *
+     * @param includeRequested Whether the requested time's own slot may be suggested
+     * @param notBefore Slots before this time are skipped (today), or null
+     */
+    static List<LocalTime> nearest(boolean[] free, LocalTime requested, boolean includeRequested, int limit,
+                                   LocalTime notBefore) {
+        int requestedMinute = minuteOf(requested);
+        // Last slot before (or at) the requested time, and first slot after it
+        int below = Math.min(SLOTS - 1,
+                Math.floorDiv(requestedMinute - OPENING_MINUTE - (includeRequested ? 0 : 1), SLOT_MINUTES));
+        int above = Math.max(0, Math.floorDiv(requestedMinute - OPENING_MINUTE, SLOT_MINUTES) + 1);
+
+        List<LocalTime> nearest = new ArrayList<>();
+        while (nearest.size() < limit && (below >= 0 || above < SLOTS)) {
+            boolean takeBelow = above >= SLOTS
+                    || (below >= 0 && requestedMinute - slotMinute(below) <= slotMinute(above) - requestedMinute);
+            int slot = takeBelow ? below-- : above++;
+            LocalTime time = LocalTime.of(slotMinute(slot) / 60, slotMinute(slot) % 60);
+            if (free[slot] && (notBefore == null || !time.isBefore(notBefore))) {
+                nearest.add(time);
+            }
+        }
+        return nearest;
+    }
+
+    private static int slotMinute(int slot) {
+        return OPENING_MINUTE + slot * SLOT_MINUTES;
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,238 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the service up before it reports ready, so the first real requests after a deploy
+ * don't pay for JIT compilation, Hibernate query plans, Jackson serializers and new
+ * connections. Runs after the other startup runners (see AppConfig); Spring Boot only
+ * switches readiness to ACCEPTING_TRAFFIC (/actuator/health/readiness) once all runners
+ * have returned.
+ *
+ * Once: open the pooled database connections and load the available times of today and
+ * the next warmup.days days through the API, which also fills AvailabilityCache. Then
+ * rounds of a synthetic mix until warmup.rounds or warmup.max-duration-ms is reached:
+ * - schedule and alternatives requests for a scratch date through the API
+ * - the booking queries for the scratch date
+ * - table assignment and re-packing of a generated day
+ * - JSON serialization of its bookings
+ * Nothing is written. A step that fails is counted and skipped, and the whole phase is
+ * cut off at the time limit, so a slow table-service cannot delay startup further.
+ */
+@Component
+public class StartupWarmUp implements ApplicationRunner {
+
+    public record Report(long durationMs, int rounds, int failures, boolean timedOut) {}
+
+    // No bookings are ever made this far ahead
+    static final LocalDate SCRATCH_DATE = LocalDate.of(9999, 12, 31);
+
+    private final BookingRepository bookingRepository;
+    private final TableServiceClient tableServiceClient;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+    private final Environment environment;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${warmup.max-duration-ms:10000}")
+    private long maxDurationMs = 10000;
+
+    @Value("${warmup.rounds:200}")
+    private int maxRounds = 200;
+
+    @Value("${warmup.days:3}")
+    private int days = 3;
+
+    @Value("${warmup.locations:main}")
+    private String[] locations = {LocationRegistry.DEFAULT_LOCATION};
+
+    private volatile Report lastReport;
+
+    public StartupWarmUp(BookingRepository bookingRepository, TableServiceClient tableServiceClient,
+                         RestTemplate restTemplate, ObjectMapper objectMapper, DataSource dataSource,
+                         Environment environment) {
+        this.bookingRepository = bookingRepository;
+        this.tableServiceClient = tableServiceClient;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Report report = warmUp();
+        lastReport = report;
+        System.out.println("Warm-up finished in " + report.durationMs() + " ms: " + report.rounds() + " rounds, "
+                + report.failures() + " failed steps" + (report.timedOut() ? ", cut off at the time limit" : ""));
+    }
+
+    // The last warm-up, or null if it is disabled
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    Report warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        AtomicInteger rounds = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        String port = environment.getProperty("local.server.port");
+        String baseUrl = port != null ? "http://localhost:" + port : null;
+
+        // On its own thread, so it can be abandoned at the deadline whatever it is waiting for
+        ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean timedOut = false;
+        try {
+            Future<?> task = worker.submit(() -> {
+                step(failures, this::openConnections);
+                for (String location : locations) {
+                    step(failures, () -> preloadAvailability(baseUrl, location.trim()));
+                }
+                while (rounds.get() < maxRounds && System.nanoTime() - deadline < 0
+                        && !Thread.currentThread().isInterrupted()) {
+                    for (String location : locations) {
+                        round(baseUrl, location.trim(), rounds.get(), failures);
+                    }
+                    rounds.incrementAndGet();
+                }
+            });
+            task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+        } catch (ExecutionException e) {
+            failures.incrementAndGet();
+            System.err.println("Warm-up failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            worker.shutdownNow();
+        }
+        return new Report(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rounds.get(), failures.get(), timedOut);
+    }
+
+    private static void step(AtomicInteger failures, Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    // Borrows as many connections as the pool keeps idle at once, so they are all open before traffic
+    private void openConnections() {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            int count = dataSource.isWrapperFor(HikariDataSource.class)
+                    ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle()) : 1;
+            for (int i = 0; i < count; i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Returned to the pool or discarded either way
+                }
+            }
+        }
+    }
+
+    private void preloadAvailability(String baseUrl, String location) {
+        if (baseUrl == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day <= days; day++) {
+            restTemplate.getForObject(baseUrl + "/api/locations/{location}/bookings/available-times/{date}",
+                    String.class, location, today.plusDays(day));
+        }
+    }
+
+    private void round(String baseUrl, String location, int round, AtomicInteger failures) {
+        if (baseUrl != null) {
+            step(failures, () -> restTemplate.getForObject(baseUrl + "/api/locations/{location}/bookings/schedule/{date}",
+                    String.class, location, SCRATCH_DATE));
+            step(failures, () -> restTemplate.getForObject(baseUrl
+                            + "/api/locations/{location}/bookings/alternatives/{date}?time=12:00&guests={guests}&days=0",
+                    String.class, location, SCRATCH_DATE, round % 9 + 1));
+        }
+        step(failures, () -> bookingRepository.findByLocationAndReservationDate(location, SCRATCH_DATE));
+        step(failures, () -> bookingRepository.findByLocationAndEmailKey(location, "warm-up@example.invalid"));
+
+        step(failures, () -> assignAndSerialize(location, round));
+    }
+
+    private void assignAndSerialize(String location, int round) {
+        List<TableDTO> tables = tableServiceClient.fetchTables(location);
+        if (tables.isEmpty()) {
+            return;
+        }
+        List<Booking> day = syntheticDay(tables, new Random(round));
+        TableRepacker.plan(day, tables, null, null);
+        try {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(day), Booking[].class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A day of random parties, seated one by one like booking creation does
+    static List<Booking> syntheticDay(List<TableDTO> tables, Random random) {
+        List<Booking> day = new ArrayList<>();
+        List<LocalTime> slots = TableAssigner.timeSlots();
+        for (int i = 0; i < 40; i++) {
+            int guests = 1 + random.nextInt(9);
+            LocalTime time = slots.get(random.nextInt(slots.size()));
+            if (!TableAssigner.endsBeforeClosing(time, guests)) {
+                continue;
+            }
+            Integer table = TableAssigner.findTable(tables, day, guests, time);
+            if (table != null) {
+                Booking booking = new Booking("Warm Up", "warm-up@example.invalid", "555-0000", SCRATCH_DATE, time, guests);
+                booking.setId((long) -(i + 1));
+                booking.setTableNumber(table);
+                day.add(booking);
+            }
+        }
+        return day;
+    }
+}
@@ -0,0 +1,290 @@
+package org.example;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Moves future bookings off tables that were removed from the inventory or shrunk below
+ * the party size (see the table-service write API).
+ *
+ * Every reassign.check-interval-ms the job compares each location's current layout with the
+ * last one it processed. When it changed (and once after startup), a single query on the
+ * (location, reservation_date) index finds the bookings the new layout cannot seat. Their days
+ * are processed in parallel, each under its lease and in one transaction: a displaced booking
+ * gets the smallest free table that fits, other bookings stay where they are. If that leaves
+ * someone without a table, the day is re-packed as a whole (TableRepacker.plan). Bookings that
+ * still cannot be placed keep their old table and are reported, so staff can contact the guests.
+ */
+@Service
+public class TableReassignmentJob {
+
+    public record Unplaced(Long bookingId, LocalDate date, LocalTime time, int numberOfGuests,
+                           Integer tableNumber, String reason) {}
+
+    public record ReassignmentResult(String location, int affected, int moved, List<Unplaced> unplaced,
+                                     int skippedDays) {}
+
+    // New tables for (some of) a day's bookings, and the displaced bookings that got none
+    record DayPlan(Map<Booking, Integer> moves, List<Booking> unplaced) {}
+
+    private record DayResult(int moved, List<Unplaced> unplaced, boolean skipped) {}
+
+    private final BookingRepository bookingRepository;
+    private final TableServiceClient tableServiceClient;
+    private final BookingWriter bookingWriter;
+    private final DateLeaseManager leaseManager;
+    private final LocationRegistry locationRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    // Layout last processed without skipped days, per location
+    private final Map<String, String> processedLayouts = new ConcurrentHashMap<>();
+    private final Map<String, ReassignmentResult> lastResults = new ConcurrentHashMap<>();
+
+    @Value("${reassign.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${reassign.parallelism:4}")
+    private int parallelism = 4;
+
+    public TableReassignmentJob(BookingRepository bookingRepository, TableServiceClient tableServiceClient,
+                                BookingWriter bookingWriter, DateLeaseManager leaseManager,
+                                LocationRegistry locationRegistry, PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.tableServiceClient = tableServiceClient;
+        this.bookingWriter = bookingWriter;
+        this.leaseManager = leaseManager;
+        this.locationRegistry = locationRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${reassign.check-interval-ms:60000}")
+    public void checkInventories() {
+        if (!enabled) {
+            return;
+        }
+        Set<String> locations = bookingRepository.findBookedDaysFrom(LocalDate.now()).stream()
+                .map(LocationDate::location)
+                .filter(locationRegistry::serves)
+                .collect(Collectors.toSet());
+        for (String location : locations) {
+            List<TableDTO> tables = tableServiceClient.fetchTables(location);
+            // An empty inventory means table-service is unreachable or misconfigured, not that every table is gone
+            if (tables.isEmpty() || layout(tables).equals(processedLayouts.get(location))) {
+                continue;
+            }
+            ReassignmentResult result = reassign(location, tables);
+            if (result.affected() > 0) {
+                System.out.println("Table reassignment at " + location + ": " + result.moved() + " of "
+                        + result.affected() + " booking(s) moved, " + result.unplaced().size() + " could not be placed.");
+            }
+        }
+    }
+
+    /**
+     * Reassigns the future bookings at a location that the given inventory cannot seat.
+     *
+     * @param location The location
+     * @param tables The location's current table inventory (not empty)
+     * @return How many bookings were affected and moved, and the ones that could not be placed
+     */
+    public ReassignmentResult reassign(String location, List<TableDTO> tables) {
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, List<Booking>> byDay = bookingRepository.findAll(displaced(location, today, tables)).stream()
+                .collect(Collectors.groupingBy(Booking::getReservationDate, TreeMap::new, Collectors.toList()));
+
+        List<DayResult> days;
+        if (parallelism <= 1 || byDay.size() <= 1) {
+            days = byDay.keySet().stream().map(date -> reassignDay(location, date, tables)).toList();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                days = pool.submit(() -> byDay.keySet().parallelStream()
+                        .map(date -> reassignDay(location, date, tables)).toList()).join();
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        int affected = byDay.values().stream().mapToInt(List::size).sum();
+        int skipped = (int) days.stream().filter(DayResult::skipped).count();
+        ReassignmentResult result = new ReassignmentResult(location, affected,
+                days.stream().mapToInt(DayResult::moved).sum(),
+                days.stream().flatMap(day -> day.unplaced().stream()).toList(),
+                skipped);
+        if (skipped == 0) {
+            processedLayouts.put(location, layout(tables));
+        }
+        lastResults.put(location, result);
+        return result;
+    }
+
+    private DayResult reassignDay(String location, LocalDate date, List<TableDTO> tables) {
+        try {
+            return leaseManager.withLease(location, date, () -> transactionTemplate.execute(status -> {
+                List<Booking> bookings = bookingRepository.findByLocationAndReservationDate(location, date);
+                // Bookings that have already started today stay where they are
+                LocalTime pinnedBefore = date.isEqual(LocalDate.now()) ? LocalTime.now() : null;
+                DayPlan plan = plan(bookings, tables, pinnedBefore);
+
+                List<Booking> moved = new ArrayList<>(plan.moves().keySet());
+                // Two steps so that bookings moving onto each other's tables never collide on the unique key
+                moved.forEach(b -> b.setTableNumber(null));
+                bookingRepository.flush();
+                moved.forEach(b -> b.setTableNumber(plan.moves().get(b)));
+                bookingRepository.flush();
+                if (!moved.isEmpty()) {
+                    bookingWriter.recordMoves(location, date);
+                }
+
+                Map<Integer, Long> sizes = sizes(tables);
+                List<Unplaced> unplaced = plan.unplaced().stream()
+                        .map(b -> new Unplaced(b.getId(), date, b.getReservationTime(), b.getNumberOfGuests(),
+                                b.getTableNumber(), sizes.containsKey(b.getTableNumber())
+                                        ? "Table " + b.getTableNumber() + " now seats " + sizes.get(b.getTableNumber())
+                                        : "Table " + b.getTableNumber() + " was removed"))
+                        .toList();
+                return new DayResult(moved.size(), unplaced, false);
+            }));
+        } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException
+                 | LeaseUnavailableException e) {
+            // A booking on this day changed meanwhile - the day is tried again on the next check
+            System.err.println("Table reassignment for " + location + " " + date + " skipped: " + e.getMessage());
+            return new DayResult(0, List.of(), true);
+        }
+    }
+
+    /**
+     * Plans new tables for a day's displaced bookings. Larger parties are placed first, each on
+     * the smallest free table that fits, without moving anyone else. If that does not seat every
+     * displaced booking, a full re-pack of the day is used instead when it seats everybody.
+     *
+     * @param bookings The day's bookings
+     * @param tables The table inventory
+     * @param pinnedBefore Bookings starting before this time are not moved, or null
+     * @return The moves, and the displaced bookings left without a table
+     */
+    static DayPlan plan(List<Booking> bookings, List<TableDTO> tables, LocalTime pinnedBefore) {
+        Map<Integer, Long> sizes = sizes(tables);
+        List<TableDTO> sortedTables = new ArrayList<>(tables);
+        sortedTables.sort(Comparator.comparingLong(TableDTO::tableSize).thenComparingLong(TableDTO::id));
+
+        Map<Integer, List<Booking>> placed = new HashMap<>();
+        List<Booking> displaced = new ArrayList<>();
+        for (Booking booking : bookings) {
+            boolean pinned = pinnedBefore != null && booking.getReservationTime().isBefore(pinnedBefore);
+            if (!pinned && isDisplaced(booking, sizes)) {
+                displaced.add(booking);
+            } else if (booking.getTableNumber() != null) {
+                placed.computeIfAbsent(booking.getTableNumber(), t -> new ArrayList<>()).add(booking);
+            }
+        }
+        displaced.sort(Comparator.comparingInt(Booking::getNumberOfGuests).reversed()
+                .thenComparing(Booking::getReservationTime));
+
+        Map<Booking, Integer> moves = new IdentityHashMap<>();
+        List<Booking> unplaced = new ArrayList<>();
+        for (Booking booking : displaced) {
+            LocalTime start = booking.getReservationTime();
+            LocalTime end = TableAssigner.endTime(start, booking.getNumberOfGuests());
+            Integer table = sortedTables.stream()
+                    .filter(t -> t.tableSize() >= booking.getNumberOfGuests())
+                    .map(t -> t.id().intValue())
+                    .filter(t -> !TableRepacker.overlapsAny(start, end, placed.getOrDefault(t, List.of())))
+                    .findFirst().orElse(null);
+            if (table == null) {
+                unplaced.add(booking);
+            } else {
+                placed.computeIfAbsent(table, t -> new ArrayList<>()).add(booking);
+                moves.put(booking, table);
+            }
+        }
+        if (unplaced.isEmpty()) {
+            return new DayPlan(moves, List.of());
+        }
+
+        TableRepacker.Plan repacked = TableRepacker.plan(bookings, tables, null, pinnedBefore);
+        if (!repacked.complete()) {
+            return new DayPlan(moves, unplaced);
+        }
+        Map<Booking, Integer> repackMoves = new IdentityHashMap<>();
+        for (Booking booking : bookings) {
+            Integer table = repacked.tableFor(booking);
+            if (!Objects.equals(table, booking.getTableNumber())) {
+                repackMoves.put(booking, table);
+            }
+        }
+        return new DayPlan(repackMoves, List.of());
+    }
+
+    // On a table that no longer exists, or no longer seats the party
+    static boolean isDisplaced(Booking booking, Map<Integer, Long> sizes) {
+        Integer table = booking.getTableNumber();
+        return table != null && (!sizes.containsKey(table) || sizes.get(table) < booking.getNumberOfGuests());
+    }
+
+    /**
+     * Future bookings at a location that the inventory cannot seat, as one query:
+     * location = ? and reservation_date >= ? and (table not in (all tables)
+     * or (table in (tables of size s) and guests > s) for each table size s).
+     */
+    static Specification<Booking> displaced(String location, LocalDate from, List<TableDTO> tables) {
+        return (root, query, cb) -> {
+            Path<Integer> table = root.get("tableNumber");
+            Path<Integer> guests = root.get("numberOfGuests");
+
+            Map<Long, List<Integer>> tablesBySize = new TreeMap<>();
+            tables.forEach(t -> tablesBySize.computeIfAbsent(t.tableSize(), s -> new ArrayList<>()).add(t.id().intValue()));
+
+            List<Predicate> wrongTable = new ArrayList<>();
+            wrongTable.add(cb.not(table.in(sizes(tables).keySet())));
+            tablesBySize.forEach((size, numbers) -> wrongTable.add(cb.and(table.in(numbers), cb.gt(guests, size.intValue()))));
+
+            return cb.and(cb.equal(root.get("location"), location),
+                    cb.greaterThanOrEqualTo(root.get("reservationDate"), from),
+                    cb.isNotNull(table),
+                    cb.or(wrongTable.toArray(Predicate[]::new)));
+        };
+    }
+
+    private static Map<Integer, Long> sizes(List<TableDTO> tables) {
+        Map<Integer, Long> sizes = new HashMap<>();
+        tables.forEach(t -> sizes.put(t.id().intValue(), t.tableSize()));
+        return sizes;
+    }
+
+    // Identifies a layout, independent of the order tables are listed in
+    private static String layout(List<TableDTO> tables) {
+        return tables.stream()
+                .sorted(Comparator.comparingLong(TableDTO::id))
+                .map(t -> t.id() + ":" + t.tableSize())
+                .collect(Collectors.joining(","));
+    }
+
+    // Result of the last reassignment per location, for the admin area
+    public Map<String, ReassignmentResult> getLastResults() {
+        return new TreeMap<>(lastResults);
+    }
+}
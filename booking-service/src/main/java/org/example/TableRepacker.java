@@ -0,0 +1,301 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Re-packs a day's table assignments to recover capacity lost to cancellations.
+ *
+ * Tables are fixed when a booking is created, so after cancellations a day can be
+ * fragmented: a 6-person party is rejected although moving existing bookings to other
+ * tables of the same size or larger would make room. The re-packer recomputes the day
+ * (earliest start first, smallest table that fits, tightest gap) and moves bookings to
+ * their new tables in one transaction. Every move is an update checked against the
+ * booking's @Version, so a booking that was changed in the meantime aborts the day.
+ *
+ * Runs nightly for today and future dates, and on demand when a new booking would
+ * otherwise be rejected. Each day is re-packed under that day's lease.
+ */
+@Service
+public class TableRepacker {
+
+    public record RepackResult(String location, LocalDate date, int moved, Integer extraTable) {}
+
+    // New table per booking, and whether every booking (and the extra party) was placed
+    record Plan(Map<Booking, Integer> assignment, boolean complete, long waste) {
+        Integer tableFor(Booking booking) {
+            return assignment.get(booking);
+        }
+    }
+
+    private final BookingRepository bookingRepository;
+    private final TableServiceClient tableServiceClient;
+    private final BookingWriter bookingWriter;
+    private final DateLeaseManager leaseManager;
+    private final LocationRegistry locationRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${repack.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${repack.on-demand:true}")
+    private boolean onDemand = true;
+
+    @Value("${repack.parallelism:4}")
+    private int parallelism = 4;
+
+    public TableRepacker(BookingRepository bookingRepository, TableServiceClient tableServiceClient,
+                         BookingWriter bookingWriter, DateLeaseManager leaseManager,
+                         LocationRegistry locationRegistry, PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.tableServiceClient = tableServiceClient;
+        this.bookingWriter = bookingWriter;
+        this.leaseManager = leaseManager;
+        this.locationRegistry = locationRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Nightly job, see repack.cron
+    @Scheduled(cron = "${repack.cron:0 0 3 * * *}")
+    public void scheduledRepack() {
+        if (!enabled) {
+            return;
+        }
+        List<RepackResult> results = repackUpcomingDates();
+        int moved = results.stream().mapToInt(RepackResult::moved).sum();
+        System.out.println("Table re-packing: " + moved + " booking(s) moved over " + results.size() + " day(s).");
+    }
+
+    /**
+     * Re-packs today and every future date that has bookings, at every location served
+     * by this instance. Days are independent, so with repack.parallelism above 1 they
+     * run in parallel on a fork-join pool.
+     */
+    public List<RepackResult> repackUpcomingDates() {
+        List<LocationDate> days = bookingRepository.findBookedDaysFrom(LocalDate.now()).stream()
+                .filter(day -> locationRegistry.serves(day.location()))
+                .toList();
+        if (days.isEmpty()) {
+            return List.of();
+        }
+
+        if (parallelism <= 1 || days.size() == 1) {
+            return days.stream().map(this::repackDay).toList();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> days.parallelStream().map(this::repackDay).toList()).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private RepackResult repackDay(LocationDate day) {
+        return repack(day.location(), day.date(), tableServiceClient.fetchTables(day.location()), null);
+    }
+
+    /**
+     * Tries to make room for a booking that got no table by re-packing its day.
+     *
+     * @param booking The new (unsaved) booking
+     * @return The table freed up for the booking, or null if re-packing cannot seat it
+     */
+    public Integer repackFor(Booking booking) {
+        if (!onDemand) {
+            return null;
+        }
+        List<TableDTO> tables = tableServiceClient.fetchTables(booking.getLocation());
+        if (tables.isEmpty()) {
+            return null;
+        }
+        return repack(booking.getLocation(), booking.getReservationDate(), tables, booking).extraTable();
+    }
+
+    /**
+     * Re-packs one day at one location in a single transaction.
+     *
+     * @param location The location
+     * @param date The day to re-pack
+     * @param tables The table inventory
+     * @param extra A party to seat in the new plan (not saved here), or null
+     * @return How many bookings moved, and the extra party's table
+     */
+    public RepackResult repack(String location, LocalDate date, List<TableDTO> tables, Booking extra) {
+        try {
+            return leaseManager.withLease(location, date, () -> transactionTemplate.execute(status -> {
+                List<Booking> bookings = bookingRepository.findByLocationAndReservationDate(location, date);
+
+                // Bookings that have already started today stay where they are
+                LocalTime pinnedBefore = date.isEqual(LocalDate.now()) ? LocalTime.now() : null;
+                Plan plan = plan(bookings, tables, extra, pinnedBefore);
+                if (!plan.complete()) {
+                    return new RepackResult(location, date, 0, null);
+                }
+                // Without a party to seat, only worth it if the new plan wastes fewer seats
+                if (extra == null && plan.waste() >= currentWaste(bookings, tables)) {
+                    return new RepackResult(location, date, 0, null);
+                }
+
+                List<Booking> moved = bookings.stream()
+                        .filter(b -> !Objects.equals(b.getTableNumber(), plan.tableFor(b)))
+                        .toList();
+
+                // Two steps so that two bookings swapping tables never collide on the
+                // (date, time, table) unique key. The version check happens on each flush.
+                moved.forEach(b -> b.setTableNumber(null));
+                bookingRepository.flush();
+                moved.forEach(b -> b.setTableNumber(plan.tableFor(b)));
+                bookingRepository.flush();
+                if (!moved.isEmpty()) {
+                    bookingWriter.recordMoves(location, date);
+                }
+
+                return new RepackResult(location, date, moved.size(), extra != null ? plan.tableFor(extra) : null);
+            }));
+        } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException
+                 | LeaseUnavailableException e) {
+            // A booking on this day changed while re-packing - leave the day as it was
+            System.err.println("Re-packing " + location + " " + date + " skipped: " + e.getMessage());
+            return new RepackResult(location, date, 0, null);
+        }
+    }
+
+    /**
+     * Computes a tighter assignment for one day. Bookings are placed in order of start time
+     * (larger parties first on ties) on the smallest table that fits, preferring the table
+     * that has been free for the shortest time so longer gaps stay open on the others.
+     *
+     * @param bookings The day's bookings
+     * @param tables The table inventory
+     * @param extra A party to seat as well, or null
+     * @param pinnedBefore Bookings starting before this time keep their table, or null
+     * @return The plan; incomplete if some booking could not be placed
+     */
+    static Plan plan(List<Booking> bookings, List<TableDTO> tables, Booking extra, LocalTime pinnedBefore) {
+        List<TableDTO> sortedTables = new ArrayList<>(tables);
+        sortedTables.sort(Comparator.comparingLong(TableDTO::tableSize).thenComparingLong(TableDTO::id));
+
+        Map<Integer, List<Booking>> placed = new HashMap<>();
+        Map<Booking, Integer> assignment = new IdentityHashMap<>();
+        List<Booking> toPlace = new ArrayList<>();
+
+        for (Booking booking : bookings) {
+            boolean pinned = pinnedBefore != null && booking.getTableNumber() != null
+                    && booking.getReservationTime().isBefore(pinnedBefore);
+            if (pinned) {
+                placed.computeIfAbsent(booking.getTableNumber(), t -> new ArrayList<>()).add(booking);
+                assignment.put(booking, booking.getTableNumber());
+            } else {
+                toPlace.add(booking);
+            }
+        }
+        if (extra != null) {
+            toPlace.add(extra);
+        }
+        toPlace.sort(Comparator.comparing(Booking::getReservationTime)
+                .thenComparing(Comparator.comparingInt(Booking::getNumberOfGuests).reversed()));
+
+        for (Booking booking : toPlace) {
+            LocalTime start = booking.getReservationTime();
+            LocalTime end = TableAssigner.endTime(start, booking.getNumberOfGuests());
+
+            Integer bestTable = null;
+            long bestSize = 0;
+            long bestGap = 0;
+            for (TableDTO table : sortedTables) {
+                if (table.tableSize() < booking.getNumberOfGuests()) {
+                    continue; // never move a party to a table that is too small
+                }
+                if (bestTable != null && table.tableSize() > bestSize) {
+                    break; // tables are sorted, anything further is larger
+                }
+                int tableNumber = table.id().intValue();
+                List<Booking> onTable = placed.getOrDefault(tableNumber, List.of());
+                if (overlapsAny(start, end, onTable)) {
+                    continue;
+                }
+                long gap = idleMinutesBefore(start, onTable);
+                boolean better = bestTable == null || gap < bestGap
+                        || (gap == bestGap && Objects.equals(booking.getTableNumber(), tableNumber));
+                if (better) {
+                    bestTable = tableNumber;
+                    bestSize = table.tableSize();
+                    bestGap = gap;
+                }
+            }
+
+            if (bestTable == null) {
+                return new Plan(assignment, false, Long.MAX_VALUE);
+            }
+            placed.computeIfAbsent(bestTable, t -> new ArrayList<>()).add(booking);
+            assignment.put(booking, bestTable);
+        }
+
+        return new Plan(assignment, true, waste(assignment, tables));
+    }
+
+    // Empty seat-minutes of the current assignment
+    static long currentWaste(List<Booking> bookings, List<TableDTO> tables) {
+        Map<Booking, Integer> assignment = new IdentityHashMap<>();
+        for (Booking booking : bookings) {
+            if (booking.getTableNumber() != null) {
+                assignment.put(booking, booking.getTableNumber());
+            }
+        }
+        return waste(assignment, tables);
+    }
+
+    private static long waste(Map<Booking, Integer> assignment, List<TableDTO> tables) {
+        Map<Integer, Long> sizes = new HashMap<>();
+        tables.forEach(table -> sizes.put(table.id().intValue(), table.tableSize()));
+
+        long waste = 0;
+        for (Map.Entry<Booking, Integer> entry : assignment.entrySet()) {
+            Booking booking = entry.getKey();
+            long size = sizes.getOrDefault(entry.getValue(), (long) booking.getNumberOfGuests());
+            waste += (size - booking.getNumberOfGuests()) * booking.getNumberOfGuests() * TableAssigner.MINUTES_PER_GUEST;
+        }
+        return waste;
+    }
+
+    static boolean overlapsAny(LocalTime start, LocalTime end, List<Booking> onTable) {
+        for (Booking other : onTable) {
+            LocalTime otherStart = other.getReservationTime();
+            LocalTime otherEnd = TableAssigner.endTime(otherStart, other.getNumberOfGuests());
+            if (start.isBefore(otherEnd) && end.isAfter(otherStart)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Minutes the table sits idle between its previous booking (or opening) and start
+    private static long idleMinutesBefore(LocalTime start, List<Booking> onTable) {
+        LocalTime previousEnd = TableAssigner.OPENING_TIME;
+        for (Booking other : onTable) {
+            LocalTime otherEnd = TableAssigner.endTime(other.getReservationTime(), other.getNumberOfGuests());
+            if (!otherEnd.isAfter(start) && otherEnd.isAfter(previousEnd)) {
+                previousEnd = otherEnd;
+            }
+        }
+        return Math.max(0, Duration.between(previousEnd, start).toMinutes());
+    }
+}
@@ -0,0 +1,113 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read model for availability: one row per location, date and table with the intervals
+ * the table is occupied, kept up to date by ScheduleProjection in the same transaction as
+ * the booking change. Availability reads use these rows instead of the bookings table.
+ *
+ * Intervals are stored compactly as "HH:mm-HH:mm#bookingId", comma separated, by start time.
+ */
+@Entity
+@jakarta.persistence.Table(name = "table_schedules",
+        uniqueConstraints = @UniqueConstraint(
+                columnNames = {"location", "reservation_date", "table_number"},
+                name = "uk_table_schedule_location_date_table"))
+public class TableSchedule {
+
+    public record Interval(LocalTime start, LocalTime end, Long bookingId) {}
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    private Long version;
+
+    @Column(nullable = false, length = 50)
+    private String location;
+
+    @Column(nullable = false)
+    private LocalDate reservationDate;
+
+    // 0 for bookings without a table
+    @Column(nullable = false)
+    private int tableNumber;
+
+    @Column(nullable = false, length = 2000)
+    private String intervals = "";
+
+    // Default constructor (needed by JPA)
+    public TableSchedule() {
+    }
+
+    public TableSchedule(String location, LocalDate reservationDate, int tableNumber) {
+        this.location = location;
+        this.reservationDate = reservationDate;
+        this.tableNumber = tableNumber;
+    }
+
+    public String getLocation() { return location; }
+
+    public LocalDate getReservationDate() { return reservationDate; }
+
+    public int getTableNumber() { return tableNumber; }
+
+    public List<Interval> getOccupied() {
+        List<Interval> occupied = new ArrayList<>();
+        if (intervals.isEmpty()) {
+            return occupied;
+        }
+        for (String entry : intervals.split(",")) {
+            int dash = entry.indexOf('-');
+            int hash = entry.indexOf('#');
+            occupied.add(new Interval(LocalTime.parse(entry.substring(0, dash)),
+                    LocalTime.parse(entry.substring(dash + 1, hash)),
+                    Long.valueOf(entry.substring(hash + 1))));
+        }
+        return occupied;
+    }
+
+    // Adds or replaces the interval of a booking
+    public void occupy(Booking booking) {
+        List<Interval> occupied = getOccupied();
+        occupied.removeIf(interval -> interval.bookingId().equals(booking.getId()));
+        occupied.add(new Interval(booking.getReservationTime(),
+                TableAssigner.endTime(booking.getReservationTime(), booking.getNumberOfGuests()), booking.getId()));
+        setOccupied(occupied);
+    }
+
+    // Removes the interval of a booking, returns whether the booking was on this table
+    public boolean release(Long bookingId) {
+        List<Interval> occupied = getOccupied();
+        if (!occupied.removeIf(interval -> interval.bookingId().equals(bookingId))) {
+            return false;
+        }
+        setOccupied(occupied);
+        return true;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return intervals.isEmpty();
+    }
+
+    private void setOccupied(List<Interval> occupied) {
+        occupied.sort(Comparator.comparing(Interval::start).thenComparing(Interval::bookingId));
+        StringBuilder text = new StringBuilder();
+        for (Interval interval : occupied) {
+            if (!text.isEmpty()) {
+                text.append(',');
+            }
+            text.append(interval.start()).append('-').append(interval.end()).append('#').append(interval.bookingId());
+        }
+        this.intervals = text.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package org.example;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TableScheduleRepository extends JpaRepository<TableSchedule, Long> {
+
+    // Backed by the (location, reservation_date, table_number) unique index
+    List<TableSchedule> findByLocationAndReservationDate(String location, LocalDate date);
+
+    @Query("select distinct s.reservationDate from TableSchedule s " +
+            "where s.location = :location and s.reservationDate between :from and :to")
+    List<LocalDate> findScheduledDays(@Param("location") String location,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from TableSchedule s where s.location = :location and s.reservationDate = :date")
+    int deleteDay(@Param("location") String location, @Param("date") LocalDate date);
+}
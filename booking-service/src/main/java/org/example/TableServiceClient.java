@@ -0,0 +1,97 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for the Table Service (Inventory), remote or embedded (see InventorySource).
+ * Each location's inventory is cached for a short time (table.service.cache-ttl-seconds),
+ * since tables hardly ever change but are needed for every booking.
+ *
+ * Concurrent misses for a location share one load (SingleFlight), keyed on the inventory
+ * version the caller last saw, so a burst after expiry makes one call to table-service.
+ */
+@Component
+public class TableServiceClient {
+
+    private record CachedTables(List<TableDTO> tables, long version, long expiresAt) {}
+
+    // Callers that last saw the same version of a location's inventory share one load
+    private record Load(String location, long knownVersion, long evictions) {}
+
+    private final InventorySource inventorySource;
+    private final Tracer tracer;
+    private final ConcurrentHashMap<String, CachedTables> cache = new ConcurrentHashMap<>();
+    private final SingleFlight<Load, InventorySource.Inventory> loads = new SingleFlight<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Value("${table.service.cache-ttl-seconds:30}")
+    private long cacheTtlSeconds = 30;
+
+    public TableServiceClient(InventorySource inventorySource, Tracer tracer) {
+        this.inventorySource = inventorySource;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Fetch the list of all tables at a location from the Table Service (Inventory)
+     */
+    public List<TableDTO> fetchTables(String location) {
+        try {
+            return new ArrayList<>(inventory(location).tables());
+        } catch (Exception e) {
+            System.err.println("Error fetching tables: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Version of a location's table inventory, from the cache while it is fresh.
+     *
+     * @return The version, or -1 if it is unknown or the inventory cannot be read
+     */
+    public long getInventoryVersion(String location) {
+        try {
+            return inventory(location).version();
+        } catch (Exception e) {
+            System.err.println("Error fetching tables: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private InventorySource.Inventory inventory(String location) {
+        CachedTables cached = cache.get(location);
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            tracer.current().tag("tables.cache", "hit");
+            return new InventorySource.Inventory(cached.tables(), cached.version());
+        }
+
+        // A load after evict() never joins one that started before it
+        Load key = new Load(location, cached != null ? cached.version() : -1, evictions.get());
+        return loads.execute(key, () -> load(location));
+    }
+
+    private InventorySource.Inventory load(String location) {
+        try (Span span = tracer.span("fetch-tables")) {
+            span.tag("location", location).tag("tables.cache", "miss");
+            InventorySource.Inventory inventory = inventorySource.loadTables(location);
+            // Don't cache an empty inventory, it is most likely a misconfiguration being fixed
+            if (!inventory.tables().isEmpty() && cacheTtlSeconds > 0) {
+                cache.put(location, new CachedTables(List.copyOf(inventory.tables()), inventory.version(),
+                        System.nanoTime() + cacheTtlSeconds * 1_000_000_000L));
+            }
+            return inventory;
+        }
+    }
+
+    // Drop cached inventories, e.g. after a location moved to another instance
+    public void evict(String location) {
+        evictions.incrementAndGet();
+        cache.remove(location);
+    }
+}
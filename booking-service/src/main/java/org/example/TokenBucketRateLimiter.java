@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket keyed by client.
+ *
+ * Each bucket is a single AtomicLong holding the time (in nanos) at which the bucket
+ * would be full again. Taking a token pushes that time forward by one refill interval;
+ * the request is rejected if that would put it more than capacity intervals ahead of now.
+ * This is the same as a classic token bucket but needs no lock and no refill thread.
+ */
+public class TokenBucketRateLimiter {
+
+    // Full buckets are dropped once there are more than this many clients
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder allowedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public TokenBucketRateLimiter(long capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, double tokensPerSecond, LongSupplier clock) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.clock = clock;
+    }
+
+    /**
+     * Tries to take one token from the client's bucket.
+     *
+     * @param clientKey The client (IP address or API key)
+     * @return 0 if the request is allowed, otherwise the nanos until a token is available
+     */
+    public long tryAcquire(String clientKey) {
+        long now = clock.getAsLong();
+        long limit = capacity * nanosPerToken;
+        AtomicLong bucket = buckets.computeIfAbsent(clientKey, k -> new AtomicLong(now));
+
+        while (true) {
+            long fullAt = bucket.get();
+            long base = fullAt - now > 0 ? fullAt : now;
+            long next = base + nanosPerToken;
+            long ahead = next - now;
+
+            if (ahead > limit) {
+                rejectedCount.increment();
+                return ahead - limit;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                allowedCount.increment();
+                sweepIfNeeded(now);
+                return 0;
+            }
+        }
+    }
+
+    // Drop buckets that have refilled completely, they behave exactly like a new bucket
+    private void sweepIfNeeded(long now) {
+        if (buckets.size() > SWEEP_THRESHOLD && sweeping.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getTokensPerSecond() {
+        return 1_000_000_000.0 / nanosPerToken;
+    }
+
+    public long getAllowedCount() {
+        return allowedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+
+/**
+ * A party waiting for a table on a given date, at any start time between
+ * earliestTime and latestTime. Stored in the shared database, so every instance sees
+ * the same waitlist and it survives restarts.
+ */
+@Entity
+@jakarta.persistence.Table(name = "waitlist_entries",
+        indexes = @Index(name = "idx_waitlist_location_date_status", columnList = "location, reservation_date, status"))
+public class WaitlistEntry {
+
+    public enum Status { WAITING, BOOKED, CANCELLED }
+
+    // Earliest request first, larger parties first when requested at the same time
+    public static final Comparator<WaitlistEntry> PRIORITY = Comparator
+            .comparing(WaitlistEntry::getRequestedAt)
+            .thenComparing(Comparator.comparingInt(WaitlistEntry::getNumberOfGuests).reversed())
+            .thenComparing(WaitlistEntry::getId);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // A promotion and a cancellation of the same entry cannot both win
+    @Version
+    private Long version;
+
+    @Column(nullable = false, length = 50)
+    private String location;
+
+    private String customerName;
+    private String email;
+    private String phone;
+
+    @Column(nullable = false)
+    private LocalDate reservationDate;
+
+    private LocalTime earliestTime;
+    private LocalTime latestTime;
+    private int numberOfGuests;
+    private Instant requestedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.WAITING;
+
+    private Long bookingId;
+
+    // Default constructor (needed by JPA)
+    public WaitlistEntry() {
+    }
+
+    public WaitlistEntry(Booking booking, LocalTime earliestTime, LocalTime latestTime, Instant requestedAt) {
+        this.location = booking.getLocation();
+        this.customerName = booking.getCustomerName();
+        this.email = booking.getEmail();
+        this.phone = booking.getPhone();
+        this.reservationDate = booking.getReservationDate();
+        this.numberOfGuests = booking.getNumberOfGuests();
+        this.earliestTime = earliestTime;
+        this.latestTime = latestTime;
+        this.requestedAt = requestedAt;
+    }
+
+    // Builds the booking this entry turns into when a table frees up
+    public Booking toBooking(LocalTime reservationTime, int tableNumber) {
+        Booking booking = new Booking(customerName, email, phone, reservationDate, reservationTime, numberOfGuests);
+        booking.setLocation(location);
+        booking.setTableNumber(tableNumber);
+        return booking;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public LocalDate getReservationDate() {
+        return reservationDate;
+    }
+
+    public LocalTime getEarliestTime() {
+        return earliestTime;
+    }
+
+    public LocalTime getLatestTime() {
+        return latestTime;
+    }
+
+    public int getNumberOfGuests() {
+        return numberOfGuests;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    // A day's waiting parties in WaitlistEntry.PRIORITY order, backed by the (location, reservation_date, status) index
+    List<WaitlistEntry> findByLocationAndReservationDateAndStatusOrderByRequestedAtAscNumberOfGuestsDescIdAsc(
+            String location, LocalDate date, WaitlistEntry.Status status, Pageable pageable);
+
+    boolean existsByLocationAndReservationDateAndStatus(String location, LocalDate date, WaitlistEntry.Status status);
+
+    @Modifying
+    @Transactional
+    long deleteByReservationDateBefore(LocalDate date);
+}
@@ -0,0 +1,213 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Waitlist for parties that could not get a table.
+ *
+ * Entries live in the waitlist_entries table, so every instance sees the same waitlist:
+ * a cancellation handled by any instance (or picked up by ChangeLogTailer) can promote a
+ * party that joined through another one, and waiting parties survive restarts.
+ *
+ * Each location and date is ordered by priority (earliest request first, then larger parties).
+ * When a booking is cancelled or moved, the freed interval is offered to the waiting
+ * parties straight away instead of customers polling for availability. A promotion
+ * only looks at the first few entries of the day, so it runs in bounded time.
+ */
+@Service
+public class WaitlistService {
+
+    private final BookingRepository bookingRepository;
+    private final BookingWriter bookingWriter;
+    private final WaitlistEntryRepository waitlistRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${waitlist.max-promotion-scan:50}")
+    private int maxPromotionScan = 50;
+
+    @Value("${waitlist.max-flex-minutes:120}")
+    private int maxFlexMinutes = 120;
+
+    public WaitlistService(BookingRepository bookingRepository, BookingWriter bookingWriter,
+                           WaitlistEntryRepository waitlistRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.bookingWriter = bookingWriter;
+        this.waitlistRepository = waitlistRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Puts a party on the waitlist for its date.
+     *
+     * @param booking The booking that could not get a table
+     * @param flexMinutes How far before or after the requested time the party is happy to start
+     * @return The waitlist entry
+     */
+    public WaitlistEntry add(Booking booking, int flexMinutes) {
+        removePastDates();
+
+        long flex = Math.max(0, Math.min(flexMinutes, maxFlexMinutes));
+        LocalTime requested = booking.getReservationTime();
+        LocalTime earliest = requested.minusMinutes(flex);
+        LocalTime latest = requested.plusMinutes(flex);
+        if (earliest.isAfter(requested) || earliest.isBefore(TableAssigner.OPENING_TIME)) {
+            earliest = TableAssigner.OPENING_TIME;
+        }
+        if (latest.isBefore(requested) || latest.isAfter(TableAssigner.CLOSING_TIME)) {
+            latest = TableAssigner.CLOSING_TIME;
+        }
+
+        return waitlistRepository.save(new WaitlistEntry(booking, earliest, latest, Instant.now()));
+    }
+
+    public Optional<WaitlistEntry> find(long id) {
+        return waitlistRepository.findById(id);
+    }
+
+    // Number of parties ahead of this entry on its date's waitlist
+    public int position(WaitlistEntry entry) {
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            return 0;
+        }
+        int ahead = 0;
+        for (WaitlistEntry other : waiting(entry.getLocation(), entry.getReservationDate(), Pageable.unpaged())) {
+            if (WaitlistEntry.PRIORITY.compare(other, entry) < 0) {
+                ahead++;
+            }
+        }
+        return ahead;
+    }
+
+    /**
+     * Takes a waiting party off the waitlist.
+     *
+     * @return true if the entry was still waiting
+     */
+    public boolean cancel(long id) {
+        WaitlistEntry entry = waitlistRepository.findById(id).orElse(null);
+        if (entry == null || entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            return false;
+        }
+        entry.setStatus(WaitlistEntry.Status.CANCELLED);
+        try {
+            waitlistRepository.save(entry);
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            // Promoted or cancelled in the meantime
+            return false;
+        }
+    }
+
+    public boolean hasWaiting(String location, LocalDate date) {
+        return waitlistRepository.existsByLocationAndReservationDateAndStatus(location, date, WaitlistEntry.Status.WAITING);
+    }
+
+    /**
+     * Offers a freed interval to the waiting parties of that date, best first.
+     * Only start times that overlap the freed interval are tried, and at most
+     * maxPromotionScan entries are looked at. Callers hold the day's lease (DateLeaseManager).
+     *
+     * @param location The location of the cancelled or moved booking
+     * @param date The date of the cancelled or moved booking
+     * @param freedStart Start of the freed interval
+     * @param freedEnd End of the freed interval
+     * @param tables The table inventory
+     * @return The bookings created for promoted parties
+     */
+    public List<Booking> promote(String location, LocalDate date, LocalTime freedStart, LocalTime freedEnd,
+                                 List<TableDTO> tables) {
+        List<Booking> promoted = new ArrayList<>();
+        List<WaitlistEntry> candidates = waiting(location, date, PageRequest.of(0, Math.max(1, maxPromotionScan)));
+        if (candidates.isEmpty()) {
+            return promoted;
+        }
+
+        List<Booking> dayBookings = new ArrayList<>(bookingRepository.findByLocationAndReservationDate(location, date));
+        for (WaitlistEntry entry : candidates) {
+            Booking booking = tryBook(entry, freedStart, freedEnd, tables, dayBookings);
+            if (booking != null) {
+                promoted.add(booking);
+                dayBookings.add(booking);
+            }
+        }
+        return promoted;
+    }
+
+    private List<WaitlistEntry> waiting(String location, LocalDate date, Pageable pageable) {
+        return waitlistRepository.findByLocationAndReservationDateAndStatusOrderByRequestedAtAscNumberOfGuestsDescIdAsc(
+                location, date, WaitlistEntry.Status.WAITING, pageable);
+    }
+
+    // Tries each start time in the entry's window that uses the freed interval
+    private Booking tryBook(WaitlistEntry entry, LocalTime freedStart, LocalTime freedEnd,
+                            List<TableDTO> tables, List<Booking> dayBookings) {
+        int guests = entry.getNumberOfGuests();
+        boolean today = entry.getReservationDate().isEqual(LocalDate.now());
+        LocalTime now = LocalTime.now();
+
+        for (LocalTime time = entry.getEarliestTime();
+             !time.isAfter(entry.getLatestTime());
+             time = time.plusMinutes(TableAssigner.MINUTES_PER_GUEST)) {
+
+            if (!TableAssigner.endsBeforeClosing(time, guests)) {
+                break; // later start times can only end later
+            }
+            if (today && time.isBefore(now)) {
+                continue;
+            }
+            LocalTime endTime = TableAssigner.endTime(time, guests);
+            if (!(time.isBefore(freedEnd) && endTime.isAfter(freedStart))) {
+                continue; // does not use the freed interval
+            }
+
+            Integer table = TableAssigner.findTable(tables, dayBookings, guests, time);
+            if (table != null) {
+                return book(entry, time, table);
+            }
+        }
+        return null;
+    }
+
+    // Claims the entry (its @Version fails if it was cancelled meanwhile), books the table and links
+    // the booking in one transaction, so a failure anywhere leaves the party waiting and nothing booked
+    private Booking book(WaitlistEntry entry, LocalTime time, int table) {
+        try {
+            return transactionTemplate.execute(status -> {
+                entry.setStatus(WaitlistEntry.Status.BOOKED);
+                WaitlistEntry claimed = waitlistRepository.save(entry);
+                Booking saved = bookingWriter.create(entry.toBooking(time, table));
+                claimed.setBookingId(saved.getId());
+                waitlistRepository.save(claimed);
+                return saved;
+            });
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Cancelled meanwhile, or someone else just took this table
+            entry.setStatus(WaitlistEntry.Status.WAITING);
+            return null;
+        } catch (RuntimeException e) {
+            System.err.println("Waitlist entry " + entry.getId() + " could not be booked: " + e.getMessage());
+            entry.setStatus(WaitlistEntry.Status.WAITING);
+            return null;
+        }
+    }
+
+    // Waitlists for days that are over can never be promoted
+    private void removePastDates() {
+        waitlistRepository.deleteByReservationDateBefore(LocalDate.now());
+    }
+}
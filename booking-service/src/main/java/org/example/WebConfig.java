@@ -0,0 +1,26 @@
+package org.example;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final LocationInterceptor locationInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    public WebConfig(LocationInterceptor locationInterceptor, RateLimitInterceptor rateLimitInterceptor) {
+        this.locationInterceptor = locationInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Location routing first, so misrouted requests don't use up rate limit tokens
+        registry.addInterceptor(locationInterceptor)
+                .addPathPatterns("/api/bookings/**", "/api/bookings", "/api/locations/*/bookings/**", "/api/locations/*/bookings");
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/bookings/**", "/api/bookings", "/api/locations/*/bookings/**", "/api/locations/*/bookings");
+    }
+}
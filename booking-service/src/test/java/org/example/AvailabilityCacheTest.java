@@ -0,0 +1,81 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityCacheTest {
+
+    private final BookingChangeTracker changeTracker = new BookingChangeTracker();
+    private final AvailabilityCache cache = new AvailabilityCache(changeTracker);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private List<LocalTime> load() {
+        loads.incrementAndGet();
+        return List.of(LocalTime.of(9, 0), LocalTime.of(9, 15));
+    }
+
+    @Test
+    void testOnlyChangedDatesAreReloaded() {
+        // Arrange
+        LocalDate monday = LocalDate.now().plusDays(3);
+        LocalDate tuesday = monday.plusDays(1);
+        cache.get("main", monday, this::load);
+        cache.get("main", tuesday, this::load);
+
+        // Act - an update moved a booking from monday to a date that is not cached
+        changeTracker.recordChange("main", monday, monday.plusDays(5));
+        cache.get("main", monday, this::load);
+        cache.get("main", tuesday, this::load);
+
+        // Assert
+        assertEquals(3, loads.get());
+        assertEquals(1L, cache.getStatistics().get("hits"));
+        assertEquals(1L, cache.getStatistics().get("invalidated"));
+    }
+
+    @Test
+    void testInvalidateAllMakesEveryEntryStale() {
+        // Arrange
+        LocalDate date = LocalDate.now().plusDays(3);
+        cache.get("main", date, this::load);
+
+        // Act
+        changeTracker.invalidateAll();
+        cache.get("main", date, this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        // Arrange
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            cache.get("main", LocalDate.now().plusDays(i + 1), this::load);
+        }
+
+        // Assert
+        assertTrue((int) cache.getStatistics().get("entries") <= 10);
+        assertTrue((long) cache.getStatistics().get("evictions") > 0);
+    }
+
+    @Test
+    void testPassedSlotsAreOnlyRemovedForToday() {
+        // Arrange
+        List<LocalTime> times = List.of(LocalTime.MIN, LocalTime.MAX);
+
+        // Act & Assert
+        assertEquals(List.of(LocalTime.MAX), AvailabilityCache.withoutPassedSlots(LocalDate.now(), times));
+        assertEquals(times, AvailabilityCache.withoutPassedSlots(LocalDate.now().plusDays(1), times));
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingArchiveTest {
+
+    @TempDir
+    Path archiveDir;
+
+    private BookingArchive newArchive() {
+        BookingArchive archive = new BookingArchive(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(archive, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(archive, "blockSize", 10);
+        return archive;
+    }
+
+    private static final Instant LAST_MODIFIED = Instant.parse("2024-12-20T10:00:00Z");
+
+    // One booking per day of January 2025, ids 1..31
+    private List<Booking> january() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int day = 1; day <= 31; day++) {
+            Booking booking = new Booking("Guest " + day, "guest" + day + "@example.com", "555-1234",
+                    LocalDate.of(2025, 1, day), LocalTime.of(10, 0), 2);
+            booking.setId((long) day);
+            booking.setTableNumber(1);
+            booking.setLastModified(LAST_MODIFIED);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    @Test
+    void testSegmentIsSplitIntoIndexedBlocks() throws Exception {
+        // Arrange
+        BookingArchive archive = newArchive();
+
+        // Act
+        BookingArchive.Segment segment = archive.writeSegment("main", YearMonth.of(2025, 1), january());
+
+        // Assert - 31 bookings in blocks of 10, each block knows its date range
+        assertEquals(4, segment.blocks().size());
+        assertEquals(LocalDate.of(2025, 1, 11), segment.blocks().get(1).firstDate());
+        assertEquals(LocalDate.of(2025, 1, 20), segment.blocks().get(1).lastDate());
+        assertEquals(31, segment.rows());
+    }
+
+    @Test
+    void testLookupsReadArchivedBookingsBack() throws Exception {
+        // Arrange
+        newArchive().writeSegment("main", YearMonth.of(2025, 1), january());
+
+        // Act - a new instance only has the index files to go on
+        BookingArchive archive = newArchive();
+        archive.loadIndexes();
+
+        // Assert
+        List<Booking> range = archive.findByDateRange("main", LocalDate.of(2025, 1, 9), LocalDate.of(2025, 1, 12));
+        assertEquals(List.of(9L, 10L, 11L, 12L), range.stream().map(Booking::getId).toList());
+        assertEquals(LAST_MODIFIED, range.get(0).getLastModified());
+        assertEquals(1, archive.findByEmail("main", "guest20@example.com").size());
+        assertTrue(archive.findAll("harbour").isEmpty());
+    }
+
+    @Test
+    void testRefreshSeesSegmentsWrittenByAnotherInstance() throws Exception {
+        // Arrange - two instances sharing archive.dir, both started before anything was archived
+        BookingArchive writer = newArchive();
+        BookingArchive reader = newArchive();
+        reader.loadIndexes();
+        writer.writeSegment("main", YearMonth.of(2025, 1), january());
+
+        // Act
+        reader.refresh("main", YearMonth.of(2025, 1));
+        reader.refresh("main", YearMonth.of(2025, 1));
+        writer.refresh("main", YearMonth.of(2025, 1));
+
+        // Assert - loaded once each, also by the instance that wrote it
+        assertEquals(31, reader.findByDateRange("main", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31)).size());
+        assertEquals(1, reader.getStatistics().get("main").get("segments"));
+        assertEquals(1, writer.getStatistics().get("main").get("segments"));
+    }
+
+    @Test
+    void testBookingsArchivedTwiceAreReturnedOnce() throws Exception {
+        // Arrange - the job stopped after writing the segment but before deleting the bookings
+        BookingArchive archive = newArchive();
+        archive.writeSegment("main", YearMonth.of(2025, 1), january());
+        archive.writeSegment("main", YearMonth.of(2025, 1), january());
+
+        // Act & Assert
+        assertEquals(31, archive.findAll("main").size());
+    }
+}
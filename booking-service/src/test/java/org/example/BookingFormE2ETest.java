@@ -14,7 +14,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
 
 import org.openqa.selenium.JavascriptExecutor;
@@ -146,27 +145,22 @@ public class BookingFormE2ETest {
         enterPhone("555-1234");
         selectFutureDate(LocalDate.now().plusDays(7));
 
-        // Verify available time slots start from 11:00
+        selectNumberOfGuests(4);
+        wait.until(ExpectedConditions.numberOfElementsToBeMoreThan(
+                By.cssSelector("#reservationTime option"), 1));
+
+        // The first booking only took one table, so 09:00 is still offered to another party of 4
         Select timeSelect = new Select(driver.findElement(By.id("reservationTime")));
         List<WebElement> options = timeSelect.getOptions();
 
         // Remove the first option which is the placeholder "-- Select a time --"
         List<WebElement> actualTimeSlots = options.subList(1, options.size());
+        assertEquals("09:00:00", actualTimeSlots.get(0).getAttribute("value"),
+                "09:00 should still have a table for 4 guests");
 
-        // Verify the first actual time slot is 11:00
-        assertFalse(actualTimeSlots.isEmpty(), "Time slots should be available");
-        assertEquals("11:00:00", actualTimeSlots.get(0).getAttribute("value"),
-                "First available time slot should be 11:00:00");
-
-        //Verify that 10:00 and earlier slots (that should be blocked) are NOT present
-        List<String> blockedTimes = Arrays.asList("10:00:00", "10:15:00", "10:30:00", "10:45:00");
-        for (WebElement option : actualTimeSlots) {
-            String value = option.getAttribute("value");
-            assertFalse(blockedTimes.contains(value),
-                    "Time slot " + value + " should be blocked but is available");
-        }
+        // 4 guests need 60 minutes, so 16:00 is the last time offered
+        assertEquals("16:00:00", actualTimeSlots.get(actualTimeSlots.size() - 1).getAttribute("value"));
         selectTimeSlot(1); //select same time slot as first booking
-        selectNumberOfGuests(4);
         submitBookingForm();
 
         success = wait.until(ExpectedConditions.visibilityOfElementLocated(
@@ -196,21 +190,16 @@ public class BookingFormE2ETest {
         Select timeSelect = new Select(driver.findElement(By.id("reservationTime")));
         List<WebElement> options = timeSelect.getOptions();
         timeSelect.selectByIndex(options.size() - 1); // Last slot
+        assertEquals("16:45:00", timeSelect.getFirstSelectedOption().getAttribute("value"));
 
-        // Try to book with 3 guests (45 minutes needed)
-        // This should fail if the last slot doesn't have enough time
+        // 3 guests need 45 minutes: the form no longer offers the slots that would run past closing
         selectNumberOfGuests(3);
-        submitBookingForm();
-
-        // Wait for error message
-        WebElement error = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.id("errorMessage")));
 
-        // Verify error message is displayed and mentions closing time
-        assertTrue(error.isDisplayed());
-        assertTrue(error.getText().toLowerCase().contains("closing time") ||
-                        error.getText().toLowerCase().contains("cannot be completed"),
-                "Error should mention closing time constraint");
+        options = timeSelect.getOptions();
+        assertEquals("16:15:00", options.get(options.size() - 1).getAttribute("value"),
+                "Last time offered for 3 guests should be 16:15:00");
+        assertEquals("", timeSelect.getFirstSelectedOption().getAttribute("value"),
+                "The too-late time should no longer be selected");
     }
 
     @Test
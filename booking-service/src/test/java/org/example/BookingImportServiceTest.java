@@ -0,0 +1,130 @@
+package org.example;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class BookingImportServiceTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void testParseCsvLineHandlesQuotedFields() {
+        List<String> fields = BookingImportService.parseCsvLine("\"Doe, Jane\",jane@example.com,\"say \"\"hi\"\"\",,4");
+
+        assertEquals(List.of("Doe, Jane", "jane@example.com", "say \"hi\"", "", "4"), fields);
+    }
+
+    @Test
+    void testParseCsvLineRejectsUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> BookingImportService.parseCsvLine("\"Jane,4"));
+    }
+
+    @Test
+    void testFormatCsvLineRoundTrips() {
+        List<String> fields = List.of("Doe, Jane", "a\"b", "plain");
+
+        assertEquals(fields, BookingImportService.parseCsvLine(BookingImportService.formatCsvLine(fields)));
+    }
+
+    @Test
+    void testHistoricalRowsPassValidation() {
+        // Arrange
+        BookingImportService importService = new BookingImportService(
+                Validation.buildDefaultValidatorFactory().getValidator(), null, mock(BookingRepository.class),
+                mock(TableServiceClient.class), mock(BookingWriter.class), mock(DateLeaseManager.class),
+                mock(ContactIndex.class), null);
+        Map<String, Integer> columns = Map.of("customername", 0, "email", 1, "phone", 2,
+                "reservationdate", 3, "reservationtime", 4, "numberofguests", 5);
+
+        // Act
+        BookingImportService.Validated past = importService.validate(2,
+                "Jane Doe,jane@example.com,555-1234,2019-03-02,12:00,2", columns, "main");
+        BookingImportService.Validated invalid = importService.validate(3,
+                "Jane Doe,not-an-email,555-1234,2019-03-02,12:00,2", columns, "main");
+
+        // Assert - the date is fine, the other constraints still apply
+        assertNull(past.error());
+        assertEquals(LocalDate.of(2019, 3, 2), past.row().date());
+        assertEquals("email: Email must be valid", invalid.error());
+    }
+
+    @Test
+    void testRunMergerReturnsRowsSortedByDay() throws Exception {
+        // Arrange - two sorted runs with interleaving days
+        LocalDate day1 = LocalDate.of(2030, 1, 1);
+        LocalDate day2 = LocalDate.of(2030, 1, 2);
+        Path run1 = writeRun("run1.csv", row(2, day1, "10:00"), row(4, day2, "09:00"));
+        Path run2 = writeRun("run2.csv", row(1, day1, "09:30"), row(3, day2, "12:00"));
+
+        // Act
+        List<Long> lines = new ArrayList<>();
+        try (BookingImportService.RunMerger merger = new BookingImportService.RunMerger(List.of(run1, run2))) {
+            merger.forEachRemaining(row -> lines.add(row.line()));
+        }
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 4L, 3L), lines);
+    }
+
+    @Test
+    void testRunRowsKeepTheOriginalRow() {
+        // Arrange - the user's row, as it goes into the error report if the row gets no table
+        String raw = "\"Doe, Jane\",jane@example.com,555-1234,2030-01-01,10:00,2";
+        BookingImportService.ImportRow row = new BookingImportService.ImportRow(2, "main", "Doe, Jane",
+                "jane@example.com", "555-1234", LocalDate.of(2030, 1, 1), LocalTime.of(10, 0), 2, raw);
+
+        // Act & Assert
+        assertEquals(raw, BookingImportService.ImportRow.fromCsv(row.toCsv()).raw());
+    }
+
+    @Test
+    void testRunsAreMergedInPassesUpToTheFanIn() throws Exception {
+        // Arrange - five runs, at most two open at a time
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        List<Path> runs = new ArrayList<>();
+        for (int run = 0; run < 5; run++) {
+            runs.add(writeRun("run" + run + ".csv", row(run + 1, day, "09:00"), row(run + 6, day.plusDays(1), "09:00")));
+        }
+
+        // Act
+        List<Path> merged = BookingImportService.mergeToFanIn(runs, 2, workDir);
+        List<Long> lines = new ArrayList<>();
+        try (BookingImportService.RunMerger merger = new BookingImportService.RunMerger(merged)) {
+            merger.forEachRemaining(row -> lines.add(row.line()));
+        }
+
+        // Assert - same order as one merge of all five, and the intermediate runs are gone
+        assertTrue(merged.size() <= 2);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), lines);
+        try (Stream<Path> files = Files.list(workDir)) {
+            assertEquals(merged.size(), files.count());
+        }
+    }
+
+    private BookingImportService.ImportRow row(long line, LocalDate date, String time) {
+        return new BookingImportService.ImportRow(line, "main", "Guest " + line, "guest@example.com", "555-1234",
+                date, LocalTime.parse(time), 2, "Guest " + line + ",guest@example.com,555-1234," + date + "," + time + ",2");
+    }
+
+    private Path writeRun(String name, BookingImportService.ImportRow... rows) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (BookingImportService.ImportRow row : rows) {
+            lines.add(row.toCsv());
+        }
+        return Files.write(workDir.resolve(name), lines);
+    }
+}
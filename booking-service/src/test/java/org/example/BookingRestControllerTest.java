@@ -1,16 +1,25 @@
 package org.example;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -18,11 +27,20 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookingRestController.class)
+@Import({BookingChangeTracker.class, BookingWriter.class, DateLeaseManager.class, WaitlistService.class,
+        LocationRegistry.class, Tracer.class, TraceCollector.class,
+        QueryInspector.class, ScheduleProjection.class, OccupancyRollups.class, AvailabilityCache.class,
+        ContactIndex.class, SlotSuggester.class, BookingSync.class})
+// Only the in-process day locks, no lease rows; every contact lookup goes to the (mocked) repository
+@TestPropertySource(properties = {"coherence.leases.enabled=false", "contacts.bloom.enabled=false"})
 class BookingRestControllerTest {
 
     @Autowired
@@ -34,6 +52,52 @@ class BookingRestControllerTest {
     @MockBean
     private BookingRepository bookingRepository;
 
+    @MockBean
+    private TableServiceClient tableServiceClient;
+
+    @MockBean
+    private TableRepacker tableRepacker;
+
+    @MockBean
+    private BookingChangeRepository changeRepository;
+
+    @MockBean
+    private DateLeaseRepository leaseRepository;
+
+    @MockBean
+    private BookingArchive archive;
+
+    @MockBean
+    private TableScheduleRepository scheduleRepository;
+
+    @MockBean
+    private OccupancyRollupRepository rollupRepository;
+
+    @MockBean
+    private BookingTombstoneRepository tombstoneRepository;
+
+    @MockBean
+    private WaitlistEntryRepository waitlistRepository;
+
+    // No database in this slice; the waitlist's transactions run against a mock
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    // Same inventory as TableServiceApplication.initTables
+    @BeforeEach
+    void setUpTables() {
+        availabilityCache.clear();
+        // Saves return the booking, like JPA does; tests that need an id or a failure stub their own
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(returnsFirstArg());
+        when(tableServiceClient.fetchTables(anyString())).thenReturn(List.of(
+                new TableDTO(1L, 2L), new TableDTO(2L, 2L), new TableDTO(3L, 2L),
+                new TableDTO(4L, 6L), new TableDTO(5L, 6L), new TableDTO(6L, 6L), new TableDTO(7L, 6L),
+                new TableDTO(8L, 9L), new TableDTO(9L, 9L)));
+    }
+
     // Helper method to create a valid booking
     private Booking createValidBooking() {
         Booking booking = new Booking();
@@ -56,7 +120,7 @@ class BookingRestControllerTest {
         booking2.setId(2L);
         booking2.setCustomerName("Jane Smith");
 
-        when(bookingRepository.findAll()).thenReturn(Arrays.asList(booking1, booking2));
+        when(bookingRepository.findByLocation("main")).thenReturn(Arrays.asList(booking1, booking2));
 
         // Act & Assert
         mockMvc.perform(get("/api/bookings"))
@@ -67,7 +131,51 @@ class BookingRestControllerTest {
                 .andExpect(jsonPath("$[1].id", is(2)))
                 .andExpect(jsonPath("$[1].customerName", is("Jane Smith")));
 
-        verify(bookingRepository, times(1)).findAll();
+        verify(bookingRepository, times(1)).findByLocation("main");
+    }
+
+    @Test
+    void testGetAllBookings_NotModified() throws Exception {
+        // Arrange
+        when(bookingRepository.findByLocation("main")).thenReturn(List.of(createValidBooking()));
+
+        String etag = mockMvc.perform(get("/api/bookings"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert - same ETag, nothing changed, repository is not queried again
+        mockMvc.perform(get("/api/bookings").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(bookingRepository, times(1)).findByLocation("main");
+    }
+
+    @Test
+    void testAvailableTimeSlots_EtagChangesAfterDelete() throws Exception {
+        // Arrange
+        Booking booking = createValidBooking();
+        booking.setId(1L);
+        String url = "/api/bookings/available-times/" + booking.getReservationDate();
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // Act - a change on the same date invalidates the cached slots
+        mockMvc.perform(delete("/api/bookings/1"))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        // Once for the first GET, twice for the delete (schedule and rollups), once for the GET after it
+        verify(scheduleRepository, times(4)).findByLocationAndReservationDate("main", booking.getReservationDate());
     }
 
     @Test
@@ -184,6 +292,45 @@ class BookingRestControllerTest {
         verify(bookingRepository, times(1)).delete(booking);
     }
 
+    @Test
+    void testChangedSinceReturnsChangesAndTombstones() throws Exception {
+        // Arrange - booking 1 is deleted, booking 2 was changed after the client's last sync
+        Instant lastSync = Instant.now().minus(5, ChronoUnit.MINUTES);
+        Booking deleted = createValidBooking();
+        deleted.setId(1L);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(deleted));
+        ArgumentCaptor<BookingTombstone> tombstoneCaptor = ArgumentCaptor.forClass(BookingTombstone.class);
+        when(tombstoneRepository.save(tombstoneCaptor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Booking changed = createValidBooking();
+        changed.setId(2L);
+        when(bookingRepository.findByLocationAndLastModifiedAfter("main", lastSync)).thenReturn(List.of(changed));
+
+        // Act
+        mockMvc.perform(delete("/api/bookings/1")).andExpect(status().isNoContent());
+        when(tombstoneRepository.findByLocationAndDeletedAtAfter("main", lastSync))
+                .thenReturn(List.of(tombstoneCaptor.getValue()));
+
+        // Assert
+        mockMvc.perform(get("/api/bookings?changedSince=" + lastSync))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings", hasSize(1)))
+                .andExpect(jsonPath("$.bookings[0].id", is(2)))
+                .andExpect(jsonPath("$.deleted", hasSize(1)))
+                .andExpect(jsonPath("$.deleted[0].id", is(1)))
+                .andExpect(jsonPath("$.deleted[0].reason", is("DELETED")))
+                .andExpect(jsonPath("$.nextChangedSince").exists());
+        verify(bookingRepository, never()).findByLocation(anyString());
+    }
+
+    @Test
+    void testChangedSinceOlderThanTombstoneRetention() throws Exception {
+        mockMvc.perform(get("/api/bookings?changedSince=" + Instant.now().minus(30, ChronoUnit.DAYS)))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/api/bookings?changedSince=yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testDeleteBooking_NotFound() throws Exception {
         // Arrange
@@ -207,9 +354,11 @@ class BookingRestControllerTest {
         booking.setReservationTime(LocalTime.parse("10:00:00"));
         booking.setNumberOfGuests(4); // 4 guests = 60 minutes (4 * 15)
 
-        // Mock repository to return this booking when searching by date
-        when(bookingRepository.findByReservationDate(booking.getReservationDate()))
-                .thenReturn(Arrays.asList(booking));
+        // Mock the schedule read model to hold this booking when searching by date
+        TableSchedule schedule = new TableSchedule("main", booking.getReservationDate(), 4);
+        schedule.occupy(booking);
+        when(scheduleRepository.findByLocationAndReservationDate("main", booking.getReservationDate()))
+                .thenReturn(Arrays.asList(schedule));
 
         // Act & Assert
         // The booking at 10:00 with 4 guests blocks 10:00-11:00
@@ -222,9 +371,117 @@ class BookingRestControllerTest {
                 .andExpect(jsonPath("$[0]", is("09:00:00")))
                 .andExpect(jsonPath("$[1]", is("09:15:00")))
                 .andExpect(jsonPath("$[2]", is("09:30:00")))
-                .andExpect(jsonPath("$[3]", is("09:45:00")));
+                .andExpect(jsonPath("$[3]", is("09:45:00")))
+                .andExpect(jsonPath("$[4]", is("11:00:00")));
+
+        // Served from the read model, the bookings table is not queried
+        verify(scheduleRepository, times(1)).findByLocationAndReservationDate("main", booking.getReservationDate());
+        verify(bookingRepository, never()).findByLocationAndReservationDate(anyString(), any());
+    }
+
+    @Test
+    void testAvailableTimeSlots_CachedUntilDateChanges() throws Exception {
+        // Arrange
+        Booking booking = createValidBooking();
+        booking.setId(1L);
+        Booking otherDay = createValidBooking();
+        otherDay.setId(2L);
+        otherDay.setReservationDate(booking.getReservationDate().plusDays(1));
+        when(bookingRepository.findById(2L)).thenReturn(Optional.of(otherDay));
+        String url = "/api/bookings/available-times/" + booking.getReservationDate();
+
+        // Act - repeated reads, a delete on another date, then a read again
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(32)));
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(32)));
+        mockMvc.perform(delete("/api/bookings/2")).andExpect(status().isNoContent());
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        // Assert - computed once, the other date's change did not invalidate it
+        verify(scheduleRepository, times(1)).findByLocationAndReservationDate("main", booking.getReservationDate());
+        assertEquals(2L, availabilityCache.getStatistics().get("hits"));
+    }
 
-        verify(bookingRepository, times(1)).findByReservationDate(booking.getReservationDate());
+    @Test
+    void testCapacity_LargestPartyPerSlot() throws Exception {
+        // Arrange - both 9-seat tables are taken from 10:00, the 6-seat tables are free all day
+        LocalDate date = LocalDate.now().plusDays(7);
+        List<TableSchedule> day = new ArrayList<>();
+        for (int table = 8; table <= 9; table++) {
+            Booking booking = new Booking("Big Party", "party@example.com", "555-0000", date, LocalTime.of(10, 0), 9);
+            booking.setId((long) table);
+            booking.setTableNumber(table);
+            TableSchedule schedule = new TableSchedule("main", date, table);
+            schedule.occupy(booking);
+            day.add(schedule);
+        }
+        when(scheduleRepository.findByLocationAndReservationDate("main", date)).thenReturn(day);
+        String url = "/api/bookings/capacity/" + date;
+
+        // Act & Assert - every slot, with at most 6 guests until the 9-seat tables are free at 12:15
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(32)))
+                .andExpect(jsonPath("$[0].time", is("09:00:00")))
+                .andExpect(jsonPath("$[0].maxGuests", is(6)))
+                .andExpect(jsonPath("$[13].time", is("12:15:00")))
+                .andExpect(jsonPath("$[13].maxGuests", is(9)))
+                // Closing limits the party: 75 minutes at 15:45 fit 5 guests
+                .andExpect(jsonPath("$[27].maxGuests", is(5)))
+                .andExpect(jsonPath("$[31].maxGuests", is(1)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Nothing changed - answered before the tables are read
+        clearInvocations(tableServiceClient);
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(tableServiceClient, never()).fetchTables(anyString());
+
+        // A new inventory version changes the answer without any booking change
+        when(tableServiceClient.getInventoryVersion(anyString())).thenReturn(1L);
+        when(tableServiceClient.fetchTables(anyString())).thenReturn(List.of(new TableDTO(1L, 2L)));
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].maxGuests", is(2)));
+    }
+
+    @Test
+    void testPhoneLookupIgnoresFormatting() throws Exception {
+        // Arrange - stored as "1112223456"
+        Booking booking = createValidBooking();
+        booking.setId(1L);
+        when(bookingRepository.findByLocationAndPhoneKey("main", "1112223456")).thenReturn(List.of(booking));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/bookings/phone/(111) 222-3456"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].phone", is("1112223456")))
+                .andExpect(jsonPath("$[0].phoneKey").doesNotExist());
+    }
+
+    @Test
+    void testCreateBookingUpdatesScheduleReadModel() throws Exception {
+        // Arrange
+        Booking booking = createValidBooking();
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
+        ArgumentCaptor<TableSchedule> scheduleCaptor = ArgumentCaptor.forClass(TableSchedule.class);
+
+        // Act
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isCreated());
+
+        // Assert - 4 guests get table 4 from 10:00 to 11:00
+        verify(scheduleRepository).save(scheduleCaptor.capture());
+        TableSchedule schedule = scheduleCaptor.getValue();
+        assertEquals(4, schedule.getTableNumber());
+        assertEquals(List.of(new TableSchedule.Interval(LocalTime.of(10, 0), LocalTime.of(11, 0), 5L)),
+                schedule.getOccupied());
     }
 
     @Test
@@ -433,5 +690,188 @@ class BookingRestControllerTest {
         assertEquals(8, bookingCaptor.getValue().getTableNumber());
     }
 
+    @Test
+    void testCreateBooking_NoTableSuggestsNearestFreeTimes() throws Exception {
+        // Arrange - a single 6-seat table, taken 10:00-11:00
+        when(tableServiceClient.fetchTables(anyString())).thenReturn(List.of(new TableDTO(1L, 6L)));
+        Booking existing = createValidBooking();
+        existing.setId(1L);
+        existing.setTableNumber(1);
+        when(bookingRepository.findByLocationAndReservationDate("main", existing.getReservationDate()))
+                .thenReturn(List.of(existing));
+        TableSchedule schedule = new TableSchedule("main", existing.getReservationDate(), 1);
+        schedule.occupy(existing);
+        when(scheduleRepository.findByLocationAndReservationDate("main", existing.getReservationDate()))
+                .thenReturn(List.of(schedule));
+
+        Booking booking = createValidBooking();
+        booking.setReservationTime(LocalTime.of(10, 15));
+        booking.setNumberOfGuests(2);
+
+        // Act & Assert - 2 guests need 30 minutes: 09:30 ends as 10:00 starts, 11:00 right after
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value(containsString("No tables available")))
+                .andExpect(jsonPath("$.alternatives", hasSize(5)))
+                .andExpect(jsonPath("$.alternatives[0].time", is("09:30:00")))
+                .andExpect(jsonPath("$.alternatives[1].time", is("11:00:00")))
+                .andExpect(jsonPath("$.alternatives[2].time", is("09:15:00")))
+                .andExpect(jsonPath("$.alternatives[0].date", is(existing.getReservationDate().toString())));
+    }
+
+    @Test
+    void testWaitlistPromotedWhenBookingDeleted() throws Exception {
+        // Arrange - a single 6-seat table, taken 10:00-11:00
+        when(tableServiceClient.fetchTables(anyString())).thenReturn(List.of(new TableDTO(1L, 6L)));
+
+        Booking existing = createValidBooking();
+        existing.setId(1L);
+        existing.setTableNumber(1);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(bookingRepository.findByLocationAndReservationDate("main", existing.getReservationDate()))
+                .thenReturn(List.of(existing))  // create: table is taken
+                .thenReturn(List.of());          // promotion: table was freed
+
+        ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
+        when(bookingRepository.save(bookingCaptor.capture())).thenAnswer(invocation -> {
+            Booking saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+
+        // The waitlist table, kept in a list
+        List<WaitlistEntry> waitlist = new ArrayList<>();
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry entry = invocation.getArgument(0);
+            if (entry.getId() == null) {
+                ReflectionTestUtils.setField(entry, "id", (long) waitlist.size() + 1);
+                waitlist.add(entry);
+            }
+            return entry;
+        });
+        when(waitlistRepository.findByLocationAndReservationDateAndStatusOrderByRequestedAtAscNumberOfGuestsDescIdAsc(
+                eq("main"), eq(existing.getReservationDate()), eq(WaitlistEntry.Status.WAITING), any(Pageable.class)))
+                .thenAnswer(invocation -> waitlist.stream()
+                        .filter(entry -> entry.getStatus() == WaitlistEntry.Status.WAITING).toList());
+        when(waitlistRepository.existsByLocationAndReservationDateAndStatus(
+                "main", existing.getReservationDate(), WaitlistEntry.Status.WAITING))
+                .thenAnswer(invocation -> waitlist.stream()
+                        .anyMatch(entry -> entry.getStatus() == WaitlistEntry.Status.WAITING));
+
+        Booking waiting = createValidBooking();
+        waiting.setCustomerName("Jane Smith");
+
+        // Act - no table, so the party is waitlisted instead of rejected
+        mockMvc.perform(post("/api/bookings?waitlist=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(waiting)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status", is("WAITING")))
+                .andExpect(jsonPath("$.position", is(0)));
+
+        mockMvc.perform(delete("/api/bookings/1"))
+                .andExpect(status().isNoContent());
+
+        // Assert - the freed table went to the waiting party
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        assertEquals("Jane Smith", bookingCaptor.getValue().getCustomerName());
+        assertEquals(1, bookingCaptor.getValue().getTableNumber());
+        assertEquals(LocalTime.of(10, 0), bookingCaptor.getValue().getReservationTime());
+        assertEquals(WaitlistEntry.Status.BOOKED, waitlist.get(0).getStatus());
+        assertEquals(2L, waitlist.get(0).getBookingId());
+    }
+
+    @Test
+    void testBookingsArePartitionedByLocation() throws Exception {
+        // Arrange
+        Booking harbourBooking = createValidBooking();
+        harbourBooking.setId(1L);
+        harbourBooking.setLocation("harbour");
+        when(bookingRepository.findByLocation("harbour")).thenReturn(List.of(harbourBooking));
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(harbourBooking));
+
+        // Act & Assert - routed by path, header or default
+        mockMvc.perform(get("/api/locations/harbour/bookings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].location", is("harbour")));
+
+        mockMvc.perform(get("/api/bookings/1").header("X-Cafe-Location", "harbour"))
+                .andExpect(status().isOk());
+
+        // The main cafe does not see the harbour booking
+        mockMvc.perform(get("/api/bookings/1"))
+                .andExpect(status().isNotFound());
+
+        verify(bookingRepository, never()).findByLocation("main");
+    }
+
+    @Test
+    void testCreateBookingUsesRoutedLocation() throws Exception {
+        // Arrange
+        Booking booking = createValidBooking();
+        booking.setLocation("main"); // body says main, path says harbour
+        ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
+        when(bookingRepository.save(bookingCaptor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        mockMvc.perform(post("/api/locations/harbour/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isCreated());
+
+        // Assert
+        assertEquals("harbour", bookingCaptor.getValue().getLocation());
+        verify(tableServiceClient).fetchTables("harbour");
+        verify(bookingRepository).findByLocationAndReservationDate("harbour", booking.getReservationDate());
+    }
+
+    @Test
+    void testBookingChangesAreWrittenToChangeLog() throws Exception {
+        // Arrange
+        Booking booking = createValidBooking();
+        booking.setId(1L);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        ArgumentCaptor<BookingChange> changeCaptor = ArgumentCaptor.forClass(BookingChange.class);
+
+        // Act
+        mockMvc.perform(delete("/api/bookings/1"))
+                .andExpect(status().isNoContent());
+
+        // Assert - other instances learn which day changed and which interval was freed
+        verify(changeRepository).save(changeCaptor.capture());
+        BookingChange change = changeCaptor.getValue();
+        assertEquals(BookingChange.Type.DELETED, change.getChangeType());
+        assertEquals("main", change.getLocation());
+        assertEquals(booking.getReservationDate(), change.getReservationDate());
+        assertEquals(LocalTime.of(10, 0), change.getFreedStart());
+        assertEquals(LocalTime.of(11, 0), change.getFreedEnd());
+    }
+
+    @Test
+    void testHistoryIsOnlyReadWhenRequested() throws Exception {
+        // Arrange
+        Booking current = createValidBooking();
+        current.setId(2L);
+        Booking archived = createValidBooking();
+        archived.setId(1L);
+        archived.setReservationDate(LocalDate.now().minusYears(1));
+        when(bookingRepository.findByLocationAndEmailKey("main", "johndoe@gmail.com")).thenReturn(List.of(current));
+        when(archive.findByEmail("main", "johndoe@gmail.com")).thenReturn(List.of(archived));
+
+        // Act & Assert - the hot tier only by default
+        mockMvc.perform(get("/api/bookings/email/johndoe@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        verify(archive, never()).findByEmail(anyString(), anyString());
+
+        mockMvc.perform(get("/api/bookings/email/johndoe@gmail.com").param("history", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+    }
+
     // TODO test different table configuration to make sure we fill them up in the right order
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CafeRuntimeHintsTest {
+
+    @Test
+    void testHintsCoverJsonAndJpaTypes() throws Exception {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new CafeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TableDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Booking.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(LocationDate.class.getDeclaredConstructors()[0]).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("static/booking_form.html").test(hints));
+    }
+}
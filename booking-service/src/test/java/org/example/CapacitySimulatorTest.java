@@ -0,0 +1,120 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CapacitySimulatorTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingArchive archive = mock(BookingArchive.class);
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+    private final CapacitySimulator simulator = new CapacitySimulator(bookingRepository, archive, clock);
+
+    private static Table table(long id, long size) {
+        Table table = new Table();
+        table.setId(id);
+        table.setTableSize(size);
+        return table;
+    }
+
+    private static Booking booking(long id, LocalDate date, LocalTime time, int guests) {
+        Booking booking = new Booking("Jane Doe", "jane@example.com", "555-9876", date, time, guests);
+        booking.setId(id);
+        return booking;
+    }
+
+    @Test
+    void testSameSeedGivesTheSameResult() {
+        List<CapacitySimulator.Configuration> configurations = List.of(
+                new CapacitySimulator.Configuration("current", List.of(table(1, 2), table(2, 4), table(3, 6))));
+
+        CapacitySimulator.SimulationResult first = simulator.simulateSynthetic(200, 30, 42, configurations);
+        CapacitySimulator.SimulationResult second = simulator.simulateSynthetic(200, 30, 42, configurations);
+
+        assertEquals(first.configurations(), second.configurations());
+        assertEquals(LocalDate.of(2025, 6, 15), first.from());
+        assertEquals(LocalDate.of(2025, 12, 31), first.to());
+        assertEquals(200 * 30, first.configurations().get(0).parties());
+    }
+
+    @Test
+    void testSixTopSeatsLargePartiesTwoTwoTopsCannot() {
+        // Arrange - a party of 5 at noon and one of 2 at one o'clock
+        List<CapacitySimulator.Party> day = List.of(
+                new CapacitySimulator.Party(LocalTime.NOON, 5), new CapacitySimulator.Party(LocalTime.of(13, 0), 2));
+        List<TableDTO> twoTwoTops = List.of(new TableDTO(1L, 2L), new TableDTO(2L, 2L));
+        List<TableDTO> oneSixTop = List.of(new TableDTO(1L, 6L));
+
+        // Act
+        CapacitySimulator.DayResult small = CapacitySimulator.simulateDay(day, twoTwoTops, true);
+        CapacitySimulator.DayResult large = CapacitySimulator.simulateDay(day, oneSixTop, true);
+
+        // Assert - the 5 take 75 minutes, so the 6-top is taken at one o'clock
+        assertEquals(1, small.accepted());
+        assertEquals(5, small.guestsTurnedAway());
+        assertEquals(1, large.accepted());
+        assertEquals(2, large.guestsTurnedAway());
+        assertEquals(5 * 5 * TableAssigner.MINUTES_PER_GUEST, large.guestMinutes());
+    }
+
+    @Test
+    void testHistoryReplaysBookingsAndArchiveByDateInIdOrder() {
+        // Arrange - 2025-06-01 has both 4-guest bookings, but only one 4-top
+        LocalDate first = LocalDate.of(2025, 6, 1);
+        LocalDate second = LocalDate.of(2025, 6, 2);
+        when(bookingRepository.findByLocationAndReservationDateBetween("main", first, second)).thenReturn(List.of(
+                booking(7L, first, LocalTime.NOON, 4), booking(9L, second, LocalTime.NOON, 4)));
+        when(archive.findByDateRange("main", first, second)).thenReturn(List.of(
+                booking(3L, first, LocalTime.NOON, 4)));
+        List<CapacitySimulator.Configuration> configurations = List.of(
+                new CapacitySimulator.Configuration("one 4-top", List.of(table(1, 4))));
+
+        // Act
+        CapacitySimulator.SimulationResult result = simulator.simulateHistory("main", first, second, configurations);
+
+        // Assert
+        CapacitySimulator.ConfigurationResult layout = result.configurations().get(0);
+        assertEquals("history", result.demand());
+        assertEquals(2, layout.days());
+        assertEquals(3, layout.parties());
+        assertEquals(2, layout.accepted());
+        assertEquals(4, layout.guestsTurnedAway());
+    }
+
+    @Test
+    void testHistoryDefaultsToTheNinetyDaysUpToYesterday() {
+        List<CapacitySimulator.Configuration> configurations = List.of(
+                new CapacitySimulator.Configuration("current", List.of(table(1, 4))));
+
+        CapacitySimulator.SimulationResult result = simulator.simulateHistory("main", null, null, configurations);
+
+        assertEquals(LocalDate.of(2025, 6, 14), result.to());
+        assertEquals(LocalDate.of(2025, 3, 17), result.from());
+        assertEquals(90, result.configurations().get(0).days());
+    }
+
+    @Test
+    void testInvalidConfigurationsAreRejected() {
+        List<CapacitySimulator.Configuration> current =
+                List.of(new CapacitySimulator.Configuration("current", List.of(table(1, 4))));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateSynthetic(10, 10, 1, List.of()));
+        IllegalArgumentException noDays = assertThrows(IllegalArgumentException.class,
+                () -> simulator.simulateSynthetic(0, 10, 1, current));
+        assertEquals("days must be at least 1", noDays.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateSynthetic(10, 100_000_000, 1, current));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateSynthetic(10, 10, 1,
+                List.of(new CapacitySimulator.Configuration("too big", List.of(table(1, 12))))));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateHistory("main",
+                LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 1),
+                List.of(new CapacitySimulator.Configuration("current", List.of(table(1, 4))))));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ChangeLogTailerTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    private final BookingChangeRepository changeRepository = mock(BookingChangeRepository.class);
+    private final BookingChangeTracker changeTracker = mock(BookingChangeTracker.class);
+    private final BookingArchive archive = mock(BookingArchive.class);
+    private final ChangeLogTailer tailer = new ChangeLogTailer(changeRepository, changeTracker,
+            mock(WaitlistService.class), mock(TableServiceClient.class), mock(DateLeaseManager.class),
+            mock(ContactIndex.class), mock(BookingRepository.class), archive);
+
+    // A change made by another instance whose clock is an hour behind
+    private static BookingChange change(long seq) {
+        return change(seq, BookingChange.Type.MOVED);
+    }
+
+    private static BookingChange change(long seq, BookingChange.Type type) {
+        BookingChange change = new BookingChange("main", DATE, null, type, null, null, "other-node");
+        ReflectionTestUtils.setField(change, "seq", seq);
+        ReflectionTestUtils.setField(change, "changedAt", Instant.now().minusSeconds(3600));
+        return change;
+    }
+
+    @Test
+    void testChangesAreReadBySequenceWhateverTheWritersClock() {
+        // Arrange
+        when(changeTracker.getNodeId()).thenReturn("this-node");
+        when(changeRepository.findMaxSeq()).thenReturn(10L);
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(anyLong())).thenReturn(List.of(change(11), change(12)));
+
+        // Act
+        tailer.poll();
+        tailer.poll();
+
+        // Assert - applied once each, the second poll starts after them
+        assertEquals(2, tailer.getAppliedCount());
+        verify(changeRepository).findBySeqGreaterThanOrderBySeqAsc(10L);
+        verify(changeRepository).findBySeqGreaterThanOrderBySeqAsc(12L);
+    }
+
+    @Test
+    void testArchivedChangeLoadsTheNewSegments() {
+        // Arrange
+        when(changeTracker.getNodeId()).thenReturn("this-node");
+        when(changeRepository.findMaxSeq()).thenReturn(10L);
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(10L)).thenReturn(List.of(change(11, BookingChange.Type.ARCHIVED)));
+
+        // Act
+        tailer.poll();
+
+        // Assert
+        verify(archive).refresh("main", YearMonth.from(DATE));
+    }
+
+    @Test
+    void testGapIsReadAgainUntilItCommits() {
+        // Arrange - 12 is not committed yet when 13 is visible
+        when(changeTracker.getNodeId()).thenReturn("this-node");
+        when(changeRepository.findMaxSeq()).thenReturn(11L);
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(11L))
+                .thenReturn(List.of(change(13)))
+                .thenReturn(List.of(change(12), change(13)));
+
+        // Act & Assert
+        tailer.poll();
+        assertEquals(1, tailer.getOpenGaps());
+        assertEquals(1, tailer.getAppliedCount());
+
+        tailer.poll();
+        assertEquals(0, tailer.getOpenGaps());
+        assertEquals(2, tailer.getAppliedCount());
+
+        tailer.poll();
+        verify(changeRepository).findBySeqGreaterThanOrderBySeqAsc(13L);
+    }
+
+    @Test
+    void testGapIsGivenUpAfterTheGracePeriod() throws InterruptedException {
+        // Arrange - 12 was rolled back
+        ReflectionTestUtils.setField(tailer, "commitGraceMs", 0L);
+        when(changeTracker.getNodeId()).thenReturn("this-node");
+        when(changeRepository.findMaxSeq()).thenReturn(11L);
+        when(changeRepository.findBySeqGreaterThanOrderBySeqAsc(11L)).thenReturn(List.of(change(13)));
+
+        // Act
+        tailer.poll();
+        Thread.sleep(5);
+        tailer.poll();
+        tailer.poll();
+
+        // Assert
+        assertEquals(0, tailer.getOpenGaps());
+        verify(changeRepository).findBySeqGreaterThanOrderBySeqAsc(13L);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContactIndexTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ContactIndex contactIndex = new ContactIndex(bookingRepository);
+
+    @Test
+    void testContactKeysIgnoreFormatting() {
+        assertEquals(ContactKeys.phone("555-1234"), ContactKeys.phone("(555) 1234"));
+        assertEquals("john@example.com", ContactKeys.email("  John@Example.COM "));
+    }
+
+    @Test
+    void testUnknownContactsAreDefiniteMisses() {
+        // Arrange
+        when(bookingRepository.count()).thenReturn(1L);
+        when(bookingRepository.streamAllContacts()).thenReturn(Stream.of(
+                new BookingContact("main", "john@example.com", "5551234")));
+
+        // Act
+        contactIndex.rebuild();
+
+        // Assert - lookups match regardless of formatting, and per location
+        assertTrue(contactIndex.mightHaveEmail("main", "John@example.com"));
+        assertTrue(contactIndex.mightHavePhone("main", "(555) 1234"));
+        assertFalse(contactIndex.mightHaveEmail("main", "jane@example.com"));
+        assertFalse(contactIndex.mightHavePhone("harbour", "555-1234"));
+        assertEquals(2L, contactIndex.getStatistics().get("definiteMisses"));
+    }
+
+    @Test
+    void testNewBookingsAreFoundBeforeTheNextRebuild() {
+        // Arrange
+        when(bookingRepository.streamAllContacts()).thenReturn(Stream.empty());
+        contactIndex.rebuild();
+        Booking booking = new Booking("Jane Doe", "jane@example.com", "555 9876",
+                LocalDate.now().plusDays(1), LocalTime.of(10, 0), 2);
+
+        // Act
+        contactIndex.add(booking);
+
+        // Assert
+        assertTrue(contactIndex.mightHaveEmail("main", "jane@example.com"));
+        assertTrue(contactIndex.mightHavePhone("main", "5559876"));
+    }
+
+    @Test
+    void testEverythingGoesToTheDatabaseUntilBuiltOrAfterInvalidation() {
+        // Not built yet
+        assertTrue(contactIndex.mightHaveEmail("main", "jane@example.com"));
+
+        // Built, then contacts written elsewhere became unknown
+        when(bookingRepository.streamAllContacts()).thenReturn(Stream.empty());
+        contactIndex.rebuild();
+        assertFalse(contactIndex.mightHaveEmail("main", "jane@example.com"));
+        contactIndex.invalidate();
+        assertTrue(contactIndex.mightHaveEmail("main", "jane@example.com"));
+    }
+
+    @Test
+    void testBloomFilterFalsePositiveRateIsNearTarget() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("guest" + i + "@example.com");
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("guest" + i + "@example.com"));
+            if (filter.mightContain("visitor" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Assert - about 1%, with some slack
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
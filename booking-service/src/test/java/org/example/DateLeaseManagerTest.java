@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DateLeaseManagerTest {
+
+    private final DateLeaseRepository leaseRepository = mock(DateLeaseRepository.class);
+    private final BookingChangeTracker changeTracker = mock(BookingChangeTracker.class);
+
+    @Test
+    void testLeaseIsRenewedWhileTheActionRuns() {
+        // Arrange - 60 ms leases, an action that takes several times as long (e.g. a slow table-service)
+        when(changeTracker.getNodeId()).thenReturn("node-1");
+        when(leaseRepository.tryTakeOver(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(leaseRepository.renew(anyString(), anyString(), any())).thenReturn(1);
+        DateLeaseManager leaseManager = new DateLeaseManager(leaseRepository, changeTracker);
+        ReflectionTestUtils.setField(leaseManager, "durationMs", 60L);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        // Act
+        String result = leaseManager.withLease("main", date, () -> {
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        });
+
+        // Assert - renewed along the way, released at the end, no more renewals after that
+        assertEquals("done", result);
+        verify(leaseRepository, atLeast(3)).renew(eq("main/" + date), eq("node-1"), any());
+        verify(leaseRepository).release(eq("main/" + date), eq("node-1"), any());
+        clearInvocations(leaseRepository);
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        verify(leaseRepository, never()).renew(anyString(), anyString(), any());
+    }
+}
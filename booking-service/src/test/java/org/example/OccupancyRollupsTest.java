@@ -0,0 +1,39 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyRollupsTest {
+
+    @Test
+    void testSeatMinutesCoverTheBookedSlots() {
+        // Arrange
+        long[] slots = new long[OccupancyRollups.SLOTS];
+
+        // Act - 4 guests at 10:00 sit until 11:00
+        OccupancyRollups.add(slots, LocalTime.of(10, 0), 4);
+
+        // Assert - 4 seats x 15 minutes in the four slots from 10:00
+        assertEquals(32, slots.length);
+        assertEquals(0, slots[3]);
+        assertEquals(60, slots[4]);
+        assertEquals(60, slots[7]);
+        assertEquals(0, slots[8]);
+    }
+
+    @Test
+    void testPartialSlotsAndClosingAreRespected() {
+        // Arrange
+        long[] slots = new long[OccupancyRollups.SLOTS];
+
+        // Act - 2 guests from 16:40 would sit until 17:10, after closing
+        OccupancyRollups.add(slots, LocalTime.of(16, 40), 2);
+
+        // Assert - 5 minutes in the 16:30 slot, 15 in the 16:45 slot, nothing past closing
+        assertEquals(10, slots[30]);
+        assertEquals(30, slots[31]);
+    }
+}
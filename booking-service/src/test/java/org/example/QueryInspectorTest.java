@@ -0,0 +1,66 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryInspectorTest {
+
+    private final QueryInspector inspector = new QueryInspector();
+
+    @Test
+    void testCriteriaQueriesAreKeyedBySql() {
+        // Act - a derived query: Hibernate reports no query string, the SQL was seen just before
+        inspector.inspect("select b1_0.id from bookings b1_0 where b1_0.location=?");
+        inspector.queryExecuted("<criteria>", 3, 5);
+        inspector.inspect("select b1_0.id from bookings b1_0 where b1_0.location=?");
+        inspector.queryExecuted("<criteria>", 1, 15);
+        inspector.queryExecuted("SELECT b FROM Booking b", 7, 2);
+
+        // Assert - slowest total first
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> queries = (List<Map<String, Object>>) inspector.getReport(10).get("queries");
+        assertEquals(2, queries.size());
+        Map<String, Object> derived = queries.get(0);
+        assertEquals("select b1_0.id from bookings b1_0 where b1_0.location=?", derived.get("query"));
+        assertEquals(2L, derived.get("count"));
+        assertEquals(20L, derived.get("totalMillis"));
+        assertEquals(15L, derived.get("maxMillis"));
+        assertEquals(4L, derived.get("rows"));
+        assertEquals("SELECT b FROM Booking b", queries.get(1).get("query"));
+    }
+
+    @Test
+    void testRepeatedQueryInOneRequestIsReported() {
+        // Act - the same lookup once per booking within one request
+        inspector.startUnit();
+        for (int i = 0; i < 12; i++) {
+            inspector.queryExecuted("SELECT t FROM Table t WHERE t.id = :id", 1, 0);
+        }
+        inspector.queryExecuted("SELECT b FROM Booking b", 12, 1);
+        inspector.finishUnit("GET /api/bookings");
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> warnings = (List<Map<String, Object>>) inspector.getReport(10).get("nPlusOneWarnings");
+        assertEquals(1, warnings.size());
+        assertEquals("GET /api/bookings", warnings.get(0).get("unit"));
+        assertEquals(12, warnings.get(0).get("times"));
+    }
+
+    @Test
+    void testQueriesOutsideARequestAreNotReported() {
+        // Act - e.g. a scheduled job
+        for (int i = 0; i < 12; i++) {
+            inspector.queryExecuted("SELECT t FROM Table t WHERE t.id = :id", 1, 0);
+        }
+
+        // Assert
+        assertTrue(((List<?>) inspector.getReport(10).get("nPlusOneWarnings")).isEmpty());
+        inspector.reset();
+        assertTrue(((List<?>) inspector.getReport(10).get("queries")).isEmpty());
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTest {
+
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(
+            new MockEnvironment().withProperty("rate-limit.api-keys", "pos-terminal-1, pos-terminal-2"));
+
+    private static MockHttpServletRequest request(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/available-times/2025-10-15");
+        request.setRemoteAddr("203.0.113.7");
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+
+    @Test
+    void testKnownApiKeyGetsItsOwnBucket() {
+        assertEquals("key:pos-terminal-2", interceptor.clientKey(request("pos-terminal-2")));
+    }
+
+    @Test
+    void testCapacityEndpointIsLimited() throws Exception {
+        // Arrange - a burst of 2
+        RateLimitInterceptor limited = new RateLimitInterceptor(new MockEnvironment()
+                .withProperty("rate-limit.capacity.capacity", "2")
+                .withProperty("rate-limit.capacity.refill-per-second", "0.001"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/capacity/2025-10-15");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // Act & Assert
+        assertTrue(limited.preHandle(request, new MockHttpServletResponse(), null));
+        assertTrue(limited.preHandle(request, new MockHttpServletResponse(), null));
+        assertFalse(limited.preHandle(request, rejected, null));
+        assertEquals(429, rejected.getStatus());
+        assertEquals(1L, limited.getStatistics().get(RateLimitInterceptor.CAPACITY).get("rejected"));
+    }
+
+    @Test
+    void testUnknownOrMissingApiKeyFallsBackToTheIp() {
+        // A new random key per request must not mean a fresh bucket
+        assertEquals("ip:203.0.113.7", interceptor.clientKey(request("random-1234")));
+        assertEquals("ip:203.0.113.7", interceptor.clientKey(request("")));
+        assertEquals("ip:203.0.113.7", interceptor.clientKey(request(null)));
+    }
+}
@@ -0,0 +1,141 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> flight = new SingleFlight<>();
+    private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Starts a call whose work blocks until release, returning once the work is running
+    private Future<Integer> startBlocked(CountDownLatch release, AtomicInteger runs, RuntimeException failure)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<Integer> leader = executor.submit(() -> flight.execute("day", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return 42;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    private void awaitWaiting(int callers) throws InterruptedException {
+        // Followers are parked on the shared future; give them a moment to get there
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && executor.getActiveCount() < callers) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+    }
+
+    @Test
+    void testConcurrentCallersShareOneExecution() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Future<Integer> leader = startBlocked(release, runs, null);
+        List<Future<Integer>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(executor.submit(() -> flight.execute("day", () -> runs.incrementAndGet() + 100)));
+        }
+        awaitWaiting(4);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Integer> follower : followers) {
+            assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1, flight.getExecutions());
+        assertEquals(3, flight.getShared());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void testErrorsReachAllCallersAndAreNotKept() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Future<Integer> leader = startBlocked(release, runs, new IllegalStateException("inventory down"));
+        Future<Integer> follower = executor.submit(() -> flight.execute("day", () -> 0));
+        awaitWaiting(2);
+
+        // Act
+        release.countDown();
+
+        // Assert - both see the same exception, the next call runs the work again
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("inventory down", leaderError.getCause().getMessage());
+        assertInstanceOf(IllegalStateException.class, followerError.getCause());
+        assertEquals("inventory down", followerError.getCause().getMessage());
+        assertEquals(7, flight.execute("day", () -> 7));
+    }
+
+    @Test
+    void testInterruptedFollowerDoesNotCancelTheWork() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Future<Integer> leader = startBlocked(release, runs, null);
+        Future<Integer> follower = executor.submit(() -> flight.execute("day", () -> 0));
+        awaitWaiting(2);
+
+        // Act
+        follower.cancel(true);
+        release.countDown();
+
+        // Assert
+        assertThrows(CancellationException.class, follower::get);
+        assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testFollowersRetryWhenTheLeaderIsInterrupted() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Future<Integer> leader = startBlocked(release, runs, null);
+        Future<Integer> follower = executor.submit(() -> flight.execute("day", () -> runs.incrementAndGet() + 100));
+        awaitWaiting(2);
+
+        // Act
+        leader.cancel(true);
+
+        // Assert - the follower runs the work itself instead of failing with the leader
+        assertEquals(102, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, runs.get());
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SlotSuggesterTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    private static TableSchedule occupied(int table, LocalTime start, int guests) {
+        return occupied(DATE, table, start, guests);
+    }
+
+    private static TableSchedule occupied(LocalDate date, int table, LocalTime start, int guests) {
+        TableSchedule schedule = new TableSchedule("main", date, table);
+        occupy(schedule, start, guests);
+        return schedule;
+    }
+
+    private static void occupy(TableSchedule schedule, LocalTime start, int guests) {
+        Booking booking = new Booking("Guest", "guest@example.com", "555-0000", schedule.getReservationDate(), start, guests);
+        booking.setId((long) schedule.getTableNumber() * 100 + start.getHour());
+        booking.setTableNumber(schedule.getTableNumber());
+        schedule.occupy(booking);
+    }
+
+    @Test
+    void testOnlyTablesLargeEnoughForThePartyCount() {
+        // Arrange - the 2-seat table is free all day, the 6-seat table is taken 09:00-16:00
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(4L, 6L));
+        List<TableSchedule> day = List.of(occupied(4, LocalTime.of(9, 0), 28));
+
+        // Act
+        boolean[] free = SlotSuggester.freeStarts(day, tables, 3);
+
+        // Assert - 3 guests need 45 minutes: 16:00 and 16:15 on table 4 only
+        List<LocalTime> times = SlotSuggester.nearest(free, LocalTime.of(12, 0), false, 10, null);
+        assertEquals(List.of(LocalTime.of(16, 0), LocalTime.of(16, 15)), times);
+    }
+
+    @Test
+    void testNearestFirstAndEarlierOnTies() {
+        // Arrange - one table, taken 11:00-12:00
+        List<TableDTO> tables = List.of(new TableDTO(1L, 4L));
+        List<TableSchedule> day = List.of(occupied(1, LocalTime.of(11, 0), 4));
+        boolean[] free = SlotSuggester.freeStarts(day, tables, 2);
+
+        // Act
+        List<LocalTime> times = SlotSuggester.nearest(free, LocalTime.of(11, 15), false, 3, null);
+
+        // Assert - 10:30 (ends at 11:00) and 12:00 are both 45 minutes away
+        assertEquals(List.of(LocalTime.of(10, 30), LocalTime.of(12, 0), LocalTime.of(10, 15)), times);
+    }
+
+    @Test
+    void testSkipsSlotsBeforeNotBefore() {
+        boolean[] free = SlotSuggester.freeStarts(List.of(), List.of(new TableDTO(1L, 2L)), 1);
+
+        List<LocalTime> times = SlotSuggester.nearest(free, LocalTime.of(9, 0), false, 2, LocalTime.of(14, 5));
+
+        assertEquals(List.of(LocalTime.of(14, 15), LocalTime.of(14, 30)), times);
+    }
+
+    @Test
+    void testRequestedTimeIsSuggestedOnAdjacentDays() {
+        // Arrange - one 4-seat table, taken all day around the requested date except 12:00-13:00 the day after
+        ScheduleProjection scheduleProjection = mock(ScheduleProjection.class);
+        TableServiceClient tableServiceClient = mock(TableServiceClient.class);
+        when(tableServiceClient.fetchTables("main")).thenReturn(List.of(new TableDTO(1L, 4L)));
+        LocalDate before = DATE.minusDays(1);
+        LocalDate after = DATE.plusDays(1);
+        when(scheduleProjection.getDay("main", before)).thenReturn(List.of(occupied(before, 1, LocalTime.of(9, 0), 32)));
+        when(scheduleProjection.getDay("main", DATE)).thenReturn(List.of(occupied(1, LocalTime.of(9, 0), 32)));
+        TableSchedule nextDay = occupied(after, 1, LocalTime.of(9, 0), 12);
+        occupy(nextDay, LocalTime.of(13, 0), 16);
+        when(scheduleProjection.getDay("main", after)).thenReturn(List.of(nextDay));
+        SlotSuggester suggester = new SlotSuggester(scheduleProjection, tableServiceClient);
+
+        // Act
+        List<SlotSuggester.Alternative> alternatives = suggester.suggest("main", DATE, LocalTime.NOON, 4, 5, 1);
+
+        // Assert
+        assertEquals(List.of(new SlotSuggester.Alternative(after, LocalTime.NOON)), alternatives);
+    }
+
+    @Test
+    void testMaxGuestsPerSlot() {
+        // Arrange - the 6-seat table is taken 11:00-12:00, the 2-seat table is free all day
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(4L, 6L));
+        List<TableSchedule> day = List.of(occupied(4, LocalTime.of(11, 0), 4));
+
+        // Act
+        int[] maxGuests = SlotSuggester.maxGuests(day, tables);
+
+        // Assert - before 11:00 a party must leave by 11:00, during it only the 2-seat table is free
+        assertEquals(6, maxGuests[0]);   // 09:00
+        assertEquals(4, maxGuests[4]);   // 10:00, 60 minutes left
+        assertEquals(2, maxGuests[7]);   // 10:45
+        assertEquals(2, maxGuests[8]);   // 11:00
+        assertEquals(6, maxGuests[12]);  // 12:00
+        assertEquals(1, maxGuests[31]);  // 16:45
+    }
+
+    @Test
+    void testMaxGuestsAgreesWithFreeStarts() {
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(2L, 4L), new TableDTO(3L, 9L));
+        List<TableSchedule> day = List.of(occupied(1, LocalTime.of(9, 30), 2), occupied(2, LocalTime.of(13, 0), 4),
+                occupied(3, LocalTime.of(10, 0), 9));
+
+        int[] maxGuests = SlotSuggester.maxGuests(day, tables);
+
+        for (int guests = 1; guests <= 9; guests++) {
+            boolean[] free = SlotSuggester.freeStarts(day, tables, guests);
+            for (int slot = 0; slot < free.length; slot++) {
+                assertEquals(free[slot], maxGuests[slot] >= guests, "slot " + slot + ", " + guests + " guest(s)");
+            }
+        }
+    }
+}
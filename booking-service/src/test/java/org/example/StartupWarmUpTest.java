@@ -0,0 +1,81 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StartupWarmUpTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final TableServiceClient tableServiceClient = mock(TableServiceClient.class);
+    private final DataSource dataSource = mock(DataSource.class);
+    private final List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(4L, 6L), new TableDTO(8L, 9L));
+
+    // No local.server.port in the environment, so no requests to the API
+    private StartupWarmUp warmUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        return new StartupWarmUp(bookingRepository, tableServiceClient, mock(RestTemplate.class), objectMapper,
+                dataSource, new MockEnvironment());
+    }
+
+    @Test
+    void testSyntheticDaySeatsPartiesWithoutOverlaps() {
+        List<Booking> day = StartupWarmUp.syntheticDay(tables, new Random(1));
+
+        assertFalse(day.isEmpty());
+        for (Booking booking : day) {
+            LocalTime end = TableAssigner.endTime(booking.getReservationTime(), booking.getNumberOfGuests());
+            List<Booking> others = day.stream().filter(other -> other != booking).toList();
+            assertTrue(TableAssigner.isTableAvailable(booking.getTableNumber(), booking.getReservationTime(), end, others));
+            assertEquals(StartupWarmUp.SCRATCH_DATE, booking.getReservationDate());
+        }
+    }
+
+    @Test
+    void testWarmUpRunsTheConfiguredRounds() throws Exception {
+        // Arrange
+        when(tableServiceClient.fetchTables("main")).thenReturn(tables);
+        StartupWarmUp warmUp = warmUp();
+        ReflectionTestUtils.setField(warmUp, "maxRounds", 5);
+
+        // Act
+        StartupWarmUp.Report report = warmUp.warmUp();
+
+        // Assert
+        assertEquals(5, report.rounds());
+        assertEquals(0, report.failures());
+        assertFalse(report.timedOut());
+        verify(bookingRepository, times(5)).findByLocationAndReservationDate("main", StartupWarmUp.SCRATCH_DATE);
+    }
+
+    @Test
+    void testWarmUpIsCutOffAtTheTimeLimit() throws Exception {
+        // Arrange - table-service hangs
+        when(tableServiceClient.fetchTables("main")).thenAnswer(invocation -> {
+            Thread.sleep(60_000);
+            return tables;
+        });
+        StartupWarmUp warmUp = warmUp();
+        ReflectionTestUtils.setField(warmUp, "maxDurationMs", 200L);
+
+        // Act
+        StartupWarmUp.Report report = warmUp.warmUp();
+
+        // Assert
+        assertTrue(report.timedOut());
+        assertTrue(report.durationMs() < 5_000, "took " + report.durationMs() + " ms");
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableReassignmentJobTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(7);
+
+    private static Booking booking(long id, LocalTime time, int guests, Integer table) {
+        Booking booking = new Booking("Guest " + id, "guest" + id + "@example.com", "555-000" + id, DATE, time, guests);
+        booking.setId(id);
+        booking.setTableNumber(table);
+        return booking;
+    }
+
+    @Test
+    void testBookingOnRemovedTableMovesToSmallestFreeTable() {
+        // Arrange - table 5 was removed, table 4 is taken at that time
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(4L, 6L), new TableDTO(6L, 6L));
+        Booking displaced = booking(1, LocalTime.of(12, 0), 4, 5);
+        Booking other = booking(2, LocalTime.of(12, 0), 3, 4);
+
+        // Act
+        TableReassignmentJob.DayPlan plan = TableReassignmentJob.plan(List.of(displaced, other), tables, null);
+
+        // Assert - only the displaced booking moves
+        assertEquals(Map.of(displaced, 6), plan.moves());
+        assertTrue(plan.unplaced().isEmpty());
+    }
+
+    @Test
+    void testBookingOnShrunkTableIsReportedWhenNothingFits() {
+        // Arrange - table 4 now seats 2, and the only other 6-seat table is taken
+        List<TableDTO> tables = List.of(new TableDTO(4L, 2L), new TableDTO(6L, 6L));
+        Booking displaced = booking(1, LocalTime.of(12, 0), 4, 4);
+        Booking other = booking(2, LocalTime.of(12, 30), 5, 6);
+
+        // Act
+        TableReassignmentJob.DayPlan plan = TableReassignmentJob.plan(List.of(displaced, other), tables, null);
+
+        // Assert
+        assertTrue(plan.moves().isEmpty());
+        assertEquals(List.of(displaced), plan.unplaced());
+    }
+
+    @Test
+    void testDayIsRepackedWhenMovingOnlyDisplacedBookingsIsNotEnough() {
+        // Arrange - table 9 was removed; its party of 6 only fits if the pair on table 6 moves to table 1
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(6L, 6L));
+        Booking displaced = booking(1, LocalTime.of(12, 0), 6, 9);
+        Booking pair = booking(2, LocalTime.of(12, 0), 2, 6);
+
+        // Act
+        TableReassignmentJob.DayPlan plan = TableReassignmentJob.plan(List.of(displaced, pair), tables, null);
+
+        // Assert
+        assertEquals(Map.of(displaced, 6, pair, 1), plan.moves());
+        assertTrue(plan.unplaced().isEmpty());
+    }
+
+    @Test
+    void testBookingsThatAlreadyStartedAreNotMoved() {
+        // Arrange
+        List<TableDTO> tables = List.of(new TableDTO(6L, 6L));
+        Booking started = booking(1, LocalTime.of(10, 0), 4, 5);
+
+        // Act
+        TableReassignmentJob.DayPlan plan = TableReassignmentJob.plan(List.of(started), tables, LocalTime.of(10, 30));
+
+        // Assert
+        assertTrue(plan.moves().isEmpty());
+        assertTrue(plan.unplaced().isEmpty());
+    }
+
+    @Test
+    void testDisplacedBookings() {
+        Map<Integer, Long> sizes = Map.of(1, 2L, 4, 6L);
+
+        assertFalse(TableReassignmentJob.isDisplaced(booking(1, LocalTime.of(10, 0), 2, 1), sizes));
+        assertTrue(TableReassignmentJob.isDisplaced(booking(2, LocalTime.of(10, 0), 3, 1), sizes));
+        assertTrue(TableReassignmentJob.isDisplaced(booking(3, LocalTime.of(10, 0), 2, 9), sizes));
+        assertFalse(TableReassignmentJob.isDisplaced(booking(4, LocalTime.of(10, 0), 2, null), sizes));
+    }
+}
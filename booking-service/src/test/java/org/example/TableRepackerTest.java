@@ -0,0 +1,79 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableRepackerTest {
+
+    private Booking booking(long id, LocalTime time, int guests, Integer table) {
+        Booking booking = new Booking("Guest " + id, "guest" + id + "@example.com", "555-1234",
+                LocalDate.now().plusDays(7), time, guests);
+        booking.setId(id);
+        booking.setTableNumber(table);
+        return booking;
+    }
+
+    @Test
+    void testRepackMakesRoomForLargeParty() {
+        // Arrange - 10:00-11:00 on table 4 and 11:00-12:00 on table 5, so a
+        // party of 6 at 10:30 fits on neither
+        List<TableDTO> tables = List.of(new TableDTO(4L, 6L), new TableDTO(5L, 6L));
+        Booking first = booking(1, LocalTime.of(10, 0), 4, 4);
+        Booking second = booking(2, LocalTime.of(11, 0), 4, 5);
+        Booking newParty = booking(3, LocalTime.of(10, 30), 6, null);
+
+        assertNull(TableAssigner.findTable(tables, List.of(first, second), 6, LocalTime.of(10, 30)));
+
+        // Act
+        TableRepacker.Plan plan = TableRepacker.plan(List.of(first, second), tables, newParty, null);
+
+        // Assert - the 11:00 booking moves after the 10:00 one, freeing table 5
+        assertTrue(plan.complete());
+        assertEquals(4, plan.tableFor(first));
+        assertEquals(4, plan.tableFor(second));
+        assertEquals(5, plan.tableFor(newParty));
+    }
+
+    @Test
+    void testRepackNeverMovesPartyToSmallerTable() {
+        // Arrange
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(4L, 6L));
+        Booking booking = booking(1, LocalTime.of(10, 0), 4, 4);
+
+        // Act
+        TableRepacker.Plan plan = TableRepacker.plan(List.of(booking), tables, null, null);
+
+        // Assert
+        assertTrue(plan.complete());
+        assertEquals(4, plan.tableFor(booking));
+    }
+
+    @Test
+    void testStartedBookingsArePinned() {
+        // Arrange - the 10:00 booking has started and sits on the larger table
+        List<TableDTO> tables = List.of(new TableDTO(1L, 2L), new TableDTO(4L, 6L));
+        Booking started = booking(1, LocalTime.of(10, 0), 2, 4);
+
+        // Act
+        TableRepacker.Plan plan = TableRepacker.plan(List.of(started), tables, null, LocalTime.of(10, 30));
+
+        // Assert - not moved although table 1 would be a tighter fit
+        assertEquals(4, plan.tableFor(started));
+    }
+
+    @Test
+    void testIncompletePlanWhenPartyCannotBeSeated() {
+        // Arrange
+        List<TableDTO> tables = List.of(new TableDTO(4L, 6L));
+        Booking existing = booking(1, LocalTime.of(10, 0), 4, 4);
+        Booking newParty = booking(2, LocalTime.of(10, 0), 4, null);
+
+        // Act & Assert
+        assertFalse(TableRepacker.plan(List.of(existing), tables, newParty, null).complete());
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableScheduleTest {
+
+    private static Booking booking(long id, String time, int guests) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setReservationDate(LocalDate.of(2025, 6, 1));
+        booking.setReservationTime(LocalTime.parse(time));
+        booking.setNumberOfGuests(guests);
+        return booking;
+    }
+
+    @Test
+    void testIntervalsAreKeptInStartOrder() {
+        // Arrange
+        TableSchedule schedule = new TableSchedule("main", LocalDate.of(2025, 6, 1), 4);
+
+        // Act
+        schedule.occupy(booking(2, "12:00", 2));
+        schedule.occupy(booking(1, "09:30", 4));
+
+        // Assert
+        assertEquals(List.of(
+                new TableSchedule.Interval(LocalTime.of(9, 30), LocalTime.of(10, 30), 1L),
+                new TableSchedule.Interval(LocalTime.of(12, 0), LocalTime.of(12, 30), 2L)), schedule.getOccupied());
+    }
+
+    @Test
+    void testUpdatedBookingReplacesItsInterval() {
+        // Arrange
+        TableSchedule schedule = new TableSchedule("main", LocalDate.of(2025, 6, 1), 4);
+        schedule.occupy(booking(1, "09:30", 4));
+
+        // Act - moved to 14:00 with fewer guests
+        schedule.occupy(booking(1, "14:00", 2));
+
+        // Assert
+        assertEquals(List.of(new TableSchedule.Interval(LocalTime.of(14, 0), LocalTime.of(14, 30), 1L)),
+                schedule.getOccupied());
+    }
+
+    @Test
+    void testReleaseOnlyAffectsBookingsOnTheTable() {
+        // Arrange
+        TableSchedule schedule = new TableSchedule("main", LocalDate.of(2025, 6, 1), 4);
+        schedule.occupy(booking(1, "09:30", 4));
+
+        // Act & Assert
+        assertFalse(schedule.release(7L));
+        assertFalse(schedule.isEmpty());
+        assertTrue(schedule.release(1L));
+        assertTrue(schedule.isEmpty());
+        assertTrue(schedule.getOccupied().isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testBurstUpToCapacityThenRejected() {
+        // Arrange - 3 requests burst, 1 per second refill, clock frozen
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1.0, clock::get);
+
+        // Act & Assert
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(SECOND, limiter.tryAcquire("client")); // next token in one second
+
+        assertEquals(3, limiter.getAllowedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testTokensRefillOverTime() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 2.0, clock::get);
+        limiter.tryAcquire("client");
+        limiter.tryAcquire("client");
+        assertTrue(limiter.tryAcquire("client") > 0);
+
+        // Act - half a second refills one token at 2 per second
+        clock.addAndGet(SECOND / 2);
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertTrue(limiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1.0, clock::get);
+
+        // Act & Assert - one client running out does not affect another
+        assertEquals(0, limiter.tryAcquire("ip:10.0.0.1"));
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1") > 0);
+        assertEquals(0, limiter.tryAcquire("ip:10.0.0.2"));
+    }
+}
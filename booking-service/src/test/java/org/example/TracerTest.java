@@ -0,0 +1,124 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private final TraceCollector collector = new TraceCollector(new ObjectMapper(), "");
+    private final Tracer tracer = new Tracer(collector);
+
+    @Test
+    void testIncomingTraceparentIsContinued() {
+        // Arrange - a trusted caller, e.g. booking-service calling table-service
+        ReflectionTestUtils.setField(tracer, "trustIncomingSampling", true);
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+        // Act
+        try (Span root = tracer.startTrace("GET /api/bookings", traceparent)) {
+            try (Span child = tracer.span("assign-table")) {
+                child.tag("table", 4);
+                assertTrue(child.traceparent().startsWith("00-4bf92f3577b34da6a3ce929d0e0e4736-"));
+            }
+            assertSame(root, tracer.current());
+        }
+
+        // Assert - both spans recorded under the caller's trace id, the root under the caller's span
+        Map<String, Object> trace = collector.getTrace("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertNotNull(trace);
+        assertEquals("GET /api/bookings", trace.get("name"));
+        @SuppressWarnings("unchecked")
+        List<TraceCollector.SpanRecord> spans = (List<TraceCollector.SpanRecord>) trace.get("spans");
+        assertEquals(2, spans.size());
+        TraceCollector.SpanRecord root = spans.get(0);
+        TraceCollector.SpanRecord child = spans.get(1);
+        assertEquals("00f067aa0ba902b7", root.parentId());
+        assertEquals(root.spanId(), child.parentId());
+        assertEquals("4", child.attributes().get("table"));
+        assertFalse(tracer.current().isSampled());
+    }
+
+    @Test
+    void testUnsampledRequestRecordsNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(tracer, "sampleRate", 0.0);
+
+        // Act
+        Span root = tracer.startTrace("GET /api/bookings", null);
+        Span child = tracer.span("assign-table");
+        child.tag("table", 4).close();
+        tracer.clear();
+
+        // Assert
+        assertFalse(root.isSampled());
+        assertFalse(child.isSampled());
+        assertTrue(collector.getTraces(10).isEmpty());
+    }
+
+    @Test
+    void testCallerCanOptOutOfSampling() {
+        // Arrange - everything would be sampled, but the caller's flags say not sampled
+        ReflectionTestUtils.setField(tracer, "sampleRate", 1.0);
+
+        // Act
+        Span root = tracer.startTrace("GET /api/bookings", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00");
+        tracer.clear();
+
+        // Assert
+        assertFalse(root.isSampled());
+    }
+
+    @Test
+    void testUntrustedCallerCannotForceSampling() {
+        // Arrange
+        ReflectionTestUtils.setField(tracer, "sampleRate", 0.0);
+
+        // Act
+        Span root = tracer.startTrace("GET /api/bookings", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        tracer.clear();
+
+        // Assert
+        assertFalse(root.isSampled());
+    }
+
+    @Test
+    void testSampledIsBitZeroOfTheFlags() {
+        // Arrange
+        ReflectionTestUtils.setField(tracer, "trustIncomingSampling", true);
+        ReflectionTestUtils.setField(tracer, "sampleRate", 0.0);
+        String prefix = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-";
+
+        // Act & Assert - 03 has bit 0 set, 10 does not, zz is malformed and falls back to the sample rate
+        Span odd = tracer.startTrace("GET /api/bookings", prefix + "03");
+        assertTrue(odd.isSampled());
+        odd.close();
+        assertFalse(tracer.startTrace("GET /api/bookings", prefix + "10").isSampled());
+        tracer.clear();
+        assertFalse(tracer.startTrace("GET /api/bookings", prefix + "zz").isSampled());
+        tracer.clear();
+    }
+
+    @Test
+    void testOnlyMostRecentTracesAreKept() {
+        // Arrange
+        ReflectionTestUtils.setField(tracer, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(collector, "maxTraces", 2);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            tracer.startTrace("request " + i, null).close();
+        }
+
+        // Assert - newest first
+        List<Map<String, Object>> traces = collector.getTraces(10);
+        assertEquals(2, traces.size());
+        assertEquals("request 2", traces.get(0).get("name"));
+        assertEquals("request 1", traces.get(1).get("name"));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WaitlistServiceTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(2);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingWriter bookingWriter = mock(BookingWriter.class);
+    private final WaitlistEntryRepository waitlistRepository = mock(WaitlistEntryRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TransactionStatus transaction = mock(TransactionStatus.class);
+    private final WaitlistService waitlistService =
+            new WaitlistService(bookingRepository, bookingWriter, waitlistRepository, transactionManager);
+
+    private WaitlistEntry waitingParty() {
+        Booking booking = new Booking("Jane Smith", "jane@example.com", "555-9876", DATE, LocalTime.of(10, 0), 4);
+        booking.setLocation("main");
+        WaitlistEntry entry = new WaitlistEntry(booking, LocalTime.of(10, 0), LocalTime.of(10, 0), Instant.now());
+        ReflectionTestUtils.setField(entry, "id", 7L);
+        return entry;
+    }
+
+    @Test
+    void testFailedBookingRollsBackAndKeepsThePartyWaiting() {
+        // Arrange - the table is free, but the insert times out (not a constraint violation)
+        WaitlistEntry entry = waitingParty();
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        when(waitlistRepository.findByLocationAndReservationDateAndStatusOrderByRequestedAtAscNumberOfGuestsDescIdAsc(
+                eq("main"), eq(DATE), eq(WaitlistEntry.Status.WAITING), any(Pageable.class))).thenReturn(List.of(entry));
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(returnsFirstArg());
+        when(bookingRepository.findByLocationAndReservationDate("main", DATE)).thenReturn(List.of());
+        when(bookingWriter.create(any(Booking.class))).thenThrow(new QueryTimeoutException("lock timeout"));
+
+        // Act
+        List<Booking> promoted = waitlistService.promote("main", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0),
+                List.of(new TableDTO(1L, 6L)));
+
+        // Assert - the claim is rolled back with the booking, the party is still waiting
+        assertTrue(promoted.isEmpty());
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+        assertEquals(WaitlistEntry.Status.WAITING, entry.getStatus());
+        assertNull(entry.getBookingId());
+    }
+}
@@ -0,0 +1,254 @@
+package org.example;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-query statistics collected from Hibernate's statistics callbacks, cheap enough to leave
+ * on in production (unlike spring.jpa.show-sql, which prints every statement).
+ *
+ * - Every query is counted with its total and max execution time and rows fetched. Queries are
+ *   keyed by their JPQL, or by their SQL for Spring Data derived (criteria) queries, which
+ *   Hibernate reports without a query string.
+ * - Queries slower than query-inspector.slow-query-ms are logged when they finish.
+ * - Within a request (see QueryInspectorFilter), a query or entity load repeated
+ *   query-inspector.n-plus-one-threshold times or more is reported as a likely N+1 pattern.
+ *
+ * Hibernate creates its statistics object through this class (hibernate.stats.factory), which
+ * is how the callbacks reach it.
+ */
+@Component
+public class QueryInspector implements StatisticsFactory, StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final int MAX_WARNINGS = 50;
+
+    private static final class QueryStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxMillis = new AtomicLong();
+    }
+
+    private final ConcurrentHashMap<String, QueryStats> queries = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> warnings = new ArrayDeque<>();
+    private final ThreadLocal<String> lastSql = new ThreadLocal<>();
+    // Query and load counts of the request the current thread is handling, null outside of one
+    private final ThreadLocal<Map<String, Integer>> unitCounts = new ThreadLocal<>();
+    private volatile Statistics statistics;
+    private volatile Instant since = Instant.now();
+
+    @Value("${query-inspector.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${query-inspector.slow-query-ms:200}")
+    private long slowQueryMillis = 200;
+
+    @Value("${query-inspector.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold = 10;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (enabled) {
+            hibernateProperties.put("hibernate.generate_statistics", "true");
+            hibernateProperties.put("hibernate.stats.factory", this);
+            hibernateProperties.put("hibernate.session_factory.statement_inspector", this);
+        }
+    }
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        InspectingStatistics built = new InspectingStatistics(sessionFactory);
+        statistics = built;
+        return built;
+    }
+
+    // Remembers the SQL the current thread is about to run, to name criteria queries
+    @Override
+    public String inspect(String sql) {
+        lastSql.set(sql);
+        return sql;
+    }
+
+    void queryExecuted(String query, int rows, long millis) {
+        String key = query == null || query.startsWith("<") ? lastSql.get() : query;
+        if (key == null) {
+            key = String.valueOf(query);
+        }
+        QueryStats stats = queries.computeIfAbsent(key, k -> new QueryStats());
+        stats.count.increment();
+        stats.totalMillis.add(millis);
+        stats.rows.add(rows);
+        stats.maxMillis.accumulateAndGet(millis, Math::max);
+
+        if (millis >= slowQueryMillis) {
+            System.err.println("Slow query (" + millis + " ms, " + rows + " rows): " + key);
+        }
+        count("query: " + key);
+    }
+
+    private void count(String key) {
+        Map<String, Integer> counts = unitCounts.get();
+        if (counts != null) {
+            counts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Starts counting the queries of a unit of work (a request) on the current thread.
+     */
+    public void startUnit() {
+        unitCounts.set(new HashMap<>());
+    }
+
+    /**
+     * Ends the current thread's unit of work and reports repeated queries and loads in it.
+     *
+     * @param name The unit of work, e.g. "GET /api/bookings"
+     */
+    public void finishUnit(String name) {
+        Map<String, Integer> counts = unitCounts.get();
+        unitCounts.remove();
+        if (counts == null) {
+            return;
+        }
+        counts.forEach((key, times) -> {
+            if (times >= nPlusOneThreshold) {
+                System.err.println("Possible N+1 in " + name + ": " + times + " x " + key);
+                Map<String, Object> warning = new LinkedHashMap<>();
+                warning.put("at", Instant.now().toString());
+                warning.put("unit", name);
+                warning.put("times", times);
+                warning.put("statement", key);
+                synchronized (warnings) {
+                    warnings.addFirst(warning);
+                    while (warnings.size() > MAX_WARNINGS) {
+                        warnings.removeLast();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Query statistics (slowest total time first), entity statistics and recent N+1 warnings.
+     */
+    public Map<String, Object> getReport(int limit) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", statistics != null);
+        report.put("since", since.toString());
+        report.put("slowQueryMillis", slowQueryMillis);
+
+        List<Map<String, Object>> queryList = new ArrayList<>();
+        queries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStats> e) -> e.getValue().totalMillis.sum()).reversed())
+                .limit(limit)
+                .forEach(e -> {
+                    QueryStats stats = e.getValue();
+                    long count = stats.count.sum();
+                    Map<String, Object> query = new LinkedHashMap<>();
+                    query.put("query", e.getKey());
+                    query.put("count", count);
+                    query.put("totalMillis", stats.totalMillis.sum());
+                    query.put("avgMillis", count == 0 ? 0 : (double) stats.totalMillis.sum() / count);
+                    query.put("maxMillis", stats.maxMillis.get());
+                    query.put("rows", stats.rows.sum());
+                    queryList.add(query);
+                });
+        report.put("queries", queryList);
+
+        Statistics current = statistics;
+        if (current != null) {
+            Map<String, Object> totals = new LinkedHashMap<>();
+            totals.put("statementsPrepared", current.getPrepareStatementCount());
+            totals.put("queriesExecuted", current.getQueryExecutionCount());
+            totals.put("entitiesLoaded", current.getEntityLoadCount());
+            totals.put("entitiesFetched", current.getEntityFetchCount());
+            totals.put("collectionsFetched", current.getCollectionFetchCount());
+            totals.put("transactions", current.getTransactionCount());
+            report.put("totals", totals);
+
+            Map<String, Object> entities = new LinkedHashMap<>();
+            for (String entityName : current.getEntityNames()) {
+                EntityStatistics stats = current.getEntityStatistics(entityName);
+                Map<String, Object> entity = new LinkedHashMap<>();
+                entity.put("loads", stats.getLoadCount());
+                entity.put("fetches", stats.getFetchCount());
+                entity.put("inserts", stats.getInsertCount());
+                entity.put("updates", stats.getUpdateCount());
+                entity.put("deletes", stats.getDeleteCount());
+                entities.put(entityName.substring(entityName.lastIndexOf('.') + 1), entity);
+            }
+            report.put("entities", entities);
+        }
+
+        synchronized (warnings) {
+            report.put("nPlusOneWarnings", new ArrayList<>(warnings));
+        }
+        return report;
+    }
+
+    public void reset() {
+        queries.clear();
+        synchronized (warnings) {
+            warnings.clear();
+        }
+        Statistics current = statistics;
+        if (current != null) {
+            current.clear();
+        }
+        since = Instant.now();
+    }
+
+    // Hibernate's own statistics, also passing queries and loads on to the inspector
+    private class InspectingStatistics extends StatisticsImpl {
+
+        InspectingStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void queryExecuted(String hql, int rows, long time) {
+            super.queryExecuted(hql, rows, time);
+            QueryInspector.this.queryExecuted(hql, rows, time);
+        }
+
+        @Override
+        public void loadEntity(String entityName) {
+            super.loadEntity(entityName);
+            count("load: " + entityName);
+        }
+
+        @Override
+        public void fetchEntity(String entityName) {
+            super.fetchEntity(entityName);
+            count("fetch: " + entityName);
+        }
+
+        @Override
+        public void fetchCollection(String role) {
+            super.fetchCollection(role);
+            count("fetch: " + role);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Makes each API request a unit of work for the QueryInspector's N+1 detection.
+ */
+@Component
+public class QueryInspectorFilter extends OncePerRequestFilter {
+
+    private final QueryInspector queryInspector;
+
+    public QueryInspectorFilter(QueryInspector queryInspector) {
+        this.queryInspector = queryInspector;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        queryInspector.startUnit();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            queryInspector.finishUnit(request.getMethod() + " " + request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Query statistics of this service (see QueryInspector).
+ */
+@RestController
+@RequestMapping("/api/admin/queries")
+public class QueryStatisticsRestController {
+
+    private final QueryInspector queryInspector;
+
+    public QueryStatisticsRestController(QueryInspector queryInspector) {
+        this.queryInspector = queryInspector;
+    }
+
+    @GetMapping
+    public Map<String, Object> getQueryStatistics(@RequestParam(defaultValue = "50") int limit) {
+        return queryInspector.getReport(Math.max(1, limit));
+    }
+
+    // Start measuring afresh, e.g. before a load test
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        queryInspector.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
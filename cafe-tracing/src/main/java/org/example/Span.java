@@ -0,0 +1,82 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed operation within a trace. Use with try-with-resources:
+ *
+ *   try (Span span = tracer.span("assign-table")) { ... }
+ *
+ * Operations of unsampled requests get the shared NOOP span, which records nothing.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, null, null, null, null);
+
+    private final Tracer tracer;
+    private final String traceId;
+    private final String spanId;
+    private final String parentId;
+    private final String name;
+    private final Span previous;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private Map<String, String> attributes;
+    private boolean closed;
+
+    Span(Tracer tracer, String traceId, String spanId, String parentId, String name, Span previous) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.name = name;
+        this.previous = previous;
+        this.startEpochMicros = tracer == null ? 0 : System.currentTimeMillis() * 1000;
+        this.startNanos = tracer == null ? 0 : System.nanoTime();
+    }
+
+    public boolean isSampled() {
+        return this != NOOP;
+    }
+
+    // Adds an attribute, e.g. the table chosen or whether the cache was hit
+    public Span tag(String key, Object value) {
+        if (this != NOOP) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    // W3C trace context header value for calls made within this span
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    @Override
+    public void close() {
+        if (this != NOOP && !closed) {
+            closed = true;
+            tracer.finish(this);
+        }
+    }
+
+    String getTraceId() { return traceId; }
+
+    String getSpanId() { return spanId; }
+
+    String getParentId() { return parentId; }
+
+    String getName() { return name; }
+
+    Span getPrevious() { return previous; }
+
+    long getStartEpochMicros() { return startEpochMicros; }
+
+    long getStartNanos() { return startNanos; }
+
+    Map<String, String> getAttributes() { return attributes == null ? Map.of() : attributes; }
+}
@@ -0,0 +1,141 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the spans of the last tracing.max-traces traces in memory (see TraceRestController)
+ * and, if tracing.export-file is set, appends every span to that file as a JSON line.
+ * The file is written on a background thread, never on the request thread.
+ */
+@Component
+public class TraceCollector {
+
+    public record SpanRecord(String traceId, String spanId, String parentId, String service, String name,
+                             long startEpochMicros, long durationMicros, Map<String, String> attributes) {}
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, List<SpanRecord>> traces = new HashMap<>();
+    private final Deque<String> order = new ArrayDeque<>();
+    private final ExecutorService exporter;
+    private BufferedWriter exportWriter;
+
+    @Value("${tracing.max-traces:200}")
+    private int maxTraces = 200;
+
+    public TraceCollector(ObjectMapper objectMapper, @Value("${tracing.export-file:}") String exportFile) {
+        this.objectMapper = objectMapper;
+        if (exportFile == null || exportFile.isBlank()) {
+            this.exporter = null;
+        } else {
+            this.exporter = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "trace-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                Path path = Paths.get(exportFile);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                this.exportWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("Trace export to " + exportFile + " disabled: " + e.getMessage());
+            }
+        }
+    }
+
+    void add(SpanRecord span) {
+        synchronized (this) {
+            List<SpanRecord> spans = traces.get(span.traceId());
+            if (spans == null) {
+                spans = new ArrayList<>();
+                traces.put(span.traceId(), spans);
+                order.addLast(span.traceId());
+                while (order.size() > maxTraces) {
+                    traces.remove(order.removeFirst());
+                }
+            }
+            spans.add(span);
+        }
+        if (exportWriter != null) {
+            exporter.execute(() -> export(span));
+        }
+    }
+
+    private void export(SpanRecord span) {
+        try {
+            exportWriter.write(objectMapper.writeValueAsString(span));
+            exportWriter.newLine();
+            exportWriter.flush();
+        } catch (IOException e) {
+            System.err.println("Could not export span: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The most recent traces, newest first, each with its spans in start order.
+     */
+    public synchronized List<Map<String, Object>> getTraces(int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        var ids = order.descendingIterator();
+        while (ids.hasNext() && result.size() < limit) {
+            result.add(summary(ids.next()));
+        }
+        return result;
+    }
+
+    public synchronized Map<String, Object> getTrace(String traceId) {
+        return traces.containsKey(traceId) ? summary(traceId) : null;
+    }
+
+    private Map<String, Object> summary(String traceId) {
+        List<SpanRecord> spans = new ArrayList<>(traces.get(traceId));
+        spans.sort(Comparator.comparingLong(SpanRecord::startEpochMicros));
+        // The local root is the span whose parent is not part of this service's spans
+        SpanRecord root = spans.stream()
+                .filter(s -> spans.stream().noneMatch(other -> other.spanId().equals(s.parentId())))
+                .findFirst().orElse(spans.get(0));
+
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceId", traceId);
+        trace.put("name", root.name());
+        trace.put("durationMicros", root.durationMicros());
+        trace.put("spans", spans);
+        return trace;
+    }
+
+    // Writes out the spans still queued for export
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        if (exporter != null) {
+            exporter.shutdown();
+            exporter.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (exportWriter != null) {
+            exportWriter.close();
+        }
+    }
+}
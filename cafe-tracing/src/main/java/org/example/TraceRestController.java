@@ -0,0 +1,39 @@
+package org.example;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recently recorded traces of this service.
+ */
+@RestController
+@RequestMapping("/api/admin/traces")
+public class TraceRestController {
+
+    private final TraceCollector collector;
+
+    public TraceRestController(TraceCollector collector) {
+        this.collector = collector;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> getTraces(@RequestParam(defaultValue = "20") int limit) {
+        return collector.getTraces(Math.max(1, Math.min(limit, 200)));
+    }
+
+    @GetMapping("/{traceId}")
+    public ResponseEntity<?> getTrace(@PathVariable String traceId) {
+        Map<String, Object> trace = collector.getTrace(traceId);
+        if (trace == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Trace " + traceId + " not found"));
+        }
+        return ResponseEntity.ok(trace);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Minimal request tracer with W3C trace context (traceparent) propagation.
+ *
+ * Whether a request is traced is decided once, when its trace starts, by
+ * tracing.sample-rate (0.0 - 1.0). A caller's traceparent header continues its trace
+ * and can opt out of sampling, but its sampled flag only forces a trace when
+ * tracing.trust-incoming-sampling is set, i.e. for services only other services call.
+ * Spans of unsampled requests are a shared no-op object, so the cost of tracing at
+ * full load is one thread-local lookup per span.
+ *
+ * The current span is kept per thread. Work handed to other threads is not traced.
+ */
+@Component
+public class Tracer {
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final TraceCollector collector;
+
+    @Value("${tracing.sample-rate:0.01}")
+    private double sampleRate = 0.01;
+
+    @Value("${tracing.trust-incoming-sampling:false}")
+    private boolean trustIncomingSampling = false;
+
+    @Value("${spring.application.name:application}")
+    private String serviceName = "application";
+
+    public Tracer(TraceCollector collector) {
+        this.collector = collector;
+    }
+
+    /**
+     * Starts the root span of a request.
+     *
+     * @param name The span name, e.g. "GET /api/bookings"
+     * @param traceparent The caller's traceparent header, or null
+     */
+    public Span startTrace(String name, String traceparent) {
+        String traceId = null;
+        String parentId = null;
+        boolean sampled;
+
+        String[] parts = traceparent == null ? null : traceparent.trim().split("-");
+        int flags = parts != null && parts.length == 4 && parts[1].length() == 32 && parts[2].length() == 16
+                ? parseFlags(parts[3]) : -1;
+        if (flags >= 0) {
+            traceId = parts[1];
+            parentId = parts[2];
+            // Bit 0 of the flags is "sampled"; from an outside caller it can only lower the sample rate
+            sampled = (flags & 1) == 1 && (trustIncomingSampling || sample());
+        } else {
+            sampled = sample();
+        }
+
+        if (!sampled) {
+            current.set(Span.NOOP);
+            return Span.NOOP;
+        }
+        Span span = new Span(this, traceId != null ? traceId : randomHex(32), randomHex(16), parentId, name, null);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Starts a child span of the current span. Outside a sampled trace this is the no-op span.
+     */
+    public Span span(String name) {
+        Span parent = current.get();
+        if (parent == null || parent == Span.NOOP) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent.getTraceId(), randomHex(16), parent.getSpanId(), name, parent);
+        current.set(span);
+        return span;
+    }
+
+    // The current span, or the no-op span
+    public Span current() {
+        Span span = current.get();
+        return span == null ? Span.NOOP : span;
+    }
+
+    void finish(Span span) {
+        long durationMicros = (System.nanoTime() - span.getStartNanos()) / 1000;
+        if (span.getPrevious() != null) {
+            current.set(span.getPrevious());
+        } else {
+            current.remove();
+        }
+        collector.add(new TraceCollector.SpanRecord(span.getTraceId(), span.getSpanId(), span.getParentId(),
+                serviceName, span.getName(), span.getStartEpochMicros(), durationMicros, Map.copyOf(span.getAttributes())));
+    }
+
+    // Ends an unsampled request, which has no span to close
+    void clear() {
+        current.remove();
+    }
+
+    private boolean sample() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    // The trace-flags field (two hex digits), or -1 if it is malformed
+    private static int parseFlags(String flags) {
+        if (flags.length() != 2) {
+            return -1;
+        }
+        int high = Character.digit(flags.charAt(0), 16);
+        int low = Character.digit(flags.charAt(1), 16);
+        return high < 0 || low < 0 ? -1 : high << 4 | low;
+    }
+
+    private static String randomHex(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(length);
+        while (hex.length() < length) {
+            String part = Long.toHexString(random.nextLong());
+            hex.append("0".repeat(16 - part.length())).append(part);
+        }
+        return hex.substring(0, length);
+    }
+}
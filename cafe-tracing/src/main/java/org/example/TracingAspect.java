@@ -0,0 +1,33 @@
+package org.example;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a span for every repository call made within a sampled trace,
+ * e.g. "BookingRepository.findByLocationAndReservationDate".
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(* org.example.*Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!tracer.current().isSampled()) {
+            return joinPoint.proceed();
+        }
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        try (Span span = tracer.span(repository + "." + joinPoint.getSignature().getName())) {
+            span.tag("kind", "db");
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Records a span for each outgoing RestTemplate call and passes the trace on to the
+ * called service in a traceparent header, so both services' spans share one trace id.
+ */
+public class TracingClientInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Tracer tracer;
+
+    public TracingClientInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!tracer.current().isSampled()) {
+            return execution.execute(request, body);
+        }
+        try (Span span = tracer.span("HTTP " + request.getMethod() + " " + request.getURI().getPath())) {
+            span.tag("kind", "client").tag("host", request.getURI().getHost());
+            request.getHeaders().set("traceparent", span.traceparent());
+            ClientHttpResponse response = execution.execute(request, body);
+            span.tag("status", response.getStatusCode().value());
+            return response;
+        }
+    }
+}
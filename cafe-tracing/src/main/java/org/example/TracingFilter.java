@@ -0,0 +1,59 @@
+package org.example;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Starts a trace for each API request, continuing the caller's trace if it sent a
+ * traceparent header. Sampled responses carry the trace id in X-Trace-Id.
+ */
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // Looking at traces should not produce new ones
+        return !path.startsWith("/api/") || path.startsWith("/api/admin/traces");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Span span = tracer.startTrace(request.getMethod() + " " + path, request.getHeader("traceparent"));
+        if (!span.isSampled()) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                tracer.clear();
+            }
+            return;
+        }
+
+        response.setHeader(TRACE_ID_HEADER, span.getTraceId());
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.tag("error", e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            span.tag("status", response.getStatus());
+            span.close();
+        }
+    }
+}
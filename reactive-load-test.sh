@@ -0,0 +1,94 @@
+#!/usr/bin/env bash
+# Load comparison: booking-service (Spring MVC, JPA, blocking) and booking-service-reactive
+# (WebFlux, R2DBC) under many concurrent connections with the same few request threads.
+# For each concurrency level it reports requests/s, latency (p50, p99), the peak number of
+# established client connections and the JVM's thread count.
+#
+# Usage: ./reactive-load-test.sh [threads] [requests]   (default 4 threads, 20000 requests per run)
+# Needs: JDK 25, Maven, curl, ss and hey (https://github.com/rakyll/hey). Uses ports 18080-18082.
+set -euo pipefail
+
+THREADS=${1:-4}
+REQUESTS=${2:-20000}
+CONCURRENCY=(50 200 1000)
+WORK=$(mktemp -d)
+PIDS=()
+trap 'kill "${PIDS[@]}" 2>/dev/null || true; rm -rf "$WORK"' EXIT
+
+# Starts a JVM and waits until GET http://localhost:$port$path returns 2xx
+start() {
+  local port=$1 path=$2 log=$3; shift 3
+  java "$@" --server.port="$port" > "$log" 2>&1 &
+  PIDS+=($!)
+  until curl -sf -o /dev/null "http://localhost:$port$path"; do
+    if ! kill -0 "${PIDS[-1]}" 2>/dev/null; then
+      echo "JVM exited before serving a request, see $log" >&2
+      exit 1
+    fi
+    sleep 0.1
+  done
+}
+
+# A day of bookings for the endpoint under load to return
+seed() {
+  local port=$1 date
+  date=$(date -d tomorrow +%F)
+  for hour in 09 10 11 12 13 14 15; do
+    curl -sf -o /dev/null -H 'Content-Type: application/json' "http://localhost:$port/api/bookings" -d \
+      "{\"customerName\":\"Load Test\",\"email\":\"load@example.com\",\"phone\":\"555-0000\",\"reservationDate\":\"$date\",\"reservationTime\":\"$hour:00\",\"numberOfGuests\":2}"
+  done
+}
+
+# Highest number of established connections to $port while process $2 runs
+peak_connections() {
+  local port=$1 pid=$2 peak=0 count
+  while kill -0 "$pid" 2>/dev/null; do
+    count=$(ss -Htn state established "( sport = :$port )" | wc -l)
+    (( count > peak )) && peak=$count
+    sleep 0.2
+  done
+  echo "$peak"
+}
+
+run() {
+  local label=$1 port=$2 jvm=$3 concurrency=$4 pid peak threads summary
+  hey -n "$REQUESTS" -c "$concurrency" "http://localhost:$port/api/bookings?email=load@example.com" > "$WORK/hey.txt" &
+  pid=$!
+  peak=$(peak_connections "$port" "$pid")
+  wait "$pid"
+  threads=$(awk '/^Threads:/ { print $2 }' "/proc/$jvm/status")
+  summary=$(awk '/Requests\/sec/ { rps = $2 } /50%+ in/ { p50 = $3 } /99%+ in/ { p99 = $3 }
+                 END { printf "%8.0f req/s   p50 %7.1f ms   p99 %7.1f ms", rps, p50 * 1000, p99 * 1000 }' "$WORK/hey.txt")
+  printf '%-16s c=%-5s %s   connections %5s   JVM threads %4s\n' "$label" "$concurrency" "$summary" "$peak" "$threads"
+}
+
+echo "Building jars..."
+mvn -q -B -DskipTests package
+
+start 18082 /api/tables "$WORK/table-service.log" -jar table-service/target/table-service-1.0-SNAPSHOT.jar
+
+# Same limits for both: $THREADS request threads and database connections, no rate or
+# per-location limits in the way
+start 18080 /api/bookings "$WORK/booking-service.log" \
+  -jar booking-service/target/booking-service-1.0-SNAPSHOT.jar \
+  --table.service.url=http://localhost:18082 --rate-limit.enabled=false \
+  --cafe.locations.max-concurrent-requests=100000 \
+  --server.tomcat.threads.max="$THREADS" --server.tomcat.threads.min-spare="$THREADS" \
+  --server.tomcat.max-connections=100000 --server.tomcat.accept-count=10000 \
+  --spring.datasource.hikari.maximum-pool-size="$THREADS"
+MVC_PID=${PIDS[-1]}
+start 18081 /api/bookings "$WORK/booking-service-reactive.log" \
+  -Dreactor.netty.ioWorkerCount="$THREADS" \
+  -jar booking-service-reactive/target/booking-service-reactive-1.0-SNAPSHOT.jar \
+  --table.service.url=http://localhost:18082 --spring.r2dbc.pool.max-size="$THREADS"
+REACTIVE_PID=${PIDS[-1]}
+
+seed 18080
+seed 18081
+
+echo
+echo "GET /api/bookings?email=..., $REQUESTS requests per run, $THREADS request threads:"
+for concurrency in "${CONCURRENCY[@]}"; do
+  run "booking-service" 18080 "$MVC_PID" "$concurrency"
+  run "reactive" 18081 "$REACTIVE_PID" "$concurrency"
+done
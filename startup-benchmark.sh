@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Startup benchmark: time from launching the JVM to the first successful request,
+# for both services, with the default build and with the fast-start build
+# (Spring AOT + JDK AOT cache, see the fast-start profile in each pom.xml).
+#
+# Usage: ./startup-benchmark.sh [runs]     (default 5 runs per service and mode)
+# Needs: JDK 25, Maven, curl. Uses ports 18080 and 18081.
+set -euo pipefail
+
+RUNS=${1:-5}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# Milliseconds until GET http://localhost:$port$path returns 2xx, then stops the JVM
+time_to_first_request() {
+  local port=$1 path=$2 log=$3; shift 3
+  local start end pid
+  start=$(date +%s%N)
+  java "$@" --server.port="$port" > "$log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$port$path"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "JVM exited before serving a request, see $log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  end=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $(( (end - start) / 1000000 ))
+}
+
+# Median of the arguments
+median() {
+  printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+benchmark() {
+  local label=$1 service=$2 port=$3 path=$4; shift 4
+  local times=()
+  for _ in $(seq "$RUNS"); do
+    times+=("$(time_to_first_request "$port" "$path" "$WORK/$service.log" "$@")")
+  done
+  printf '%-14s %-10s median %6s ms   runs: %s\n' "$service" "$label" "$(median "${times[@]}")" "${times[*]}"
+}
+
+echo "Building default jars..."
+mvn -q -B -DskipTests package
+cp booking-service/target/booking-service-1.0-SNAPSHOT.jar "$WORK/booking-default.jar"
+cp table-service/target/table-service-1.0-SNAPSHOT.jar "$WORK/table-default.jar"
+
+echo "Building fast-start jars (AOT processing and training runs)..."
+mvn -q -B -DskipTests -Pfast-start package
+
+FAST_OPTS=(-Dspring.aot.enabled=true -Dspring.profiles.active=fast-start)
+
+echo
+echo "Time to first request ($RUNS runs each):"
+benchmark default  table-service   18081 /api/tables   -jar "$WORK/table-default.jar"
+benchmark fast     table-service   18081 /api/tables   -XX:AOTCache=table-service/target/table-service.aot \
+  "${FAST_OPTS[@]}" -jar table-service/target/table-service-1.0-SNAPSHOT.jar
+benchmark default  booking-service 18080 /api/bookings -jar "$WORK/booking-default.jar"
+benchmark fast     booking-service 18080 /api/bookings -XX:AOTCache=booking-service/target/booking-service.aot \
+  "${FAST_OPTS[@]}" -jar booking-service/target/booking-service-1.0-SNAPSHOT.jar
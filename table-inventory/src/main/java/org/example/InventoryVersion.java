@@ -0,0 +1,49 @@
+package org.example;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Version of a location's table inventory, incremented by every table change at the location.
+ * Writers pass the version they read (If-Match) so concurrent layout changes don't overwrite each other.
+ */
+@Entity
+@jakarta.persistence.Table(name = "inventory_versions")
+public class InventoryVersion {
+
+    @Id
+    @Column(length = 50)
+    private String location;
+
+    @Column(nullable = false)
+    private long version;
+
+    private Instant updatedAt;
+
+    // Default constructor (needed by JPA)
+    public InventoryVersion() {
+    }
+
+    public InventoryVersion(String location) {
+        this.location = location;
+        this.updatedAt = Instant.now();
+    }
+
+    void increment() {
+        version++;
+        updatedAt = Instant.now();
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
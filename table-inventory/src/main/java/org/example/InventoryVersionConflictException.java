@@ -0,0 +1,18 @@
+package org.example;
+
+/**
+ * Thrown when a table change was based on an inventory version that is no longer current.
+ */
+public class InventoryVersionConflictException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public InventoryVersionConflictException(long currentVersion) {
+        super("Table inventory has changed, current version is " + currentVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
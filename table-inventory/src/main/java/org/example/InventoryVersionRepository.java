@@ -0,0 +1,19 @@
+package org.example;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InventoryVersionRepository extends JpaRepository<InventoryVersion, String> {
+
+    // Serializes table changes at a location, the version check happens under this lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from InventoryVersion v where v.location = :location")
+    Optional<InventoryVersion> findForUpdate(@Param("location") String location);
+}
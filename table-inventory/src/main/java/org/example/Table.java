@@ -5,12 +5,20 @@ import jakarta.validation.constraints.*;
 
 @Entity
 @jakarta.persistence.Table(name = "cafe_tables")  // Fully qualified annotation
+@IdClass(TableId.class) // Table numbers are only unique within a location
 public class Table {
 
+    public static final String DEFAULT_LOCATION = "main";
+
+    @Id
+    @Column(nullable = false, length = 50)
+    private String location = DEFAULT_LOCATION;
+
     @Id
     @Column(nullable = false)
     private Long id;
 
+    @NotNull(message = "Table size is required")
     @Min(value = 1, message = "Minimum table size is 1")
     @Max(value = 9, message = "Maximum table size is 9")
     @Column(nullable = false)
@@ -25,6 +33,12 @@ public class Table {
         this.tableSize = tableSize;
     }
 
+    public Table(String location, Long id, Long tableSize) {
+        this.location = location;
+        this.id = id;
+        this.tableSize = tableSize;
+    }
+
     /*
      * Table configuration:
      * - Tables 1, 2, 3: up to 2 guests
@@ -33,6 +47,14 @@ public class Table {
      */
 
     // Getters and Setters
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
     public Long getId() {
         return id;
     }
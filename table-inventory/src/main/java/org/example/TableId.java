@@ -0,0 +1,42 @@
+package org.example;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of a Table: the table number within its location.
+ */
+public class TableId implements Serializable {
+
+    private String location;
+    private Long id;
+
+    // Default constructor (needed by JPA)
+    public TableId() {
+    }
+
+    public TableId(String location, Long id) {
+        this.location = location;
+        this.id = id;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TableId other)) return false;
+        return Objects.equals(location, other.location) && Objects.equals(id, other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(location, id);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The table inventory (catalog of tables per location).
+ * Served over HTTP by table-service, and used in-process by booking-service
+ * when it runs with table.service.mode=embedded.
+ *
+ * Every change to a location's tables increments its InventoryVersion. Changes can be made
+ * conditional on the version the caller read, so two edits of the same layout don't silently
+ * overwrite each other. Removing or shrinking a table does not touch bookings; booking-service
+ * notices the new layout and moves affected bookings (see its TableReassignmentJob).
+ *
+ * Lazy, so a booking-service reading the inventory from table-service never creates it.
+ */
+@Service
+@Lazy
+public class TableInventory {
+
+    private final TableRepository tableRepository;
+    private final InventoryVersionRepository versionRepository;
+
+    public TableInventory(TableRepository tableRepository, InventoryVersionRepository versionRepository) {
+        this.tableRepository = tableRepository;
+        this.versionRepository = versionRepository;
+    }
+
+    // All tables of a location, by table number
+    public List<Table> getTables(String location) {
+        return tableRepository.findByLocationOrderByIdAsc(location);
+    }
+
+    // Current inventory version of a location, 0 if its tables were never changed
+    public long getVersion(String location) {
+        return versionRepository.findById(location).map(InventoryVersion::getVersion).orElse(0L);
+    }
+
+    /**
+     * Adds a table, or changes the size of an existing one.
+     *
+     * @param expectedVersion The inventory version the change is based on, or null to apply it unconditionally
+     * @return The new inventory version
+     * @throws InventoryVersionConflictException if expectedVersion is not the current version
+     */
+    @Transactional
+    public long putTable(String location, Long id, Long tableSize, Long expectedVersion) {
+        InventoryVersion version = lockVersion(location, expectedVersion);
+        Table table = tableRepository.findById(new TableId(location, id)).orElseGet(() -> new Table(location, id, tableSize));
+        table.setTableSize(tableSize);
+        tableRepository.save(table);
+        version.increment();
+        return version.getVersion();
+    }
+
+    /**
+     * Removes a table.
+     *
+     * @param expectedVersion The inventory version the change is based on, or null to apply it unconditionally
+     * @return The new inventory version, or empty if the location has no such table
+     * @throws InventoryVersionConflictException if expectedVersion is not the current version
+     */
+    @Transactional
+    public Optional<Long> removeTable(String location, Long id, Long expectedVersion) {
+        InventoryVersion version = lockVersion(location, expectedVersion);
+        Optional<Table> table = tableRepository.findById(new TableId(location, id));
+        if (table.isEmpty()) {
+            return Optional.empty();
+        }
+        tableRepository.delete(table.get());
+        version.increment();
+        return Optional.of(version.getVersion());
+    }
+
+    private InventoryVersion lockVersion(String location, Long expectedVersion) {
+        InventoryVersion version = versionRepository.findForUpdate(location)
+                .orElseGet(() -> versionRepository.saveAndFlush(new InventoryVersion(location)));
+        if (expectedVersion != null && expectedVersion != version.getVersion()) {
+            throw new InventoryVersionConflictException(version.getVersion());
+        }
+        return version;
+    }
+
+    /**
+     * Creates the default table layout for a location, if it has no tables yet.
+     *
+     * @return true if tables were created
+     */
+    @Transactional
+    public boolean seedDefaultLayout(String location) {
+        if (tableRepository.countByLocation(location) > 0) {
+            return false;
+        }
+        tableRepository.saveAll(Arrays.asList(
+                // Tables 1-3: up to 2 guests
+                new Table(location, 1L, 2L),
+                new Table(location, 2L, 2L),
+                new Table(location, 3L, 2L),
+
+                // Tables 4-7: up to 6 guests
+                new Table(location, 4L, 6L),
+                new Table(location, 5L, 6L),
+                new Table(location, 6L, 6L),
+                new Table(location, 7L, 6L),
+
+                // Tables 8-9: up to 9 guests
+                new Table(location, 8L, 9L),
+                new Table(location, 9L, 9L)
+        ));
+        return true;
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface TableRepository extends JpaRepository<Table, Long> {
+public interface TableRepository extends JpaRepository<Table, TableId> {
     List<Table> findByTableSize(Long tableSize);
+    List<Table> findByLocationOrderByIdAsc(String location);
+    long countByLocation(String location);
 }
@@ -1,7 +1,11 @@
 package org.example;
 
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -9,24 +13,110 @@ import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/tables")
 public class TableRestController {
 
-    private final TableRepository tableRepository;
-
-    public TableRestController(TableRepository tableRepository) {
-        this.tableRepository = tableRepository;
+    private final TableInventory tableInventory;
 
+    public TableRestController(TableInventory tableInventory) {
+        this.tableInventory = tableInventory;
     }
 
     /**
-     * Get all configured tables (Inventory Catalog)
+     * Get all configured tables (Inventory Catalog) of a location
      * Returns the list of tables and their capacities.
+     * The ETag is the location's inventory version, to be sent back as If-Match on changes.
      */
     @GetMapping
-    public ResponseEntity<List<Table>> getAllTables() {
-        return ResponseEntity.ok(tableRepository.findAll());
+    public ResponseEntity<List<Table>> getAllTables(
+            @RequestParam(defaultValue = Table.DEFAULT_LOCATION) String location) {
+        // Version first: if a change lands in between, the stale tag only makes the next write fail
+        long version = tableInventory.getVersion(location);
+        return ResponseEntity.ok().eTag(etag(version)).body(tableInventory.getTables(location));
+    }
+
+    /**
+     * Add a table or change its size, e.g. PUT /api/tables/4?location=main {"tableSize": 2}
+     * With If-Match, the change is only made if the inventory is still at that version (412 otherwise).
+     * Future bookings that no longer fit are moved by booking-service.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> putTable(@PathVariable Long id, @Valid @RequestBody Table table,
+                                      @RequestParam(defaultValue = Table.DEFAULT_LOCATION) String location,
+                                      @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        if (id < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Table number must be positive"));
+        }
+        long version = tableInventory.putTable(location, id, table.getTableSize(), parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(etag(version)).body(new Table(location, id, table.getTableSize()));
+    }
+
+    /**
+     * Remove a table (e.g. for maintenance), with the same If-Match handling as PUT.
+     * Future bookings on it are moved to other tables by booking-service.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteTable(@PathVariable Long id,
+                                         @RequestParam(defaultValue = Table.DEFAULT_LOCATION) String location,
+                                         @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Optional<Long> version = tableInventory.removeTable(location, id, parseIfMatch(ifMatch));
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().eTag(etag(version.get())).build();
+    }
+
+    // The inventory changed since the caller read it
+    @ExceptionHandler(InventoryVersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(InventoryVersionConflictException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        error.put("version", ex.getCurrentVersion());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag(ex.getCurrentVersion())).body(error);
+    }
+
+    // Two first changes at a new location at once, one of them creates the version row
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConcurrentChange(DataIntegrityViolationException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Table inventory was changed concurrently, please retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            errors.put(((FieldError) error).getField(), error.getDefaultMessage());
+        });
+        return errors;
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-Match: "3" (or W/"3") -> 3, no header -> null (unconditional change)
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be an inventory version from the ETag header");
+        }
     }
 }
@@ -0,0 +1,24 @@
+package org.example;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Runtime hints for the fast-start build (Spring AOT, see the fast-start Maven profile):
+ * the Table entity and its composite key, which are also serialized as JSON, the inventory
+ * version entity, and recorded spans.
+ */
+public class TableRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Table.class,
+                TraceCollector.SpanRecord.class);
+        for (Class<?> type : new Class<?>[] {Table.class, TableId.class, InventoryVersion.class}) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+}